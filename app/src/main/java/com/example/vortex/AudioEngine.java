@@ -0,0 +1,229 @@
+package com.example.vortex;
+
+import android.content.Context;
+import android.content.res.AssetFileDescriptor;
+import android.media.AudioAttributes;
+import android.media.AudioManager;
+import android.media.MediaMetadataRetriever;
+import android.media.SoundPool;
+import com.example.vortex.core.LatencyHistogram;
+import java.util.Locale;
+
+/**
+ * Process-wide player for the game's sound effects.
+ * The samples are loaded once, on a background thread, the first time the
+ * engine is requested ({@link VortexApp} does this at startup), and stay decoded
+ * for the life of the process. A sample only plays once SoundPool has reported
+ * it loaded through its OnLoadCompleteListener; earlier taps are counted
+ * rather than silently lost.
+ *
+ * At most {@link #MAX_VOICES} sounds play at once. A new sound reuses the
+ * oldest voice, stopping it if it is still audible, so rapid taps are never
+ * queued behind earlier feedback.
+ *
+ * For each sample the delay from the tap's input event to the moment the
+ * sound was handed to the mixer is recorded, next to the device's output
+ * buffer size, so audio latency can be compared across devices.
+ * {@link #play} must be called on the main thread.
+ */
+public final class AudioEngine {
+
+    public static final int SOUND_HIT = 0;
+    public static final int SOUND_MISS = 1;
+    private static final int SAMPLE_COUNT = 2;
+
+    private static final int[] SAMPLE_RES = {R.raw.hit, R.raw.miss};
+    private static final String[] SAMPLE_NAMES = {"hit", "miss"};
+
+    static final int MAX_VOICES = 4;
+
+    // Used until the real length of a sample is known.
+    private static final long DEFAULT_SAMPLE_NANOS = 500_000_000L;
+
+    private static volatile AudioEngine instance;
+
+    private final SoundPool soundPool;
+    private final long createdNanos = System.nanoTime();
+
+    // Guarded by this; written by the loader, read by the load listener.
+    private final int[] sampleIds = new int[SAMPLE_COUNT];
+
+    private final long[] sampleNanos = new long[SAMPLE_COUNT];
+    private volatile int readyMask = 0;
+    private volatile long loadMicros = -1;
+
+    // Voice slots in the order they were started; main thread only.
+    private final int[] voiceStream = new int[MAX_VOICES];
+    private final long[] voiceEndNanos = new long[MAX_VOICES];
+    private int nextVoice = 0;
+    private int voicesStolen = 0;
+    private int playsBeforeLoad = 0;
+
+    private final LatencyHistogram[] startLatency = new LatencyHistogram[SAMPLE_COUNT];
+    private final int outputFrames;
+    private final int outputRate;
+
+    private AudioEngine(Context appContext) {
+        for (int i = 0; i < SAMPLE_COUNT; i++) {
+            startLatency[i] = new LatencyHistogram();
+            sampleNanos[i] = DEFAULT_SAMPLE_NANOS;
+        }
+
+        AudioManager audioManager = (AudioManager) appContext.getSystemService(Context.AUDIO_SERVICE);
+        outputFrames = parseProperty(audioManager, AudioManager.PROPERTY_OUTPUT_FRAMES_PER_BUFFER);
+        outputRate = parseProperty(audioManager, AudioManager.PROPERTY_OUTPUT_SAMPLE_RATE);
+
+        AudioAttributes audioAttributes = new AudioAttributes.Builder()
+                .setUsage(AudioAttributes.USAGE_GAME)
+                .setContentType(AudioAttributes.CONTENT_TYPE_SONIFICATION)
+                .build();
+        soundPool = new SoundPool.Builder()
+                .setMaxStreams(MAX_VOICES)
+                .setAudioAttributes(audioAttributes)
+                .build();
+        soundPool.setOnLoadCompleteListener((pool, sampleId, status) -> onSampleLoaded(sampleId, status));
+
+        new Thread(() -> loadSamples(appContext), "audio-loader").start();
+    }
+
+    /**
+     * @return The shared engine, created (and loading) on first use.
+     */
+    public static AudioEngine get(Context context) {
+        AudioEngine engine = instance;
+        if (engine == null) {
+            synchronized (AudioEngine.class) {
+                engine = instance;
+                if (engine == null) {
+                    engine = new AudioEngine(context.getApplicationContext());
+                    instance = engine;
+                }
+            }
+        }
+        return engine;
+    }
+
+    private void loadSamples(Context context) {
+        long trace = VortexTrace.begin(VortexTrace.AUDIO_INIT);
+        for (int i = 0; i < SAMPLE_COUNT; i++) {
+            sampleNanos[i] = readDurationNanos(context, SAMPLE_RES[i]);
+            try {
+                int id = soundPool.load(context, SAMPLE_RES[i], 1);
+                synchronized (this) {
+                    sampleIds[i] = id;
+                }
+            } catch (Exception e) { e.printStackTrace(); }
+        }
+        VortexTrace.end(VortexTrace.AUDIO_INIT, trace);
+    }
+
+    private void onSampleLoaded(int sampleId, int status) {
+        if (status != 0) return;
+        synchronized (this) {
+            for (int i = 0; i < SAMPLE_COUNT; i++) {
+                if (sampleIds[i] == sampleId) readyMask |= 1 << i;
+            }
+        }
+        if (isReady() && loadMicros < 0) {
+            loadMicros = (System.nanoTime() - createdNanos) / 1000L;
+        }
+    }
+
+    /**
+     * @return True once every sample can be played.
+     */
+    public boolean isReady() {
+        return readyMask == (1 << SAMPLE_COUNT) - 1;
+    }
+
+    public boolean isReady(int sound) {
+        return (readyMask & (1 << sound)) != 0;
+    }
+
+    /**
+     * Plays a sample on the oldest voice.
+     *
+     * @param sound          {@link #SOUND_HIT} or {@link #SOUND_MISS}.
+     * @param eventTimeNanos When the tap that caused it happened ({@code System.nanoTime()} base).
+     */
+    public void play(int sound, long eventTimeNanos) {
+        if (!isReady(sound)) {
+            playsBeforeLoad++;
+            return;
+        }
+
+        long now = System.nanoTime();
+        int slot = nextVoice;
+        nextVoice = (slot + 1) % MAX_VOICES;
+        if (voiceStream[slot] != 0 && now < voiceEndNanos[slot]) {
+            soundPool.stop(voiceStream[slot]);
+            voicesStolen++;
+        }
+
+        int sampleId;
+        synchronized (this) {
+            sampleId = sampleIds[sound];
+        }
+        voiceStream[slot] = soundPool.play(sampleId, 1, 1, 0, 0, 1);
+        voiceEndNanos[slot] = now + sampleNanos[sound];
+        startLatency[sound].record((System.nanoTime() - eventTimeNanos) / 1000L);
+    }
+
+    /**
+     * @return The tap-to-play delay of a sample, in microseconds.
+     */
+    public LatencyHistogram startLatency(int sound) {
+        return startLatency[sound];
+    }
+
+    /**
+     * Formats readiness, voice stealing and tap-to-play latency per sample.
+     * The delay ends when the sound is handed to the mixer; the output buffer
+     * line estimates how much the device adds on top of that.
+     */
+    public String formatReport() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("# audio: tap to play (microseconds)\n");
+        if (outputFrames > 0 && outputRate > 0) {
+            sb.append(String.format(Locale.US, "output buffer\t%d frames @ %d Hz\t%d us\n",
+                    outputFrames, outputRate, outputFrames * 1_000_000L / outputRate));
+        }
+        sb.append(String.format(Locale.US, "all samples loaded after\t%d us\n", loadMicros));
+        sb.append(String.format(Locale.US, "voices stolen\t%d\nplays before load\t%d\n",
+                voicesStolen, playsBeforeLoad));
+        sb.append("sound\tready\tcount\tp50\tp95\tp99\tmax\n");
+        for (int i = 0; i < SAMPLE_COUNT; i++) {
+            LatencyHistogram h = startLatency[i];
+            sb.append(String.format(Locale.US, "%s\t%b\t%d\t%d\t%d\t%d\t%d\n",
+                    SAMPLE_NAMES[i], isReady(i), h.count(),
+                    h.percentile(50), h.percentile(95), h.percentile(99), h.max()));
+        }
+        return sb.toString();
+    }
+
+    private static long readDurationNanos(Context context, int resId) {
+        MediaMetadataRetriever retriever = new MediaMetadataRetriever();
+        try (AssetFileDescriptor afd = context.getResources().openRawResourceFd(resId)) {
+            retriever.setDataSource(afd.getFileDescriptor(), afd.getStartOffset(), afd.getLength());
+            String millis = retriever.extractMetadata(MediaMetadataRetriever.METADATA_KEY_DURATION);
+            if (millis != null) return Long.parseLong(millis) * 1_000_000L;
+        } catch (Exception e) {
+            e.printStackTrace();
+        } finally {
+            try {
+                retriever.release();
+            } catch (Exception e) { e.printStackTrace(); }
+        }
+        return DEFAULT_SAMPLE_NANOS;
+    }
+
+    private static int parseProperty(AudioManager audioManager, String key) {
+        String value = audioManager != null ? audioManager.getProperty(key) : null;
+        if (value == null) return 0;
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.vortex;
+
+import android.view.animation.AccelerateDecelerateInterpolator;
+import android.view.animation.CycleInterpolator;
+import android.view.animation.Interpolator;
+import android.view.animation.OvershootInterpolator;
+
+/**
+ * The per-cell animations of {@link VortexGridView}, as data.
+ * Each effect is a fixed description (duration, shared interpolator, which
+ * transform it drives and how far) plus one start time per cell, so starting,
+ * restarting or cancelling an effect on a cell is a single array write and
+ * running any number of them allocates nothing.
+ *
+ * The start times live in a {@link CellStatePool.CellState} borrowed by the
+ * view. Call {@link #sample} for a cell and then read {@link #scale},
+ * {@link #rotation}, {@link #shiftX} and {@link #tinted}.
+ * All methods must be called on the main thread.
+ */
+final class CellEffects {
+
+    static final int POP_IN = 0;
+    static final int SPIN = 1;
+    static final int SHAKE = 2;
+    static final int COUNT = 3;
+
+    // The transform an effect drives.
+    private static final int CHANNEL_SCALE = 0;
+    private static final int CHANNEL_ROTATION = 1;
+    private static final int CHANNEL_SHIFT_X = 2;
+
+    private static final Effect[] EFFECTS = new Effect[COUNT];
+
+    static {
+        // Durations and amplitudes mirror the old per-View animations.
+        // Interpolators are stateless, so one instance serves every cell.
+        EFFECTS[POP_IN] = new Effect(300, new OvershootInterpolator(), CHANNEL_SCALE, 1f, false);
+        EFFECTS[SPIN] = new Effect(200, new AccelerateDecelerateInterpolator(), CHANNEL_ROTATION, 360f, false);
+        EFFECTS[SHAKE] = new Effect(400, new CycleInterpolator(3), CHANNEL_SHIFT_X, 20f, true);
+    }
+
+    private static final class Effect {
+        final long durationMs;
+        final Interpolator interpolator;
+        final int channel;
+        final float amplitude;
+        final boolean tints;
+
+        Effect(long durationMs, Interpolator interpolator, int channel, float amplitude, boolean tints) {
+            this.durationMs = durationMs;
+            this.interpolator = interpolator;
+            this.channel = channel;
+            this.amplitude = amplitude;
+            this.tints = tints;
+        }
+    }
+
+    private CellStatePool.CellState state;
+
+    // Output of the last sample() call.
+    float scale;
+    float rotation;
+    float shiftX;
+    boolean tinted;
+
+    /**
+     * Points the effects at a grid's state; null detaches them.
+     */
+    void attach(CellStatePool.CellState state) {
+        this.state = state;
+    }
+
+    CellStatePool.CellState state() {
+        return state;
+    }
+
+    /**
+     * (Re)starts an effect on a cell from its beginning.
+     *
+     * @param now The animation clock, see {@code AnimationUtils.currentAnimationTimeMillis()}.
+     */
+    void start(int effect, int cell, long now) {
+        // Zero means idle, so never store it as a start time.
+        state.starts[effect][cell] = now != 0L ? now : 1L;
+    }
+
+    void cancel(int effect, int cell) {
+        state.starts[effect][cell] = 0L;
+    }
+
+    /**
+     * Cancels every effect on a cell.
+     */
+    void reset(int cell) {
+        for (int e = 0; e < COUNT; e++) state.starts[e][cell] = 0L;
+    }
+
+    /**
+     * Evaluates all effects on a cell at the given time. Effects that have
+     * run their course are retired.
+     *
+     * @return True if any effect is still running.
+     */
+    boolean sample(int cell, long now) {
+        scale = 1f;
+        rotation = 0f;
+        shiftX = 0f;
+        tinted = false;
+        boolean running = false;
+
+        for (int e = 0; e < COUNT; e++) {
+            long[] starts = state.starts[e];
+            long start = starts[cell];
+            if (start == 0L) continue;
+
+            Effect effect = EFFECTS[e];
+            float t = (now - start) / (float) effect.durationMs;
+            if (t >= 1f) {
+                starts[cell] = 0L;
+                continue;
+            }
+            running = true;
+            float value = effect.amplitude * effect.interpolator.getInterpolation(Math.max(t, 0f));
+            switch (effect.channel) {
+                case CHANNEL_SCALE:
+                    scale = value;
+                    break;
+                case CHANNEL_ROTATION:
+                    rotation = value;
+                    break;
+                case CHANNEL_SHIFT_X:
+                    shiftX = value;
+                    break;
+            }
+            if (effect.tints) tinted = true;
+        }
+        return running;
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.vortex;
+
+import com.example.vortex.core.GameRules;
+import java.util.Arrays;
+
+/**
+ * Process-wide pool for the per-cell draw state used by {@link VortexGridView}.
+ * A grid view borrows one {@link CellState} while it is alive and hands it back
+ * when it is detached. Within a game the grid is only resized between levels,
+ * and every state is sized for the last level up front, so levels never
+ * reallocate. Across games, the next GameActivity (a new game, a replay or
+ * the benchmark) picks up the arrays of the previous one.
+ * Two entries are kept because an activity being launched can be created
+ * before the one it replaces is destroyed.
+ * All methods must be called on the main thread.
+ */
+final class CellStatePool {
+
+    private static final int MAX_POOLED = 2;
+
+    // Enough slots for the largest grid regular play reaches.
+    static final int PRESIZED_CELLS = GameRules.gridSide(GameRules.MAX_LEVEL) * GameRules.gridSide(GameRules.MAX_LEVEL);
+
+    private static final CellState[] pool = new CellState[MAX_POOLED];
+    private static int pooledCount = 0;
+
+    private static long statesCreated = 0;
+    private static long statesReused = 0;
+    private static long cellsCreated = 0;
+    private static long cellsReused = 0;
+
+    private CellStatePool() {}
+
+    /**
+     * Backing arrays for one grid: a start time per cell for each of the
+     * {@link CellEffects}. Slots beyond the current cell count are kept so that
+     * shrinking and regrowing the grid costs nothing.
+     */
+    static final class CellState {
+        final long[][] starts = new long[CellEffects.COUNT][PRESIZED_CELLS];
+
+        CellState() {
+            cellsCreated += PRESIZED_CELLS;
+        }
+
+        /**
+         * Makes room for the given number of cells and clears their state.
+         * Existing slots are reused in place when they are enough. Only grids
+         * beyond the last level (the benchmark) grow, and growing replaces
+         * every array, so all of its slots count as created.
+         */
+        void resize(int cells) {
+            int capacity = starts[0].length;
+            if (cells > capacity) {
+                for (int e = 0; e < starts.length; e++) starts[e] = new long[cells];
+                cellsCreated += cells;
+            } else {
+                for (long[] effect : starts) Arrays.fill(effect, 0, cells, 0L);
+                cellsReused += cells;
+            }
+        }
+    }
+
+    static CellState acquire() {
+        if (pooledCount > 0) {
+            CellState state = pool[--pooledCount];
+            pool[pooledCount] = null;
+            statesReused++;
+            return state;
+        }
+        statesCreated++;
+        return new CellState();
+    }
+
+    static void release(CellState state) {
+        if (state == null || pooledCount == MAX_POOLED) return;
+        for (int i = 0; i < pooledCount; i++) {
+            if (pool[i] == state) return;
+        }
+        pool[pooledCount++] = state;
+    }
+
+    /** Number of cell slots that had to be allocated. */
+    static long getCellsCreated() {
+        return cellsCreated;
+    }
+
+    /** Number of cell slots served from existing capacity. */
+    static long getCellsReused() {
+        return cellsReused;
+    }
+
+    /** Number of grid state holders that had to be allocated. */
+    static long getStatesCreated() {
+        return statesCreated;
+    }
+
+    /** Number of grid state holders handed back out from the pool. */
+    static long getStatesReused() {
+        return statesReused;
+    }
+}
@@ -1,41 +1,214 @@
 package com.example.vortex;
 
-import android.content.ContentValues;
 import android.content.Context;
 import android.database.Cursor;
+import android.database.DatabaseUtils;
 import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteDoneException;
 import android.database.sqlite.SQLiteOpenHelper;
+import android.database.sqlite.SQLiteStatement;
+import com.example.vortex.core.GameRules;
+import com.example.vortex.core.LeaderboardCache;
+import com.example.vortex.core.RetentionPolicy;
+import com.example.vortex.core.ScoreArchive;
+import com.example.vortex.core.ScoreDistribution;
+import com.example.vortex.core.SyncRecord;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Manages the SQLite database for game scores.
  * This class handles creating the database, upgrading it, and performing
  * CRUD operations for the leaderboard.
+ * The methods here are blocking; the app reaches them through
+ * {@link LeaderboardStore}, which owns the single long-lived instance and keeps
+ * them off the main thread. The connection is never closed per call.
+ *
+ * Scores are indexed by (level, score DESC) and by (score DESC), so the Top 25,
+ * qualification and rank queries are answered by seeking into an index instead
+ * of sorting the table. The hot statements are compiled once and reused.
+ *
+ * Rows downloaded from the leaderboard server carry the server's sequence
+ * number in {@code remote_seq}; rows recorded on this device leave it NULL,
+ * which is what makes them the upload outbox. Sync progress lives in the
+ * small key/value table {@code sync_state}.
+ *
+ * Every finished round is appended to {@code rounds}, which is only ever
+ * inserted into. Its per-level aggregates live in {@code level_stats} and are
+ * rewritten in the same transaction as each batch of rounds, so statistics
+ * never require a scan of the history.
+ *
+ * The database is kept bounded by {@link #runMaintenance}: it deletes score
+ * rows that fell below the {@link RetentionPolicy} depth on both their level
+ * and the global board (while sync is on, except local rows still waiting
+ * for upload), trims
+ * the oldest rounds only if the policy asks for it, and hands the freed pages
+ * back to the file system with incremental vacuum.
+ *
+ * Scores and rounds can be streamed out to a {@link ScoreArchive.Sink} and
+ * back in from a {@link ScoreArchive.Source}, for backups and moving to
+ * another device. Export walks both tables in id pages; import commits in
+ * chunks through precompiled inserts. Neither holds more than a page of rows.
  */
 public class DBHelper extends SQLiteOpenHelper {
 
     private static final String DATABASE_NAME = "GameDB";
-    private static final int DATABASE_VERSION = 2;
+    private static final int DATABASE_VERSION = 5;
     private static final String TABLE_SCORES = "scores";
+    private static final String TABLE_SYNC_STATE = "sync_state";
+    private static final String TABLE_ROUNDS = "rounds";
+    private static final String TABLE_LEVEL_STATS = "level_stats";
 
     // Column Names
     private static final String KEY_ID = "id";
     private static final String KEY_NAME = "name";
     private static final String KEY_SCORE = "score";
     private static final String KEY_LEVEL = "level";
+    private static final String KEY_REMOTE_SEQ = "remote_seq";
+    private static final String KEY_STATE_KEY = "key";
+    private static final String KEY_STATE_VALUE = "value";
+    private static final String KEY_PLAYED_AT = "played_at";
+    private static final String KEY_HITS = "hits";
+    private static final String KEY_MISSES = "misses";
+    private static final String KEY_DURATION = "duration_ms";
+    private static final String KEY_ROUND_COUNT = "rounds";
+    private static final String KEY_TOTAL_SCORE = "total_score";
+    private static final String KEY_BEST = "best";
+    private static final String KEY_SKETCH = "sketch";
+
+    // Index Names
+    private static final String INDEX_LEVEL_SCORE = "idx_scores_level_score";
+    private static final String INDEX_SCORE = "idx_scores_score";
+    private static final String INDEX_REMOTE = "idx_scores_remote";
+
+    // Keys of the sync state table.
+    static final String SYNC_CLIENT_ID = "client_id";
+    static final String SYNC_UPLOAD_WATERMARK = "upload_watermark";
+    static final String SYNC_PULL_WATERMARK = "pull_watermark";
+
+    private static final int TOP_N = GameRules.TOP_N;
+
+    // Leaderboard order; the index already stores equal scores by row id.
+    private static final String ORDER_RANK = " ORDER BY " + KEY_SCORE + " DESC, " + KEY_ID + " ASC";
+
+    // Queries with bound arguments, so SQLite can reuse the compiled plan.
+    private static final String QUERY_TOP_GLOBAL = "SELECT * FROM " + TABLE_SCORES
+            + ORDER_RANK + " LIMIT " + TOP_N;
+    private static final String QUERY_TOP_LEVEL = "SELECT * FROM " + TABLE_SCORES
+            + " WHERE " + KEY_LEVEL + "=?" + ORDER_RANK + " LIMIT " + TOP_N;
+
+    // Keyset paging: the rows ranked right after a given (score, id), read from the index.
+    private static final String KEYSET_AFTER = KEY_SCORE + "<=? AND (" + KEY_SCORE + "<? OR " + KEY_ID + ">?)";
+    private static final String QUERY_PAGE_GLOBAL = "SELECT * FROM " + TABLE_SCORES
+            + " WHERE " + KEYSET_AFTER + ORDER_RANK + " LIMIT ?";
+    private static final String QUERY_PAGE_LEVEL = "SELECT * FROM " + TABLE_SCORES
+            + " WHERE " + KEY_LEVEL + "=? AND " + KEYSET_AFTER + ORDER_RANK + " LIMIT ?";
+
+    // Local rows not yet uploaded, walked along the primary key.
+    private static final String QUERY_OUTBOX = "SELECT * FROM " + TABLE_SCORES
+            + " WHERE " + KEY_REMOTE_SEQ + " IS NULL AND " + KEY_ID + ">? ORDER BY " + KEY_ID + " LIMIT ?";
+
+    // Statements compiled on first use and kept for the life of the connection.
+    private SQLiteStatement insertStatement;
+    private SQLiteStatement levelThresholdStatement;
+    private SQLiteStatement levelRankStatement;
+    private SQLiteStatement globalRankStatement;
+
+    /**
+     * A score's position on its level's board and on the global board.
+     * Ranks are 1-based; equal scores share a rank. Ranks are only counted
+     * {@link #DEPTH} deep: a rank of {@code DEPTH + 1} means "below DEPTH".
+     */
+    public static final class Rank {
+        // As deep as the default retention keeps every board.
+        public static final int DEPTH = 100;
+
+        public final int level;
+        public final int global;
+
+        Rank(int level, int global) {
+            this.level = level;
+            this.global = global;
+        }
+
+        /**
+         * @return The rank as shown to the player, e.g. "7" or ">100".
+         */
+        public static String format(int rank) {
+            return rank > DEPTH ? ">" + DEPTH : String.valueOf(rank);
+        }
+    }
+
+    /**
+     * What one maintenance pass did and how large the database is afterwards.
+     */
+    public static final class Maintenance {
+        public final int scoresPruned;
+        public final int roundsPruned;
+        public final long pagesReclaimed;
+        public final long scoreRows;
+        public final long roundRows;
+        public final long pageCount;
+        public final long pageSize;
+        public final long freePages;
+
+        Maintenance(int scoresPruned, int roundsPruned, long pagesReclaimed, long scoreRows,
+                    long roundRows, long pageCount, long pageSize, long freePages) {
+            this.scoresPruned = scoresPruned;
+            this.roundsPruned = roundsPruned;
+            this.pagesReclaimed = pagesReclaimed;
+            this.scoreRows = scoreRows;
+            this.roundRows = roundRows;
+            this.pageCount = pageCount;
+            this.pageSize = pageSize;
+            this.freePages = freePages;
+        }
+    }
+
+    /**
+     * How many rows an export or import moved.
+     */
+    public static final class Transfer {
+        public final long scores;
+        public final long rounds;
+
+        Transfer(long scores, long rounds) {
+            this.scores = scores;
+            this.rounds = rounds;
+        }
+    }
+
+    // Rows per keyset page when exporting, and per transaction when importing.
+    static final int EXPORT_PAGE = 1000;
+    static final int IMPORT_CHUNK = 5000;
+
+    // SQLite's auto_vacuum mode for incremental vacuum.
+    private static final int AUTO_VACUUM_INCREMENTAL = 2;
 
     public DBHelper(Context context) {
         super(context, DATABASE_NAME, null, DATABASE_VERSION);
     }
 
+    @Override
+    public void onConfigure(SQLiteDatabase db) {
+        // Only takes effect on a new database; older files are converted by
+        // the first maintenance pass.
+        db.execSQL("PRAGMA auto_vacuum = INCREMENTAL");
+    }
+
     @Override
     public void onCreate(SQLiteDatabase db) {
         String createTable = "CREATE TABLE " + TABLE_SCORES + "("
                 + KEY_ID + " INTEGER PRIMARY KEY AUTOINCREMENT,"
                 + KEY_NAME + " TEXT,"
                 + KEY_SCORE + " INTEGER,"
-                + KEY_LEVEL + " INTEGER" + ")";
+                + KEY_LEVEL + " INTEGER,"
+                + KEY_REMOTE_SEQ + " INTEGER" + ")";
         db.execSQL(createTable);
+        createIndexes(db);
+        createSyncState(db);
+        createHistory(db);
     }
 
     @Override
@@ -44,6 +217,69 @@ public class DBHelper extends SQLiteOpenHelper {
             db.execSQL("DROP TABLE IF EXISTS " + TABLE_SCORES);
             onCreate(db);
         }
+        if (oldVersion < 3) {
+            // Version 3 only adds indexes; existing scores are kept.
+            createIndexes(db);
+        }
+        if (oldVersion >= 2 && oldVersion < 4) {
+            // Version 4 adds sync; existing scores become the first upload.
+            // (Tables recreated above already have the column.)
+            db.execSQL("ALTER TABLE " + TABLE_SCORES + " ADD COLUMN " + KEY_REMOTE_SEQ + " INTEGER");
+            createSyncState(db);
+        }
+        if (oldVersion >= 2 && oldVersion < 5) {
+            // Version 5 adds the round history; it starts empty.
+            createHistory(db);
+        }
+    }
+
+    private void createIndexes(SQLiteDatabase db) {
+        db.execSQL("CREATE INDEX IF NOT EXISTS " + INDEX_LEVEL_SCORE + " ON " + TABLE_SCORES
+                + "(" + KEY_LEVEL + ", " + KEY_SCORE + " DESC)");
+        db.execSQL("CREATE INDEX IF NOT EXISTS " + INDEX_SCORE + " ON " + TABLE_SCORES
+                + "(" + KEY_SCORE + " DESC)");
+    }
+
+    private void createSyncState(SQLiteDatabase db) {
+        // NULLs never collide, so local rows are unaffected by the unique index.
+        db.execSQL("CREATE UNIQUE INDEX IF NOT EXISTS " + INDEX_REMOTE + " ON " + TABLE_SCORES
+                + "(" + KEY_REMOTE_SEQ + ")");
+        db.execSQL("CREATE TABLE IF NOT EXISTS " + TABLE_SYNC_STATE + "("
+                + KEY_STATE_KEY + " TEXT PRIMARY KEY,"
+                + KEY_STATE_VALUE + " TEXT" + ")");
+    }
+
+    private void createHistory(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE IF NOT EXISTS " + TABLE_ROUNDS + "("
+                + KEY_ID + " INTEGER PRIMARY KEY AUTOINCREMENT,"
+                + KEY_PLAYED_AT + " INTEGER,"
+                + KEY_LEVEL + " INTEGER,"
+                + KEY_SCORE + " INTEGER,"
+                + KEY_HITS + " INTEGER,"
+                + KEY_MISSES + " INTEGER,"
+                + KEY_DURATION + " INTEGER" + ")");
+        db.execSQL("CREATE TABLE IF NOT EXISTS " + TABLE_LEVEL_STATS + "("
+                + KEY_LEVEL + " INTEGER PRIMARY KEY,"
+                + KEY_ROUND_COUNT + " INTEGER,"
+                + KEY_TOTAL_SCORE + " INTEGER,"
+                + KEY_BEST + " INTEGER,"
+                + KEY_SKETCH + " BLOB" + ")");
+    }
+
+    private synchronized void compileStatements() {
+        if (insertStatement != null) return;
+        SQLiteDatabase db = getWritableDatabase();
+        insertStatement = db.compileStatement("INSERT INTO " + TABLE_SCORES + "("
+                + KEY_NAME + ", " + KEY_SCORE + ", " + KEY_LEVEL + ") VALUES (?, ?, ?)");
+        // The 25th best score of a level, found by walking the index from the top.
+        levelThresholdStatement = db.compileStatement("SELECT " + KEY_SCORE + " FROM " + TABLE_SCORES
+                + " WHERE " + KEY_LEVEL + "=? ORDER BY " + KEY_SCORE + " DESC LIMIT 1 OFFSET " + (TOP_N - 1));
+        // Counting the scores above walks the index from the top, so each count
+        // stops at the rank depth rather than growing with the rank.
+        levelRankStatement = db.compileStatement("SELECT COUNT(*) FROM (SELECT 1 FROM " + TABLE_SCORES
+                + " WHERE " + KEY_LEVEL + "=? AND " + KEY_SCORE + ">? LIMIT " + Rank.DEPTH + ")");
+        globalRankStatement = db.compileStatement("SELECT COUNT(*) FROM (SELECT 1 FROM " + TABLE_SCORES
+                + " WHERE " + KEY_SCORE + ">? LIMIT " + Rank.DEPTH + ")");
     }
 
     /**
@@ -52,55 +288,96 @@ public class DBHelper extends SQLiteOpenHelper {
      * @param name  The player's name.
      * @param score The score achieved.
      * @param level The level the score belongs to.
+     * @return The row id of the new entry.
      */
-    public void addScore(String name, int score, int level) {
-        SQLiteDatabase db = this.getWritableDatabase();
-        ContentValues values = new ContentValues();
-        values.put(KEY_NAME, name);
-        values.put(KEY_SCORE, score);
-        values.put(KEY_LEVEL, level);
-        db.insert(TABLE_SCORES, null, values);
-        db.close();
+    public long addScore(String name, int score, int level) {
+        long trace = VortexTrace.begin(VortexTrace.DB_ADD_SCORE);
+        try {
+            compileStatements();
+            synchronized (insertStatement) {
+                insertStatement.bindString(1, name);
+                insertStatement.bindLong(2, score);
+                insertStatement.bindLong(3, level);
+                return insertStatement.executeInsert();
+            }
+        } finally {
+            VortexTrace.end(VortexTrace.DB_ADD_SCORE, trace);
+        }
     }
 
     /**
-     * Retrieves the list of top 25 scores formatted for display.
+     * Fills the in-memory leaderboard with the global Top 25 and the Top 25 of
+     * each cached level, each read straight from its index.
      *
-     * @param levelFilter The level to filter by, or -1 for all levels.
-     * @return A list of strings representing the leaderboard ranks.
+     * @param cache The cache to fill.
      */
-    public ArrayList<String> getTop25Scores(int levelFilter) {
-        ArrayList<String> scoreList = new ArrayList<>();
-        String selectQuery;
+    void loadInto(LeaderboardCache cache) {
+        SQLiteDatabase db = this.getReadableDatabase();
+        for (int board = 0; board <= LeaderboardCache.LEVEL_COUNT; board++) {
+            int levelFilter = board == 0 ? LeaderboardCache.GLOBAL : board;
+            Cursor cursor = levelFilter == -1
+                    ? db.rawQuery(QUERY_TOP_GLOBAL, null)
+                    : db.rawQuery(QUERY_TOP_LEVEL, new String[]{String.valueOf(levelFilter)});
 
-        if (levelFilter == -1) {
-            selectQuery = "SELECT * FROM " + TABLE_SCORES + " ORDER BY " + KEY_SCORE + " DESC LIMIT 25";
-        } else {
-            selectQuery = "SELECT * FROM " + TABLE_SCORES + " WHERE " + KEY_LEVEL + "=" + levelFilter + " ORDER BY " + KEY_SCORE + " DESC LIMIT 25";
+            int idCol = cursor.getColumnIndexOrThrow(KEY_ID);
+            int nameCol = cursor.getColumnIndexOrThrow(KEY_NAME);
+            int scoreCol = cursor.getColumnIndexOrThrow(KEY_SCORE);
+            int levelCol = cursor.getColumnIndexOrThrow(KEY_LEVEL);
+            while (cursor.moveToNext()) {
+                cache.load(levelFilter, cursor.getLong(idCol), cursor.getString(nameCol),
+                        cursor.getInt(scoreCol), cursor.getInt(levelCol));
+            }
+            cursor.close();
         }
+        cache.markLoaded();
+    }
 
-        SQLiteDatabase db = this.getWritableDatabase();
-        Cursor cursor = db.rawQuery(selectQuery, null);
+    /**
+     * Retrieves the top 25 scores in leaderboard order.
+     *
+     * @param levelFilter The level to filter by, or -1 for all levels.
+     * @return The leaderboard rows, best first; the rank is the position plus one.
+     */
+    public ArrayList<ScoreRecord> getTop25Scores(int levelFilter) {
+        long trace = VortexTrace.begin(VortexTrace.DB_TOP25);
+        try {
+            SQLiteDatabase db = this.getReadableDatabase();
+            Cursor cursor;
+            if (levelFilter == -1) {
+                cursor = db.rawQuery(QUERY_TOP_GLOBAL, null);
+            } else {
+                cursor = db.rawQuery(QUERY_TOP_LEVEL, new String[]{String.valueOf(levelFilter)});
+            }
+            return readRecords(cursor, TOP_N);
+        } finally {
+            VortexTrace.end(VortexTrace.DB_TOP25, trace);
+        }
+    }
 
-        int rank = 1;
-        if (cursor.moveToFirst()) {
-            do {
-                String name = cursor.getString(cursor.getColumnIndexOrThrow(KEY_NAME));
-                int score = cursor.getInt(cursor.getColumnIndexOrThrow(KEY_SCORE));
-                int lvl = cursor.getInt(cursor.getColumnIndexOrThrow(KEY_LEVEL));
+    /**
+     * Retrieves the page of scores ranked right after a given entry.
+     * Uses keyset paging on the score index, so deep pages cost the same as
+     * the first one.
+     *
+     * @param levelFilter The level to filter by, or -1 for all levels.
+     * @param after       The last entry already shown.
+     * @param limit       The maximum number of rows to return.
+     * @return The next rows in leaderboard order.
+     */
+    public ArrayList<ScoreRecord> getScoresPage(int levelFilter, ScoreRecord after, int limit) {
+        String score = String.valueOf(after.score);
+        String id = String.valueOf(after.id);
+        String count = String.valueOf(limit);
 
-                if (levelFilter != -1) {
-                    scoreList.add(rank + " | " + name + " : " + score);
-                } else {
-                    scoreList.add(rank + " | " + name + " : " + score + " (Lvl " + lvl + ")");
-                }
-                rank++;
-            } while (cursor.moveToNext());
+        SQLiteDatabase db = this.getReadableDatabase();
+        Cursor cursor;
+        if (levelFilter == -1) {
+            cursor = db.rawQuery(QUERY_PAGE_GLOBAL, new String[]{score, score, id, count});
+        } else {
+            cursor = db.rawQuery(QUERY_PAGE_LEVEL,
+                    new String[]{String.valueOf(levelFilter), score, score, id, count});
         }
-
-        cursor.close();
-        db.close();
-        return scoreList;
+        return readRecords(cursor, limit);
     }
 
     /**
@@ -114,30 +391,471 @@ public class DBHelper extends SQLiteOpenHelper {
      * @return True if the score should be added to the database.
      */
     public boolean isTop25(int score, int level) {
+        long trace = VortexTrace.begin(VortexTrace.DB_IS_TOP25);
+        try {
+            compileStatements();
+            synchronized (levelThresholdStatement) {
+                levelThresholdStatement.bindLong(1, level);
+                try {
+                    // Case 2: The list is full. You must beat the 25th score to enter.
+                    long lowestTopScore = levelThresholdStatement.simpleQueryForLong();
+                    return GameRules.beatsLowest(score, lowestTopScore);
+                } catch (SQLiteDoneException e) {
+                    // Case 1: There is no 25th entry, so the list isn't full yet. Always qualify.
+                    return true;
+                }
+            }
+        } finally {
+            VortexTrace.end(VortexTrace.DB_IS_TOP25, trace);
+        }
+    }
+
+
+    /**
+     * Looks up where a score would rank on its level and across all levels.
+     * Each rank is the number of stored scores strictly greater than this one,
+     * plus one, counted along the score index. The count stops after
+     * {@link Rank#DEPTH} entries, so a lookup visits at most that many index
+     * entries per board; deeper scores come back as {@code DEPTH + 1}.
+     *
+     * @param score The score to rank.
+     * @param level The level the score belongs to.
+     * @return The level and global rank.
+     */
+    public Rank getRank(int score, int level) {
+        compileStatements();
+        long levelAbove;
+        synchronized (levelRankStatement) {
+            levelRankStatement.bindLong(1, level);
+            levelRankStatement.bindLong(2, score);
+            levelAbove = levelRankStatement.simpleQueryForLong();
+        }
+        long globalAbove;
+        synchronized (globalRankStatement) {
+            globalRankStatement.bindLong(1, score);
+            globalAbove = globalRankStatement.simpleQueryForLong();
+        }
+        return new Rank((int) levelAbove + 1, (int) globalAbove + 1);
+    }
+
+    /**
+     * Retrieves the entries just above and just below a score. Both halves are
+     * read by seeking into the score index from the given score outwards, so
+     * only the returned rows are visited. Combine with {@link #getRank(int, int)}
+     * to number them: the first entry at or below the score has that rank.
+     *
+     * @param score       The score to center on.
+     * @param levelFilter The level to look at, or -1 for all levels.
+     * @param radius      How many entries to return on each side.
+     * @return Up to {@code 2 * radius} entries in rank order.
+     */
+    public ArrayList<ScoreRecord> getScoresAround(int score, int levelFilter, int radius) {
+        String levelClause = levelFilter == -1 ? "" : KEY_LEVEL + "=? AND ";
+        String[] args = levelFilter == -1
+                ? new String[]{String.valueOf(score), String.valueOf(radius)}
+                : new String[]{String.valueOf(levelFilter), String.valueOf(score), String.valueOf(radius)};
+
         SQLiteDatabase db = this.getReadableDatabase();
-        boolean qualifies = false;
+        // Rows come back closest-first, so they are reversed into rank order.
+        ArrayList<ScoreRecord> above = readRecords(db.rawQuery("SELECT * FROM " + TABLE_SCORES
+                + " WHERE " + levelClause + KEY_SCORE + ">? ORDER BY " + KEY_SCORE + " ASC, "
+                + KEY_ID + " DESC LIMIT ?", args), radius);
+        ArrayList<ScoreRecord> scoreList = new ArrayList<>(above.size() + radius);
+        for (int i = above.size() - 1; i >= 0; i--) scoreList.add(above.get(i));
 
-        // Fetch the current Top 25 specifically for this level
-        String query = "SELECT " + KEY_SCORE + " FROM " + TABLE_SCORES +
-                " WHERE " + KEY_LEVEL + "=? ORDER BY " + KEY_SCORE + " DESC LIMIT 25";
+        scoreList.addAll(readRecords(db.rawQuery("SELECT * FROM " + TABLE_SCORES
+                + " WHERE " + levelClause + KEY_SCORE + "<=?" + ORDER_RANK + " LIMIT ?", args), radius));
+        return scoreList;
+    }
+
+    /**
+     * Appends rounds to the history and stores the updated aggregates of their
+     * levels, all in one transaction.
+     *
+     * @param rounds The rounds to append, oldest first.
+     * @param stats  The summaries by level, already including these rounds.
+     */
+    public void appendRounds(List<RoundRecord> rounds, ScoreDistribution[] stats) {
+        SQLiteDatabase db = getWritableDatabase();
+        SQLiteStatement insert = compileRoundInsert(db);
+        SQLiteStatement putStats = compileStatsPut(db);
+        boolean[] touched = new boolean[stats.length];
+        db.beginTransaction();
+        try {
+            for (RoundRecord round : rounds) {
+                insertRound(insert, round.playedAtMillis, round.level, round.score, round.hits,
+                        round.misses, round.durationMillis);
+                if (round.level >= 0 && round.level < stats.length) touched[round.level] = true;
+            }
+            putLevelStats(putStats, touched, stats);
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+            insert.close();
+            putStats.close();
+        }
+    }
 
-        Cursor cursor = db.rawQuery(query, new String[]{String.valueOf(level)});
+    private static SQLiteStatement compileRoundInsert(SQLiteDatabase db) {
+        return db.compileStatement("INSERT INTO " + TABLE_ROUNDS + "("
+                + KEY_PLAYED_AT + ", " + KEY_LEVEL + ", " + KEY_SCORE + ", " + KEY_HITS + ", "
+                + KEY_MISSES + ", " + KEY_DURATION + ") VALUES (?, ?, ?, ?, ?, ?)");
+    }
 
-        if (cursor.getCount() < 25) {
-            // Case 1: The list isn't full yet. Always qualify.
-            qualifies = true;
-        } else {
-            // Case 2: The list is full. Check the last entry (the 25th score).
-            if (cursor.moveToLast()) {
-                int lowestTopScore = cursor.getInt(0);
-                // You must beat the 25th score to enter.
-                if (score > lowestTopScore) {
-                    qualifies = true;
+    private static SQLiteStatement compileStatsPut(SQLiteDatabase db) {
+        return db.compileStatement("INSERT OR REPLACE INTO " + TABLE_LEVEL_STATS + "("
+                + KEY_LEVEL + ", " + KEY_ROUND_COUNT + ", " + KEY_TOTAL_SCORE + ", " + KEY_BEST + ", "
+                + KEY_SKETCH + ") VALUES (?, ?, ?, ?, ?)");
+    }
+
+    private static void insertRound(SQLiteStatement insert, long playedAtMillis, int level, int score,
+                                    int hits, int misses, long durationMillis) {
+        insert.bindLong(1, playedAtMillis);
+        insert.bindLong(2, level);
+        insert.bindLong(3, score);
+        insert.bindLong(4, hits);
+        insert.bindLong(5, misses);
+        insert.bindLong(6, durationMillis);
+        insert.executeInsert();
+    }
+
+    // Writes the summaries of the touched levels and clears their flags.
+    private static void putLevelStats(SQLiteStatement putStats, boolean[] touched, ScoreDistribution[] stats) {
+        for (int level = 0; level < stats.length; level++) {
+            if (!touched[level] || stats[level] == null) continue;
+            ScoreDistribution d = stats[level];
+            putStats.bindLong(1, level);
+            putStats.bindLong(2, d.count());
+            putStats.bindLong(3, d.total());
+            putStats.bindLong(4, d.best());
+            putStats.bindBlob(5, d.encode());
+            putStats.executeInsert();
+            touched[level] = false;
+        }
+    }
+
+    /**
+     * Reads the stored per-level summaries. Levels without rounds, or whose
+     * summary cannot be read, are left untouched.
+     *
+     * @param stats Filled by level.
+     */
+    void loadLevelStats(ScoreDistribution[] stats) {
+        Cursor cursor = getReadableDatabase().rawQuery("SELECT " + KEY_LEVEL + ", " + KEY_SKETCH
+                + " FROM " + TABLE_LEVEL_STATS, null);
+        try {
+            while (cursor.moveToNext()) {
+                int level = cursor.getInt(0);
+                if (level < 0 || level >= stats.length) continue;
+                try {
+                    stats[level] = ScoreDistribution.decode(cursor.getBlob(1));
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }
+        } finally {
+            cursor.close();
+        }
+    }
+
+    /**
+     * Prunes rows outside the retention policy and reclaims the freed pages.
+     * The deletes run in one transaction; the vacuum runs after it, since
+     * SQLite cannot vacuum inside a transaction. Call on the writer thread.
+     *
+     * @param policy     How deep the boards and the history are kept.
+     * @param keepUnsent True while sync is on: local rows above the upload
+     *                   watermark are kept until they have been uploaded.
+     * @return What was removed and the resulting sizes.
+     */
+    public Maintenance runMaintenance(RetentionPolicy policy, boolean keepUnsent) {
+        SQLiteDatabase db = getWritableDatabase();
+        long pagesBefore = DatabaseUtils.longForQuery(db, "PRAGMA page_count", null);
+
+        int scoresPruned = 0;
+        int roundsPruned = 0;
+        String uploaded = keepUnsent ? getSyncValue(SYNC_UPLOAD_WATERMARK) : null;
+        if (keepUnsent && uploaded == null) uploaded = "0";
+        db.beginTransaction();
+        try {
+            ArrayList<Integer> levels = new ArrayList<>();
+            Cursor cursor = db.rawQuery("SELECT DISTINCT " + KEY_LEVEL + " FROM " + TABLE_SCORES, null);
+            while (cursor.moveToNext()) levels.add(cursor.getInt(0));
+            cursor.close();
+
+            // A row goes only once it is below the depth on both of its boards,
+            // and, while sync is on, a local row only once it has been uploaded.
+            String notPending = uploaded == null ? ""
+                    : " AND (" + KEY_REMOTE_SEQ + " IS NOT NULL OR " + KEY_ID + "<=" + Long.parseLong(uploaded) + ")";
+            String keepGlobal = "SELECT " + KEY_ID + " FROM " + TABLE_SCORES + ORDER_RANK + " LIMIT " + policy.global;
+            String keepLevel = "SELECT " + KEY_ID + " FROM " + TABLE_SCORES + " WHERE " + KEY_LEVEL + "=?"
+                    + ORDER_RANK + " LIMIT " + policy.perLevel;
+            for (int level : levels) {
+                String arg = String.valueOf(level);
+                scoresPruned += db.delete(TABLE_SCORES, KEY_LEVEL + "=?" + notPending + " AND " + KEY_ID
+                        + " NOT IN (" + keepLevel + ") AND " + KEY_ID + " NOT IN (" + keepGlobal + ")",
+                        new String[]{arg, arg});
+            }
+
+            if (policy.trimsRounds()) {
+                roundsPruned = db.delete(TABLE_ROUNDS, KEY_ID + "<=(SELECT MAX(" + KEY_ID + ") FROM "
+                        + TABLE_ROUNDS + ")-?", new String[]{String.valueOf(policy.rounds)});
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+
+        if (DatabaseUtils.longForQuery(db, "PRAGMA auto_vacuum", null) != AUTO_VACUUM_INCREMENTAL) {
+            // One full rebuild switches an older file to incremental mode.
+            db.execSQL("PRAGMA auto_vacuum = INCREMENTAL");
+            db.execSQL("VACUUM");
+        } else if (DatabaseUtils.longForQuery(db, "PRAGMA freelist_count", null) > 0) {
+            // The pragma frees one page per step, so read it to the end.
+            Cursor vacuum = db.rawQuery("PRAGMA incremental_vacuum", null);
+            try {
+                while (vacuum.moveToNext()) {
+                    // Each row is one page handed back.
+                }
+            } finally {
+                vacuum.close();
+            }
+        }
+
+        long pageCount = DatabaseUtils.longForQuery(db, "PRAGMA page_count", null);
+        return new Maintenance(scoresPruned, roundsPruned, Math.max(0, pagesBefore - pageCount),
+                DatabaseUtils.queryNumEntries(db, TABLE_SCORES),
+                DatabaseUtils.queryNumEntries(db, TABLE_ROUNDS),
+                pageCount,
+                DatabaseUtils.longForQuery(db, "PRAGMA page_size", null),
+                DatabaseUtils.longForQuery(db, "PRAGMA freelist_count", null));
+    }
+
+    /**
+     * Retrieves local rows that have not been uploaded yet.
+     *
+     * @param afterId Only rows with a higher id are returned.
+     * @param limit   The maximum number of rows to return.
+     * @return The rows in id order.
+     */
+    public List<SyncRecord> getPendingUploads(long afterId, int limit) {
+        SQLiteDatabase db = this.getReadableDatabase();
+        ArrayList<ScoreRecord> records = readRecords(db.rawQuery(QUERY_OUTBOX,
+                new String[]{String.valueOf(afterId), String.valueOf(limit)}), limit);
+        List<SyncRecord> rows = new ArrayList<>(records.size());
+        for (ScoreRecord record : records) {
+            rows.add(new SyncRecord(record.id, record.name, record.score, record.level));
+        }
+        return rows;
+    }
+
+    /**
+     * Stores rows downloaded from the server and the new pull watermark in one
+     * transaction. Rows already stored (same server sequence) are skipped.
+     *
+     * @param rows      The rows, with the server sequence as their id.
+     * @param watermark The pull watermark to resume from next time.
+     * @return The rows actually inserted, with their local ids.
+     */
+    public ArrayList<ScoreRecord> applyRemoteScores(List<SyncRecord> rows, long watermark) {
+        SQLiteDatabase db = getWritableDatabase();
+        ArrayList<ScoreRecord> inserted = new ArrayList<>(rows.size());
+        SQLiteStatement insert = db.compileStatement("INSERT OR IGNORE INTO " + TABLE_SCORES + "("
+                + KEY_NAME + ", " + KEY_SCORE + ", " + KEY_LEVEL + ", " + KEY_REMOTE_SEQ + ") VALUES (?, ?, ?, ?)");
+        db.beginTransaction();
+        try {
+            for (SyncRecord row : rows) {
+                insert.bindString(1, row.name);
+                insert.bindLong(2, row.score);
+                insert.bindLong(3, row.level);
+                insert.bindLong(4, row.id);
+                long id = insert.executeInsert();
+                if (id != -1) inserted.add(new ScoreRecord(id, row.name, row.score, row.level));
+            }
+            putSyncValue(db, SYNC_PULL_WATERMARK, String.valueOf(watermark));
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+            insert.close();
+        }
+        return inserted;
+    }
+
+    /**
+     * Streams every score and round to an archive, in id order. Rows are read
+     * in keyset pages of {@value #EXPORT_PAGE}, so each query fits in one
+     * cursor window and no page is read twice. Rows committed while the
+     * export runs may or may not be included.
+     */
+    public Transfer exportArchive(ScoreArchive.Sink sink) throws IOException {
+        SQLiteDatabase db = getReadableDatabase();
+        String page = String.valueOf(EXPORT_PAGE);
+        long scores = 0;
+        long rounds = 0;
+
+        String queryScores = "SELECT " + KEY_ID + ", " + KEY_NAME + ", " + KEY_SCORE + ", " + KEY_LEVEL + ", "
+                + KEY_REMOTE_SEQ + " FROM " + TABLE_SCORES + " WHERE " + KEY_ID + ">? ORDER BY " + KEY_ID + " LIMIT ?";
+        long lastId = 0;
+        int read;
+        do {
+            read = 0;
+            Cursor cursor = db.rawQuery(queryScores, new String[]{String.valueOf(lastId), page});
+            try {
+                while (cursor.moveToNext()) {
+                    lastId = cursor.getLong(0);
+                    String name = cursor.isNull(1) ? "" : cursor.getString(1);
+                    // getLong reads NULL (a local row) as 0, the archive's "never synced".
+                    sink.writeScore(name, cursor.getInt(2), cursor.getInt(3), cursor.getLong(4));
+                    read++;
+                }
+            } finally {
+                cursor.close();
+            }
+            scores += read;
+        } while (read == EXPORT_PAGE);
+
+        String queryRounds = "SELECT " + KEY_ID + ", " + KEY_PLAYED_AT + ", " + KEY_LEVEL + ", " + KEY_SCORE + ", "
+                + KEY_HITS + ", " + KEY_MISSES + ", " + KEY_DURATION + " FROM " + TABLE_ROUNDS
+                + " WHERE " + KEY_ID + ">? ORDER BY " + KEY_ID + " LIMIT ?";
+        lastId = 0;
+        do {
+            read = 0;
+            Cursor cursor = db.rawQuery(queryRounds, new String[]{String.valueOf(lastId), page});
+            try {
+                while (cursor.moveToNext()) {
+                    lastId = cursor.getLong(0);
+                    sink.writeRound(cursor.getLong(1), cursor.getInt(2), cursor.getInt(3), cursor.getInt(4),
+                            cursor.getInt(5), cursor.getLong(6));
+                    read++;
+                }
+            } finally {
+                cursor.close();
+            }
+            rounds += read;
+        } while (read == EXPORT_PAGE);
+
+        sink.finish();
+        return new Transfer(scores, rounds);
+    }
+
+    /**
+     * Appends the rows of an archive, committing every {@value #IMPORT_CHUNK}
+     * rows through precompiled inserts. Synced scores already stored (same
+     * server sequence) are skipped; imported rounds have their scores
+     * recorded in {@code stats}, which is stored with each chunk.
+     * Chunks committed before a failure stay, so callers should check the
+     * archive first.
+     *
+     * Local scores and rounds carry no key that identifies them across
+     * devices, so an archive could not be told apart from rows already here.
+     * Import therefore only restores into a database without any (see
+     * {@link #hasLocalHistory()}); synced rows may be present.
+     *
+     * @param cache Told about every inserted score.
+     * @throws IOException If the database already has local rows.
+     */
+    public Transfer importArchive(ScoreArchive.Source source, ScoreDistribution[] stats,
+                                  LeaderboardCache cache) throws IOException {
+        if (hasLocalHistory()) throw new IOException("The database already has local scores or rounds");
+        SQLiteDatabase db = getWritableDatabase();
+        SQLiteStatement insertScore = db.compileStatement("INSERT OR IGNORE INTO " + TABLE_SCORES + "("
+                + KEY_NAME + ", " + KEY_SCORE + ", " + KEY_LEVEL + ", " + KEY_REMOTE_SEQ + ") VALUES (?, ?, ?, ?)");
+        SQLiteStatement insertRound = compileRoundInsert(db);
+        SQLiteStatement putStats = compileStatsPut(db);
+        boolean[] touched = new boolean[stats.length];
+        ScoreArchive.Row row = new ScoreArchive.Row();
+        long scores = 0;
+        long rounds = 0;
+        int inChunk = 0;
+
+        db.beginTransaction();
+        try {
+            while (source.next(row)) {
+                if (row.kind == ScoreArchive.Row.SCORE) {
+                    insertScore.bindString(1, row.name);
+                    insertScore.bindLong(2, row.score);
+                    insertScore.bindLong(3, row.level);
+                    if (row.remoteSeq != 0) insertScore.bindLong(4, row.remoteSeq);
+                    else insertScore.bindNull(4);
+                    long id = insertScore.executeInsert();
+                    if (id != -1) {
+                        cache.offer(id, row.name, row.score, row.level);
+                        scores++;
+                    }
+                } else {
+                    insertRound(insertRound, row.playedAtMillis, row.level, row.score, row.hits,
+                            row.misses, row.durationMillis);
+                    if (row.level >= 0 && row.level < stats.length) {
+                        if (stats[row.level] == null) stats[row.level] = new ScoreDistribution();
+                        stats[row.level].record(row.score);
+                        touched[row.level] = true;
+                    }
+                    rounds++;
+                }
+
+                if (++inChunk == IMPORT_CHUNK) {
+                    putLevelStats(putStats, touched, stats);
+                    db.setTransactionSuccessful();
+                    db.endTransaction();
+                    db.beginTransaction();
+                    inChunk = 0;
                 }
             }
+            putLevelStats(putStats, touched, stats);
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+            insertScore.close();
+            insertRound.close();
+            putStats.close();
         }
+        return new Transfer(scores, rounds);
+    }
+
+    /**
+     * @return True if any score recorded on this device, or any round, is stored.
+     */
+    public boolean hasLocalHistory() {
+        return DatabaseUtils.longForQuery(getReadableDatabase(), "SELECT EXISTS(SELECT 1 FROM " + TABLE_SCORES
+                + " WHERE " + KEY_REMOTE_SEQ + " IS NULL) OR EXISTS(SELECT 1 FROM " + TABLE_ROUNDS + ")", null) != 0;
+    }
 
+    /**
+     * @return A value from the sync state table, or null if it was never set.
+     */
+    public String getSyncValue(String key) {
+        Cursor cursor = getReadableDatabase().rawQuery("SELECT " + KEY_STATE_VALUE + " FROM "
+                + TABLE_SYNC_STATE + " WHERE " + KEY_STATE_KEY + "=?", new String[]{key});
+        try {
+            return cursor.moveToFirst() ? cursor.getString(0) : null;
+        } finally {
+            cursor.close();
+        }
+    }
+
+    public void putSyncValue(String key, String value) {
+        putSyncValue(getWritableDatabase(), key, value);
+    }
+
+    private static void putSyncValue(SQLiteDatabase db, String key, String value) {
+        db.execSQL("INSERT OR REPLACE INTO " + TABLE_SYNC_STATE + "(" + KEY_STATE_KEY + ", "
+                + KEY_STATE_VALUE + ") VALUES (?, ?)", new Object[]{key, value});
+    }
+
+    /**
+     * Reads every row of a cursor into records and closes it.
+     */
+    private static ArrayList<ScoreRecord> readRecords(Cursor cursor, int expected) {
+        ArrayList<ScoreRecord> records = new ArrayList<>(expected);
+        int idCol = cursor.getColumnIndexOrThrow(KEY_ID);
+        int nameCol = cursor.getColumnIndexOrThrow(KEY_NAME);
+        int scoreCol = cursor.getColumnIndexOrThrow(KEY_SCORE);
+        int levelCol = cursor.getColumnIndexOrThrow(KEY_LEVEL);
+        while (cursor.moveToNext()) {
+            records.add(new ScoreRecord(cursor.getLong(idCol), cursor.getString(nameCol),
+                    cursor.getInt(scoreCol), cursor.getInt(levelCol)));
+        }
         cursor.close();
-        return qualifies;
+        return records;
     }
-}
\ No newline at end of file
+}
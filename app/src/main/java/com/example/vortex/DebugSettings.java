@@ -0,0 +1,49 @@
+package com.example.vortex;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+/**
+ * Switches for the developer tools, kept in their own preferences file so
+ * they never mix with game progress. Changed from the debug menu (long-press
+ * the title on the main menu).
+ */
+public final class DebugSettings {
+
+    private static final String PREFS = "DebugPrefs";
+    private static final String KEY_FRAME_OVERLAY = "frame_overlay";
+    private static final String KEY_TRACING = "tracing";
+
+    private DebugSettings() {
+    }
+
+    /**
+     * @return True to show the frame-time overlay in games and record frame statistics.
+     */
+    public static boolean isFrameOverlayEnabled(Context context) {
+        return prefs(context).getBoolean(KEY_FRAME_OVERLAY, false);
+    }
+
+    public static void setFrameOverlayEnabled(Context context, boolean enabled) {
+        prefs(context).edit().putBoolean(KEY_FRAME_OVERLAY, enabled).apply();
+    }
+
+    /**
+     * @return True to emit {@link VortexTrace} sections and count them.
+     */
+    public static boolean isTracingEnabled(Context context) {
+        return prefs(context).getBoolean(KEY_TRACING, false);
+    }
+
+    /**
+     * Stores the tracing switch and applies it right away.
+     */
+    public static void setTracingEnabled(Context context, boolean enabled) {
+        prefs(context).edit().putBoolean(KEY_TRACING, enabled).apply();
+        VortexTrace.setEnabled(enabled);
+    }
+
+    private static SharedPreferences prefs(Context context) {
+        return context.getSharedPreferences(PREFS, Context.MODE_PRIVATE);
+    }
+}
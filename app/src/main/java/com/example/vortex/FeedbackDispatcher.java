@@ -0,0 +1,172 @@
+package com.example.vortex;
+
+import android.content.Context;
+import android.os.Build;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Message;
+import android.os.VibrationEffect;
+import android.os.Vibrator;
+import com.example.vortex.core.LatencyHistogram;
+import java.util.Locale;
+
+/**
+ * Turns hit and miss events into sound and haptic feedback without letting
+ * rapid taps pile up.
+ * Sounds go straight to the {@link AudioEngine}, which already caps its voices.
+ * Haptic pulses are decided on the main thread but issued on a dedicated
+ * thread, so the vibrator's binder call never blocks the UI; the
+ * {@link VibrationEffect}s are built once.
+ *
+ * Haptic policy:
+ * - A hit is never delayed: it goes to the front of the queue and any miss
+ *   pulse still waiting there is dropped.
+ * - A hit during a running hit pulse is coalesced into it.
+ * - A miss during a running pulse is coalesced (miss) or dropped (hit), so a
+ *   miss never cuts a hit pulse short.
+ * Call {@link #hit} and {@link #miss} on the main thread.
+ */
+public final class FeedbackDispatcher {
+
+    private static final long HIT_PULSE_MS = 50;
+    private static final long MISS_PULSE_MS = 200;
+    private static final long NANOS_PER_MILLI = 1_000_000L;
+
+    private static final int MSG_HIT = 1;
+    private static final int MSG_MISS = 2;
+
+    private static volatile FeedbackDispatcher instance;
+
+    private final AudioEngine audio;
+    private final Vibrator vibrator;
+    private final Handler hapticHandler;
+    private final VibrationEffect hitEffect;
+    private final VibrationEffect missEffect;
+
+    // Main thread only.
+    private int lastPulse = 0;
+    private long pulseEndNanos = 0L;
+    private int hitsSent, missesSent;
+    private int hitsCoalesced, missesCoalesced, missesDropped;
+
+    // Input event to vibrator call returning, recorded on the haptic thread.
+    private final LatencyHistogram hapticLatency = new LatencyHistogram();
+
+    private FeedbackDispatcher(Context appContext) {
+        audio = AudioEngine.get(appContext);
+        vibrator = (Vibrator) appContext.getSystemService(Context.VIBRATOR_SERVICE);
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+            hitEffect = VibrationEffect.createOneShot(HIT_PULSE_MS, VibrationEffect.DEFAULT_AMPLITUDE);
+            missEffect = VibrationEffect.createOneShot(MISS_PULSE_MS, VibrationEffect.DEFAULT_AMPLITUDE);
+        } else {
+            hitEffect = null;
+            missEffect = null;
+        }
+
+        HandlerThread thread = new HandlerThread("feedback-haptics");
+        thread.start();
+        hapticHandler = new Handler(thread.getLooper(), this::handleHaptic);
+    }
+
+    /**
+     * @return The shared dispatcher, created on first use.
+     */
+    public static FeedbackDispatcher get(Context context) {
+        FeedbackDispatcher dispatcher = instance;
+        if (dispatcher == null) {
+            synchronized (FeedbackDispatcher.class) {
+                dispatcher = instance;
+                if (dispatcher == null) {
+                    dispatcher = new FeedbackDispatcher(context.getApplicationContext());
+                    instance = dispatcher;
+                }
+            }
+        }
+        return dispatcher;
+    }
+
+    /**
+     * Short, sharp feedback for a hit.
+     *
+     * @param eventTimeNanos When the tap happened ({@code System.nanoTime()} base).
+     */
+    public void hit(long eventTimeNanos) {
+        audio.play(AudioEngine.SOUND_HIT, eventTimeNanos);
+
+        long now = System.nanoTime();
+        if (lastPulse == MSG_HIT && now < pulseEndNanos) {
+            hitsCoalesced++;
+            return;
+        }
+        if (hapticHandler.hasMessages(MSG_MISS)) {
+            // The queued miss never reaches the vibrator after all.
+            hapticHandler.removeMessages(MSG_MISS);
+            missesSent--;
+            missesDropped++;
+        }
+        hapticHandler.sendMessageAtFrontOfQueue(obtain(MSG_HIT, eventTimeNanos));
+        startPulse(MSG_HIT, now, HIT_PULSE_MS);
+        hitsSent++;
+    }
+
+    /**
+     * Longer feedback for a miss.
+     *
+     * @param eventTimeNanos When the tap happened ({@code System.nanoTime()} base).
+     */
+    public void miss(long eventTimeNanos) {
+        audio.play(AudioEngine.SOUND_MISS, eventTimeNanos);
+
+        long now = System.nanoTime();
+        if (now < pulseEndNanos) {
+            if (lastPulse == MSG_HIT) missesDropped++;
+            else missesCoalesced++;
+            return;
+        }
+        hapticHandler.sendMessage(obtain(MSG_MISS, eventTimeNanos));
+        startPulse(MSG_MISS, now, MISS_PULSE_MS);
+        missesSent++;
+    }
+
+    private void startPulse(int pulse, long now, long millis) {
+        lastPulse = pulse;
+        pulseEndNanos = now + millis * NANOS_PER_MILLI;
+    }
+
+    // The event time rides in the message's two int arguments, so nothing is boxed.
+    private Message obtain(int what, long eventTimeNanos) {
+        return hapticHandler.obtainMessage(what, (int) (eventTimeNanos >>> 32), (int) eventTimeNanos);
+    }
+
+    private boolean handleHaptic(Message msg) {
+        if (vibrator == null) return true;
+        boolean hit = msg.what == MSG_HIT;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+            vibrator.vibrate(hit ? hitEffect : missEffect);
+        } else {
+            vibrator.vibrate(hit ? HIT_PULSE_MS : MISS_PULSE_MS);
+        }
+        long eventTimeNanos = ((long) msg.arg1 << 32) | (msg.arg2 & 0xFFFFFFFFL);
+        synchronized (hapticLatency) {
+            hapticLatency.record((System.nanoTime() - eventTimeNanos) / 1000L);
+        }
+        return true;
+    }
+
+    /**
+     * Formats how many pulses were sent, coalesced and dropped, and how long
+     * after the tap the vibrator call completed. Call on the main thread.
+     */
+    public String formatReport() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("# haptics\n");
+        sb.append(String.format(Locale.US, "hit\tsent %d\tcoalesced %d\n", hitsSent, hitsCoalesced));
+        sb.append(String.format(Locale.US, "miss\tsent %d\tcoalesced %d\tdropped %d\n",
+                missesSent, missesCoalesced, missesDropped));
+        synchronized (hapticLatency) {
+            sb.append(String.format(Locale.US, "tap to vibrate (us)\tp50 %d\tp95 %d\tmax %d\n",
+                    hapticLatency.percentile(50), hapticLatency.percentile(95), hapticLatency.max()));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.vortex;
+
+import android.app.Activity;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Looper;
+import android.view.FrameMetrics;
+import android.view.View;
+import android.view.Window;
+import android.widget.TextView;
+import com.example.vortex.core.FrameTimeline;
+import com.example.vortex.core.LatencyHistogram;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Locale;
+
+/**
+ * Debug overlay with live FPS and slow-frame counts for a game session.
+ * Frame durations come from the window's {@link FrameMetrics}, delivered on a
+ * background thread, and are recorded per level in a {@link FrameTimeline}
+ * together with the marks the game makes (grid rebuilds, target changes,
+ * misses). A mark is attributed to the next frame reported after it, which
+ * is the frame that drew its work or the one just before.
+ * The label is refreshed a few times per second, not on every frame.
+ * Only created when enabled in {@link DebugSettings}; {@link #mark} and
+ * {@link #setLevel} must be called on the main thread.
+ */
+final class FrameStatsOverlay {
+
+    // Two frames at 60 Hz; anything longer is visible as a stutter.
+    private static final long SLOW_FRAME_MICROS = 33_333;
+    private static final long REFRESH_MS = 250;
+    private static final long NANOS_PER_MICRO = 1000L;
+
+    private final Window window;
+    private final TextView label;
+    private final FrameTimeline timeline = new FrameTimeline(SLOW_FRAME_MICROS);
+    private final HandlerThread metricsThread = new HandlerThread("frame-metrics");
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    private long lastFrames = 0;
+    private long lastRefreshNanos = 0;
+
+    private final Window.OnFrameMetricsAvailableListener metricsListener = (w, metrics, dropped) -> {
+        long micros = metrics.getMetric(FrameMetrics.TOTAL_DURATION) / NANOS_PER_MICRO;
+        synchronized (timeline) {
+            timeline.onFrame(micros);
+        }
+    };
+
+    private final Runnable refresh = new Runnable() {
+        @Override
+        public void run() {
+            render();
+            mainHandler.postDelayed(this, REFRESH_MS);
+        }
+    };
+
+    FrameStatsOverlay(Activity activity, TextView label) {
+        this.window = activity.getWindow();
+        this.label = label;
+    }
+
+    void start() {
+        metricsThread.start();
+        window.addOnFrameMetricsAvailableListener(metricsListener, new Handler(metricsThread.getLooper()));
+        label.setVisibility(View.VISIBLE);
+        lastRefreshNanos = System.nanoTime();
+        mainHandler.post(refresh);
+    }
+
+    void stop() {
+        mainHandler.removeCallbacks(refresh);
+        try {
+            window.removeOnFrameMetricsAvailableListener(metricsListener);
+        } catch (IllegalArgumentException e) {
+            // Never added.
+        }
+        metricsThread.quitSafely();
+    }
+
+    void setLevel(int level) {
+        synchronized (timeline) {
+            timeline.setLevel(level);
+        }
+    }
+
+    /**
+     * @param mark One of the {@code FrameTimeline.MARK_} constants.
+     */
+    void mark(int mark) {
+        synchronized (timeline) {
+            timeline.mark(mark);
+        }
+    }
+
+    /**
+     * Adds the frame times recorded so far for a level to another histogram.
+     */
+    void copyLevel(int level, LatencyHistogram into) {
+        synchronized (timeline) {
+            LatencyHistogram frames = timeline.level(level);
+            if (frames != null) into.add(frames);
+        }
+    }
+
+    private void render() {
+        long now = System.nanoTime();
+        long frames, slow, grid, target, miss;
+        synchronized (timeline) {
+            frames = timeline.frames();
+            slow = timeline.slowFrames();
+            grid = timeline.slowFramesAfter(FrameTimeline.MARK_GRID);
+            target = timeline.slowFramesAfter(FrameTimeline.MARK_TARGET);
+            miss = timeline.slowFramesAfter(FrameTimeline.MARK_MISS);
+        }
+        double fps = (frames - lastFrames) * 1e9 / Math.max(1, now - lastRefreshNanos);
+        lastFrames = frames;
+        lastRefreshNanos = now;
+        label.setText(String.format(Locale.US, "%.0f fps  slow %d  grid %d  tgt %d  miss %d",
+                fps, slow, grid, target, miss));
+    }
+
+    /**
+     * Writes the session's frame statistics ({@link FrameTimeline#encode()}) to
+     * a file, off the main thread.
+     */
+    void export(File out) {
+        final byte[] data;
+        synchronized (timeline) {
+            data = timeline.encode();
+        }
+        new Thread(() -> {
+            try (FileOutputStream stream = new FileOutputStream(out)) {
+                stream.write(data);
+            } catch (IOException e) { e.printStackTrace(); }
+        }, "frame-stats-export").start();
+    }
+}
@@ -1,67 +1,265 @@
 package com.example.vortex;
 
-import android.animation.AnimatorListenerAdapter;
-import android.animation.ObjectAnimator;
-import android.content.Context;
 import android.content.Intent;
 import android.content.SharedPreferences;
-import android.graphics.PorterDuff;
-import android.graphics.drawable.Drawable;
-import android.media.AudioAttributes;
-import android.media.SoundPool;
-import android.os.Build;
 import android.os.Bundle;
-import android.os.CountDownTimer;
-import android.os.VibrationEffect;
-import android.os.Vibrator;
-import android.view.View;
-import android.view.animation.CycleInterpolator;
-import android.view.animation.OvershootInterpolator;
-import android.widget.GridLayout;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.view.Choreographer;
+import android.view.MotionEvent;
 import android.widget.TextView;
+import androidx.annotation.NonNull;
+import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.core.content.ContextCompat;
+import androidx.fragment.app.FragmentManager;
+import com.example.vortex.core.FrameTimeline;
+import com.example.vortex.core.GameEngine;
+import com.example.vortex.core.GameRules;
+import com.example.vortex.core.GridSweep;
+import com.example.vortex.core.HudText;
+import com.example.vortex.core.LatencyHistogram;
+import com.example.vortex.core.Replay;
+import com.example.vortex.core.RoundTimer;
+import com.example.vortex.core.TapLatencyTracker;
+import com.example.vortex.core.TargetSequence;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Locale;
 import java.util.Random;
 
 /**
- * Handles the core gameplay mechanics.
+ * Hosts a game session across levels.
+ * The rules (grid size, targets, scoring, the 5-second timer and replay
+ * recording) live in {@link GameEngine}; this activity feeds it touches and
+ * display frames and renders what it reports. Between levels a
+ * {@link LevelCompleteFragment} is shown over the game, and "Next Level"
+ * starts the next round in place: the layout and grid are set up once per
+ * session rather than once per level. Sound and haptics go through the
+ * app-wide {@link FeedbackDispatcher}, whose samples are already loaded by the
+ * time a game starts.
  * Responsibilities include:
- * 1. Generating the grid dynamically based on the current level.
- * 2. Managing the 5-second countdown timer.
- * 3. Handling user input (touch events) and determining hits vs. misses.
- * 4. Playing audio and haptic feedback.
+ * 1. Sizing the grid view for the round the engine starts.
+ * 2. Driving the engine's countdown from display frames.
+ * 3. Forwarding touch events to the engine.
+ * 4. Requesting audio and haptic feedback for hits and misses.
+ * 5. Measuring tap-to-feedback latency for each level and grid size.
+ * 6. Saving each round's recording to a compact replay file, and playing
+ *    such a file back when started with REPLAY_FILE.
+ * 7. Measuring how long "Next Level" takes to reach the next round's first frame.
+ * 8. Adding every finished live round to the game history.
+ * 9. With the debug frame overlay on, recording frame times per level and
+ *    saving them to {@code files/frame_stats.bin} at the end of each round.
+ * 10. Started with BENCHMARK, running a {@link GridSweep}: one round per grid
+ *    size from 2x2 to 64x64, fed synthetic taps through the grid's touch
+ *    handling, with the results table saved to {@code files/grid_sweep.txt}.
+ *    Benchmark rounds are not recorded, saved or counted towards unlocks.
  */
-public class GameActivity extends AppCompatActivity {
+public class GameActivity extends AppCompatActivity implements LevelCompleteFragment.Host {
 
     private TextView tvLevel, tvTime, tvScore;
-    private GridLayout gameGrid;
+    private VortexGridView gameGrid;
 
     private int currentLevel;
     private int accumulatedScore = 0;
-    private int currentLevelScore = 0;
 
-    private CountDownTimer timer;
-    private int correctViewId = -1;
-    private int cellsPerSide;
+    // The session survives recreation; a round in progress starts over.
+    private static final String STATE_LEVEL = "currentLevel";
+    private static final String STATE_SCORE = "accumulatedScore";
+
+    private GameEngine engine;
+
+    // Set when playing back a recording instead of taking touch input.
+    private Replay replay;
+    private RoundTimer.Clock gameClock = RoundTimer.SYSTEM_CLOCK;
+
+    // True when live rounds run on the clock injected through VortexApp
+    // instead of vsync timestamps.
+    private boolean injectedClock;
+
+    private static final int MAX_SAVED_REPLAYS = 20;
+
+    private FeedbackDispatcher feedback;
+
+    // Null unless the frame overlay is enabled in the debug menu or a benchmark runs.
+    private FrameStatsOverlay frameStats;
+
+    // Benchmark mode: the sizes still to run and their results. Null in normal play.
+    private GridSweep sweep;
+    private static final int SWEEP_TAPS_PER_SECOND = 60;
+    // One synthetic tap in this many goes to a wrong cell, to exercise the miss path.
+    private static final int SWEEP_MISS_EVERY = 10;
+    // Lets the previous size's last frames drain before the next grid is built.
+    private static final long SWEEP_PAUSE_MS = 500;
+    private final Handler sweepHandler = new Handler(Looper.getMainLooper());
+    private final Random sweepRandom = new Random();
+    private long nextSweepTapUptime;
+    private int sweepTapCount;
+
+    // Taps the lit cell through the grid's own touch handling, at a fixed rate.
+    private final Runnable sweepTap = new Runnable() {
+        @Override
+        public void run() {
+            if (engine.isRoundOver()) return;
+            int cell = gameGrid.getTarget();
+            int cells = gameGrid.getCellCount();
+            if (++sweepTapCount % SWEEP_MISS_EVERY == 0 && cells > 1) {
+                cell = (cell + 1 + sweepRandom.nextInt(cells - 1)) % cells;
+            }
+            float x = gameGrid.cellCenterX(cell);
+            float y = gameGrid.cellCenterY(cell);
+            long now = SystemClock.uptimeMillis();
+            MotionEvent down = MotionEvent.obtain(now, now, MotionEvent.ACTION_DOWN, x, y, 0);
+            gameGrid.dispatchTouchEvent(down);
+            down.setAction(MotionEvent.ACTION_UP);
+            gameGrid.dispatchTouchEvent(down);
+            down.recycle();
+
+            // Scheduled against a fixed timeline, so a slow tap makes the next one come sooner.
+            nextSweepTapUptime += sweep.tapIntervalMillis();
+            sweepHandler.postAtTime(this, Math.max(nextSweepTapUptime, now));
+        }
+    };
+
+    private int COLOR_PINK, COLOR_TEXT;
+
+    // HUD labels render into reusable buffers; the time color is only pushed on change.
+    private final HudText levelText = new HudText("LVL: ");
+    private final HudText timeText = new HudText("T: ");
+    private final HudText scoreText = new HudText("PTS: ");
+    private int timeColor;
+
+    // Process-wide so that latency statistics accumulate across levels.
+    private static final TapLatencyTracker latency = new TapLatencyTracker(RoundTimer.SYSTEM_CLOCK);
+
+    // True while a real touch is being handled; replayed taps are not measured.
+    private boolean measuringTap = false;
+    private long tapEventNanos;
+
+    // "Next Level" press to the first frame of the next round, in microseconds.
+    private static final LatencyHistogram transitions = new LatencyHistogram();
+    private long transitionStartNanos;
+
+    // Runs at the start of the first frame after a level transition, which is
+    // the frame that draws the new grid.
+    private final Choreographer.FrameCallback transitionFrameCallback = new Choreographer.FrameCallback() {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            transitions.record((System.nanoTime() - transitionStartNanos) / 1000L);
+            VortexTrace.endHop(VortexTrace.HOP_NEXT_LEVEL);
+        }
+    };
+
+    // Closes the latency measurement of pending taps on the frame that draws their feedback.
+    private final Choreographer.FrameCallback latencyFrameCallback = new Choreographer.FrameCallback() {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            latency.onFrame(System.nanoTime());
+        }
+    };
+
+    // Feeds vsync timestamps into the engine while a round is running.
+    // During playback the (possibly accelerated) game clock is used instead.
+    private final Choreographer.FrameCallback frameCallback = new Choreographer.FrameCallback() {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            long now = engine.isReplaying() || injectedClock ? gameClock.nanoTime() : frameTimeNanos;
+            if (engine.advance(now)) {
+                Choreographer.getInstance().postFrameCallback(this);
+            }
+        }
+    };
+
+    private final GameEngine.Listener engineListener = new GameEngine.Listener() {
+        @Override
+        public void onRoundStart(int level, int side) {
+            if (levelText.setInt(level)) renderHud(tvLevel, levelText);
+            if (frameStats != null) {
+                frameStats.setLevel(level);
+                frameStats.mark(FrameTimeline.MARK_GRID);
+            }
+            generateGrid(side);
+            updateScoreDisplay();
+        }
+
+        @Override
+        public void onTarget(int cell) {
+            // The grid view resets the previous target and plays the pop-in on the new one.
+            long trace = VortexTrace.begin(VortexTrace.TARGET);
+            gameGrid.setTarget(cell);
+            VortexTrace.end(VortexTrace.TARGET, trace);
+            if (frameStats != null) frameStats.mark(FrameTimeline.MARK_TARGET);
+        }
 
-    private SoundPool soundPool;
-    private int soundHit, soundMiss;
-    private boolean soundLoaded = false;
-    private Vibrator vibrator;
+        @Override
+        public void onHit(int cell) {
+            updateScoreDisplay();
+
+            // Short, sharp feedback for success. The sound is playing and the
+            // haptic pulse only queued once this returns; the dispatcher times the pulse itself.
+            feedback.hit(currentTapNanos());
+            markLatency(TapLatencyTracker.STAGE_SOUND);
+
+            gameGrid.spin(cell);
+        }
+
+        @Override
+        public void onMiss(int cell) {
+            // Longer feedback for error; may be folded into a pulse already running.
+            feedback.miss(currentTapNanos());
+            markLatency(TapLatencyTracker.STAGE_SOUND);
+
+            // Visual Shake Animation
+            gameGrid.flashMiss(cell);
+            if (frameStats != null) frameStats.mark(FrameTimeline.MARK_MISS);
+        }
+
+        @Override
+        public void onTick(long millisRemaining) {
+            if (timeText.setTenths(millisRemaining / 100)) renderHud(tvTime, timeText);
 
-    private int COLOR_CYAN, COLOR_PINK, COLOR_TEXT;
+            // Visual warning: Change text color to PINK when time is running out.
+            setTimeColor(millisRemaining < GameRules.WARNING_MILLIS ? COLOR_PINK : COLOR_TEXT);
+        }
+
+        @Override
+        public void onRoundEnd() {
+            handleGameEnd();
+        }
+    };
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
+        long createdUptime = SystemClock.uptimeMillis();
         setContentView(R.layout.activity_game);
 
         // Retrieve level and score data passed from the previous activity.
         currentLevel = getIntent().getIntExtra("SELECTED_LEVEL", 1);
         accumulatedScore = getIntent().getIntExtra("ACCUMULATED_SCORE", 0);
 
+        // After recreation, carry on with the session. A restored level
+        // complete overlay still holds its result and waits for Next.
+        boolean overlayShowing = false;
+        if (savedInstanceState != null) {
+            currentLevel = savedInstanceState.getInt(STATE_LEVEL, currentLevel);
+            accumulatedScore = savedInstanceState.getInt(STATE_SCORE, accumulatedScore);
+            LevelCompleteFragment overlay = findLevelComplete();
+            overlayShowing = overlay != null && !overlay.isHidden();
+        }
+
+        // A replay overrides the level and replaces touch input.
+        String replayPath = getIntent().getStringExtra("REPLAY_FILE");
+        if (replayPath != null) {
+            loadReplay(new File(replayPath), getIntent().getFloatExtra("REPLAY_SPEED", 1f));
+        }
+
         // Pre-fetch colors to avoid repeated resource lookups during gameplay.
-        COLOR_CYAN = ContextCompat.getColor(this, R.color.cyber_cyan);
         COLOR_PINK = ContextCompat.getColor(this, R.color.cyber_pink);
         COLOR_TEXT = ContextCompat.getColor(this, R.color.cyber_text);
 
@@ -69,211 +267,347 @@ public class GameActivity extends AppCompatActivity {
         tvTime = findViewById(R.id.tvTime);
         tvScore = findViewById(R.id.tvScore);
         gameGrid = findViewById(R.id.gameGrid);
+        gameGrid.setOnCellTapListener(this::onCellTapped);
+        timeColor = tvTime.getCurrentTextColor();
+
+        // Gameplay never lights the same cell twice in a row.
+        RoundTimer.Clock clock = ((VortexApp) getApplication()).gameClock();
+        if (clock != null && replay == null) {
+            gameClock = clock;
+            injectedClock = true;
+        }
+        engine = new GameEngine(gameClock, true, engineListener);
 
-        initVibrator();
-        initSoundPool();
-        startLevel();
+        if (replay == null && getIntent().getBooleanExtra("BENCHMARK", false)) {
+            sweep = new GridSweep(GridSweep.DEFAULT_SIDES, SWEEP_TAPS_PER_SECOND);
+        }
+
+        feedback = FeedbackDispatcher.get(this);
+        if (DebugSettings.isFrameOverlayEnabled(this) || sweep != null) {
+            frameStats = new FrameStatsOverlay(this, findViewById(R.id.tvFrameStats));
+            frameStats.start();
+        }
+        if (!overlayShowing) startLevel();
+
+        // The round is live (and taps count) from the first frame on.
+        Choreographer.getInstance().postFrameCallback(frameTimeNanos -> {
+            VortexTrace.endHop(VortexTrace.HOP_TO_GAME);
+            ((VortexApp) getApplication()).reportFirstFrame("game", createdUptime);
+        });
+    }
+
+    @Override
+    protected void onSaveInstanceState(@NonNull Bundle outState) {
+        super.onSaveInstanceState(outState);
+        outState.putInt(STATE_LEVEL, currentLevel);
+        outState.putInt(STATE_SCORE, accumulatedScore);
     }
 
     /**
-     * Initializes the SoundPool for low-latency audio playback.
+     * Prepares playback of a recorded round. The game clock runs {@code speed}
+     * times faster than real time, so the timer and taps stay in step.
+     * Falls back to a normal round if the file cannot be read.
      */
-    private void initSoundPool() {
-        AudioAttributes audioAttributes = new AudioAttributes.Builder()
-                .setUsage(AudioAttributes.USAGE_GAME)
-                .setContentType(AudioAttributes.CONTENT_TYPE_SONIFICATION)
-                .build();
-        soundPool = new SoundPool.Builder()
-                .setMaxStreams(5)
-                .setAudioAttributes(audioAttributes)
-                .build();
-        try {
-            soundHit = soundPool.load(this, R.raw.hit, 1);
-            soundMiss = soundPool.load(this, R.raw.miss, 1);
-            soundLoaded = true;
-        } catch (Exception e) { e.printStackTrace(); }
-    }
+    private void loadReplay(File file, float speed) {
+        byte[] data = new byte[(int) file.length()];
+        try (FileInputStream in = new FileInputStream(file)) {
+            int read = 0;
+            while (read < data.length) {
+                int n = in.read(data, read, data.length - read);
+                if (n < 0) break;
+                read += n;
+            }
+            replay = Replay.decode(data, read);
+            currentLevel = replay.level;
+        } catch (IOException e) {
+            e.printStackTrace();
+            return;
+        }
 
-    private void initVibrator() {
-        vibrator = (Vibrator) getSystemService(Context.VIBRATOR_SERVICE);
+        final double scale = Math.max(speed, 0.01f);
+        final long origin = System.nanoTime();
+        gameClock = () -> origin + (long) ((System.nanoTime() - origin) * scale);
     }
 
     /**
-     * Configures the level environment.
-     * Sets up the grid based on level difficulty and starts the 5-second timer.
+     * Starts the round for the current level, the loaded replay, or the next
+     * benchmark size. The engine sizes the grid through its listener and
+     * starts the timer.
      */
     private void startLevel() {
-        tvLevel.setText("LVL: " + currentLevel);
-        currentLevelScore = 0;
-        updateScoreDisplay();
-
-        // Level 1 = 2x2, Level 2 = 3x3, etc.
-        cellsPerSide = currentLevel + 1;
-        generateGrid(cellsPerSide);
-        highlightRandomCell();
-
-        if (timer != null) timer.cancel();
-
-        // 5000ms (5 seconds) timer with 100ms update interval.
-        timer = new CountDownTimer(5000, 100) {
-            public void onTick(long millisUntilFinished) {
-                tvTime.setText(String.format("T: %.1f", millisUntilFinished / 1000.0));
-
-                // Visual warning: Change text color to PINK when time is running out.
-                if (millisUntilFinished < 2000) {
-                    tvTime.setTextColor(COLOR_PINK);
-                } else {
-                    tvTime.setTextColor(COLOR_TEXT);
-                }
-            }
-
-            public void onFinish() {
-                tvTime.setText("T: 0.0");
-                handleGameEnd();
-            }
-        }.start();
+        Choreographer.getInstance().removeFrameCallback(frameCallback);
+        if (replay != null) {
+            engine.startReplay(replay);
+        } else if (sweep != null) {
+            // The grid side doubles as the level, so frame times and tap
+            // latency are kept per size.
+            currentLevel = sweep.next();
+            engine.startRound(currentLevel, currentLevel, TargetSequence.newSeed());
+            nextSweepTapUptime = SystemClock.uptimeMillis() + sweep.tapIntervalMillis();
+            sweepHandler.postAtTime(sweepTap, nextSweepTapUptime);
+        } else {
+            engine.startRound(currentLevel, TargetSequence.newSeed());
+        }
+        Choreographer.getInstance().postFrameCallback(frameCallback);
     }
 
     private void updateScoreDisplay() {
-        int total = accumulatedScore + currentLevelScore;
-        tvScore.setText("PTS: " + total);
+        int total = accumulatedScore + engine.levelScore();
+        if (scoreText.setInt(total)) renderHud(tvScore, scoreText);
+    }
+
+    private void setTimeColor(int color) {
+        if (color != timeColor) {
+            timeColor = color;
+            tvTime.setTextColor(color);
+        }
+    }
+
+    private static void renderHud(TextView view, HudText text) {
+        view.setText(text.buffer(), 0, text.length());
     }
 
     /**
-     * Dynamically populates the GridLayout with Views.
-     * Calculates cell size to fit within the screen width while maintaining a square aspect ratio.
+     * Resizes the single-canvas grid for this level.
+     * The view keeps its cells as draw state, so no child Views are created,
+     * measured or laid out regardless of the grid size.
      *
      * @param side The number of cells per row/column.
      */
     private void generateGrid(int side) {
-        gameGrid.removeAllViews();
-        gameGrid.setColumnCount(side);
-        gameGrid.setRowCount(side);
-
-        int screenWidth = getResources().getDisplayMetrics().widthPixels;
-        float density = getResources().getDisplayMetrics().density;
-
-        // Calculate dynamic margins and padding to ensure cells fit on screen.
-        int marginInPixels = (int) (4 * density);
-        int parentPadding = (int) (40 * density);
-        int totalMarginSpace = (marginInPixels * 2) * side;
-        int cellSize = (screenWidth - parentPadding - totalMarginSpace) / side;
-
-        for (int i = 0; i < side * side; i++) {
-            View cell = new View(this);
-            GridLayout.LayoutParams params = new GridLayout.LayoutParams();
-            params.width = cellSize;
-            params.height = cellSize;
-            params.setMargins(marginInPixels, marginInPixels, marginInPixels, marginInPixels);
-            cell.setLayoutParams(params);
-            cell.setBackgroundResource(R.drawable.cell_cyber);
-            cell.setId(i);
-            cell.setOnClickListener(this::checkHit);
-            gameGrid.addView(cell);
+        long trace = VortexTrace.begin(VortexTrace.GRID_BUILD);
+        long start = System.nanoTime();
+        gameGrid.setGridSize(side);
+        if (sweep != null) sweep.recordBuild(System.nanoTime() - start);
+        VortexTrace.end(VortexTrace.GRID_BUILD, trace);
+        VortexTrace.counter("grid_cells", side * side);
+    }
+
+    /**
+     * Entry point for real touches: hands the tap to the engine and measures
+     * how long its feedback takes. Touches are ignored during a replay.
+     *
+     * @param cell           The index of the cell that was tapped.
+     * @param eventTimeNanos When the finger touched the cell.
+     */
+    private void onCellTapped(int cell, long eventTimeNanos) {
+        if (engine.isRoundOver() || engine.isReplaying()) return;
+
+        boolean framePending = latency.hasPendingFrame();
+        latency.beginTap(currentLevel, engine.side(), eventTimeNanos);
+        tapEventNanos = eventTimeNanos;
+        measuringTap = true;
+        long start = System.nanoTime();
+        boolean hit = engine.tap(cell, eventTimeNanos);
+        if (sweep != null) sweep.recordTap(hit, System.nanoTime() - start);
+        measuringTap = false;
+
+        if (!framePending) {
+            Choreographer.getInstance().postFrameCallback(latencyFrameCallback);
         }
     }
 
+    private void markLatency(int stage) {
+        if (measuringTap) latency.mark(stage);
+    }
+
     /**
-     * Logic for selecting a random View to highlight.
-     * Resets the previous target and applies visual effects to the new target.
+     * @return When the tap being handled happened; replayed taps happen now.
      */
-    private void highlightRandomCell() {
-        // Reset previous cell
-        if (correctViewId != -1) {
-            View prev = findViewById(correctViewId);
-            if (prev != null) {
-                prev.getBackground().clearColorFilter();
-                prev.setRotation(0);
-            }
+    private long currentTapNanos() {
+        return measuringTap ? tapEventNanos : System.nanoTime();
+    }
+
+    /**
+     * Called when the round ends.
+     * Shows the level complete overlay and unlocks levels if applicable.
+     * A replay hands over to {@link GameOverActivity} instead, since there is
+     * no session to continue, and a benchmark moves on to its next grid size.
+     */
+    private void handleGameEnd() {
+        exportLatencyReport();
+        if (frameStats != null) frameStats.export(new File(getFilesDir(), "frame_stats.bin"));
+
+        if (sweep != null) {
+            finishSweepSize();
+            return;
         }
 
-        // Select new random cell
-        int totalCells = cellsPerSide * cellsPerSide;
-        Random random = new Random();
-        correctViewId = random.nextInt(totalCells);
+        // Watching a replay does not count as finishing the level.
+        if (!engine.isReplaying()) {
+            saveReplay();
+            recordRound();
 
-        View target = findViewById(correctViewId);
-        if (target != null) {
-            target.getBackground().setColorFilter(COLOR_CYAN, PorterDuff.Mode.SRC_ATOP);
+            SharedPreferences prefs = getSharedPreferences("GamePrefs", MODE_PRIVATE);
+            int currentMax = prefs.getInt("unlocked_level", 1);
+            int unlocked = GameRules.unlockedAfter(currentLevel, currentMax);
+            if (unlocked != currentMax) {
+                prefs.edit().putInt("unlocked_level", unlocked).apply();
+            }
+        }
 
-            // Pop-in animation for visual feedback
-            target.setScaleX(0.0f);
-            target.setScaleY(0.0f);
-            target.animate().scaleX(1.0f).scaleY(1.0f)
-                    .setInterpolator(new OvershootInterpolator()).setDuration(300).start();
+        int levelScore = engine.levelScore();
+        if (engine.isReplaying()) {
+            VortexTrace.beginHop(VortexTrace.HOP_TO_GAME_OVER);
+            Intent intent = new Intent(GameActivity.this, GameOverActivity.class);
+            intent.putExtra("FINISHED_LEVEL", currentLevel);
+            intent.putExtra("LEVEL_SCORE", levelScore);
+            intent.putExtra("TOTAL_SCORE", accumulatedScore + levelScore);
+            intent.putExtra("REACTION_STATS", engine.reactions().encode());
+            intent.putExtra("REPLAY", true);
+            startActivity(intent);
+            finish();
+            return;
         }
+        showLevelComplete(levelScore);
     }
 
     /**
-     * Processes user taps on the grid.
-     *
-     * @param v The View that was clicked.
+     * Closes the benchmark size that just ended and moves on to the next one
+     * after a short pause, or shows the results table after the last.
      */
-    private void checkHit(View v) {
-        if (v.getId() == correctViewId) {
-            // SUCCESS
-            currentLevelScore++;
-            updateScoreDisplay();
+    private void finishSweepSize() {
+        sweepHandler.removeCallbacks(sweepTap);
+        frameStats.copyLevel(sweep.side(), sweep.frames());
+        sweep.finishSize(engine.roundMillis());
+        if (sweep.hasNext()) {
+            sweepHandler.postDelayed(this::startLevel, SWEEP_PAUSE_MS);
+            return;
+        }
 
-            if(soundLoaded) soundPool.play(soundHit, 1, 1, 0, 0, 1);
+        final String report = sweep.formatReport();
+        final File out = new File(getFilesDir(), "grid_sweep.txt");
+        new Thread(() -> {
+            try (FileWriter writer = new FileWriter(out)) {
+                writer.write(report);
+            } catch (IOException e) { e.printStackTrace(); }
+        }, "grid-sweep-export").start();
+
+        if (isFinishing() || isDestroyed()) return;
+        new AlertDialog.Builder(this)
+                .setTitle("GRID BENCHMARK")
+                .setMessage(report + "\nSaved to " + out.getPath())
+                .setCancelable(false)
+                .setPositiveButton("OK", (dialog, which) -> finish())
+                .show();
+    }
 
-            // Short, sharp vibration for success
-            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
-                vibrator.vibrate(VibrationEffect.createOneShot(50, VibrationEffect.DEFAULT_AMPLITUDE));
-            } else { vibrator.vibrate(50); }
+    /**
+     * Adds the round to the history and, once the store has placed it among
+     * the earlier rounds of the level, shows that on the overlay.
+     */
+    private void recordRound() {
+        int level = currentLevel;
+        RoundRecord round = new RoundRecord(System.currentTimeMillis(), level, engine.levelScore(),
+                engine.levelScore(), engine.misses(), engine.roundMillis());
+        LeaderboardStore.get(this).recordRound(round, percentBelow -> {
+            if (isFinishing() || isDestroyed() || level != currentLevel) return;
+            // The overlay is added asynchronously and may not be attached yet.
+            getSupportFragmentManager().executePendingTransactions();
+            LevelCompleteFragment overlay = findLevelComplete();
+            if (overlay != null) overlay.showPercentile(percentBelow);
+        });
+    }
 
-            v.animate().rotation(360).setDuration(200).start();
-            highlightRandomCell();
+    /**
+     * Shows the level complete overlay. The fragment is created on the first
+     * level and only shown again with new numbers after that.
+     */
+    private void showLevelComplete(int levelScore) {
+        int totalScore = accumulatedScore + levelScore;
+        byte[] reactions = engine.reactions().encode();
+        FragmentManager fm = getSupportFragmentManager();
+        LevelCompleteFragment overlay = findLevelComplete();
+
+        // The round may end while the activity is stopped; if that state is
+        // lost, recreation restarts the finished level instead of showing it.
+        if (overlay == null) {
+            fm.beginTransaction()
+                    .setReorderingAllowed(true)
+                    .add(R.id.levelCompleteContainer,
+                            LevelCompleteFragment.newInstance(currentLevel, levelScore, totalScore, reactions),
+                            LevelCompleteFragment.TAG)
+                    .commitAllowingStateLoss();
         } else {
-            // FAILURE
-            if(soundLoaded) soundPool.play(soundMiss, 1, 1, 0, 0, 1);
+            overlay.showResult(currentLevel, levelScore, totalScore, reactions);
+            fm.beginTransaction().show(overlay).commitAllowingStateLoss();
+        }
+    }
 
-            // Longer vibration for error
-            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
-                vibrator.vibrate(VibrationEffect.createOneShot(200, VibrationEffect.DEFAULT_AMPLITUDE));
-            } else { vibrator.vibrate(200); }
+    /**
+     * Continues the session in place: hides the overlay and starts the next
+     * round on the already warm grid, audio and vibrator.
+     */
+    @Override
+    public void onNextLevel(int finishedLevel, int totalScore) {
+        transitionStartNanos = System.nanoTime();
+        VortexTrace.beginHop(VortexTrace.HOP_NEXT_LEVEL);
 
-            // Visual Shake Animation
-            Drawable bg = v.getBackground();
-            bg.setColorFilter(COLOR_PINK, PorterDuff.Mode.SRC_ATOP);
-            ObjectAnimator shake = ObjectAnimator.ofFloat(v, "translationX", 0, 20, -20, 20, -20, 0);
-            shake.setDuration(400);
-            shake.setInterpolator(new CycleInterpolator(3));
-            shake.start();
-            shake.addListener(new AnimatorListenerAdapter() {
-                @Override
-                public void onAnimationEnd(android.animation.Animator animation) {
-                    bg.clearColorFilter();
-                }
-            });
+        LevelCompleteFragment overlay = findLevelComplete();
+        if (overlay != null) {
+            getSupportFragmentManager().beginTransaction().hide(overlay).commitNow();
         }
+
+        currentLevel = finishedLevel + 1;
+        accumulatedScore = totalScore;
+        startLevel();
+        Choreographer.getInstance().postFrameCallback(transitionFrameCallback);
+    }
+
+    private LevelCompleteFragment findLevelComplete() {
+        return (LevelCompleteFragment) getSupportFragmentManager()
+                .findFragmentByTag(LevelCompleteFragment.TAG);
     }
 
     /**
-     * Called when the timer runs out.
-     * Transitions to the Game Over screen and unlocks levels if applicable.
+     * Writes p50/p95/p99/max tap latency per level, grid size and feedback
+     * stage to {@code files/tap_latency.txt}, off the main thread, followed by
+     * the level transition times.
      */
-    private void handleGameEnd() {
-        if (currentLevel < 4) {
-            SharedPreferences prefs = getSharedPreferences("GamePrefs", MODE_PRIVATE);
-            int currentMax = prefs.getInt("unlocked_level", 1);
-            if (currentLevel + 1 > currentMax) {
-                prefs.edit().putInt("unlocked_level", currentLevel + 1).apply();
-            }
-        }
+    private void exportLatencyReport() {
+        final String report = latency.formatReport() + String.format(Locale.US,
+                "# level transition (microseconds)\ncount\tp50\tp95\tmax\n%d\t%d\t%d\t%d\n",
+                transitions.count(), transitions.percentile(50), transitions.percentile(95),
+                transitions.max()) + AudioEngine.get(this).formatReport() + feedback.formatReport();
+        final File out = new File(getFilesDir(), "tap_latency.txt");
+        new Thread(() -> {
+            try (FileWriter writer = new FileWriter(out)) {
+                writer.write(report);
+            } catch (IOException e) { e.printStackTrace(); }
+        }, "latency-export").start();
+    }
 
-        Intent intent = new Intent(GameActivity.this, GameOverActivity.class);
-        intent.putExtra("FINISHED_LEVEL", currentLevel);
-        intent.putExtra("LEVEL_SCORE", currentLevelScore);
-        intent.putExtra("TOTAL_SCORE", accumulatedScore + currentLevelScore);
-        startActivity(intent);
-        finish();
+    /**
+     * Flushes the round's recording to {@code files/replays/}, keeping only the
+     * most recent {@value #MAX_SAVED_REPLAYS} files. Runs off the main thread.
+     */
+    private void saveReplay() {
+        final byte[] data = engine.recorder().toByteArray();
+        final File dir = new File(getFilesDir(), "replays");
+        final File out = new File(dir, "L" + currentLevel + "_" + System.currentTimeMillis() + ".vrp");
+        new Thread(() -> {
+            if (!dir.isDirectory() && !dir.mkdirs()) return;
+            try (FileOutputStream stream = new FileOutputStream(out)) {
+                stream.write(data);
+            } catch (IOException e) { e.printStackTrace(); }
+
+            File[] saved = dir.listFiles();
+            if (saved != null && saved.length > MAX_SAVED_REPLAYS) {
+                Arrays.sort(saved, (a, b) -> Long.compare(a.lastModified(), b.lastModified()));
+                for (int i = 0; i < saved.length - MAX_SAVED_REPLAYS; i++) saved[i].delete();
+            }
+        }, "replay-save").start();
     }
 
     @Override
     protected void onDestroy() {
         super.onDestroy();
-        if (timer != null) timer.cancel();
-        if (soundPool != null) soundPool.release();
+        if (engine != null) engine.cancel();
+        if (frameStats != null) frameStats.stop();
+        sweepHandler.removeCallbacksAndMessages(null);
+        Choreographer.getInstance().removeFrameCallback(frameCallback);
+        Choreographer.getInstance().removeFrameCallback(latencyFrameCallback);
+        Choreographer.getInstance().removeFrameCallback(transitionFrameCallback);
+        latency.discardPendingFrames();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,600 @@
+package com.example.vortex;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import com.example.vortex.core.GameRules;
+import com.example.vortex.core.LeaderboardCache;
+import com.example.vortex.core.LeaderboardSync;
+import com.example.vortex.core.RetentionPolicy;
+import com.example.vortex.core.ScoreArchive;
+import com.example.vortex.core.ScoreCsv;
+import com.example.vortex.core.ScoreDistribution;
+import com.example.vortex.core.SyncRecord;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Process-wide access point for the leaderboard database.
+ * Keeps a single {@link DBHelper} whose connection stays open for the life of
+ * the process, with write-ahead logging enabled so reads can run concurrently
+ * with each other and with the writer.
+ * Reads run on a small pool, writes are serialized on one background thread,
+ * and every result is delivered on the main thread. Callers on the UI thread
+ * therefore never touch the disk.
+ *
+ * The Top 25 boards are also held in a {@link LeaderboardCache}, loaded once on
+ * the writer thread and updated write-through by {@link #addScore}. Once it is
+ * loaded, qualification checks and Top 25 lists are answered without a query.
+ * Screens that show scores can register an {@link OnScoreAddedListener} to
+ * apply new entries incrementally instead of reloading.
+ *
+ * {@link ScoreSync} reaches the database through {@link #syncStore()}; rows it
+ * downloads are written on the writer thread like local ones and announced to
+ * the same listeners.
+ *
+ * Finished rounds go to the history through {@link #recordRound}. The
+ * per-level score summaries are held in memory and updated as each round is
+ * queued; rounds queued back to back are written in one transaction together
+ * with the summaries they changed. A batch whose write fails stays queued and
+ * is written with the next round, so the stored history and summaries never
+ * disagree.
+ *
+ * A maintenance pass ({@link DBHelper#runMaintenance}) runs on the writer at
+ * startup and after every {@value #MAINTENANCE_EVERY} stored rows, so the
+ * database stays bounded by the {@link RetentionPolicy}. Its sizes and
+ * totals are written to {@code files/db_maintenance.txt}.
+ *
+ * {@link #exportTo} and {@link #importFrom} stream the whole database to and
+ * from a {@link ScoreArchive} file, or its CSV form ({@link ScoreCsv}).
+ */
+public final class LeaderboardStore {
+
+    /**
+     * Receives the result of an asynchronous operation on the main thread.
+     */
+    public interface Callback<T> {
+        void onResult(T result);
+    }
+
+    /**
+     * Told on the main thread about every score committed to the database.
+     */
+    public interface OnScoreAddedListener {
+        void onScoreAdded(ScoreRecord record);
+    }
+
+    /**
+     * A level's statistics over every recorded round.
+     */
+    public static final class LevelStats {
+        public final long rounds;
+        public final double mean;
+        public final int best;
+        public final int median;
+        public final int p90;
+
+        LevelStats(ScoreDistribution d) {
+            rounds = d.count();
+            mean = d.mean();
+            best = d.best();
+            median = d.percentile(50);
+            p90 = d.percentile(90);
+        }
+    }
+
+    private static final int READER_THREADS = 2;
+    static final int MAINTENANCE_EVERY = 50;
+
+    private static volatile LeaderboardStore instance;
+
+    private final DBHelper dbHelper;
+    private final ExecutorService writer;
+    private final ExecutorService readers;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final LeaderboardCache cache = new LeaderboardCache();
+
+    // Writer thread only.
+    private final ScoreDistribution[] levelStats = new ScoreDistribution[GameRules.MAX_LEVEL + 1];
+    private final ArrayList<RoundRecord> pendingRounds = new ArrayList<>();
+    private boolean flushQueued = false;
+    private RetentionPolicy retention = RetentionPolicy.DEFAULT;
+    private int writesSinceMaintenance = 0;
+    private int maintenancePasses = 0;
+    private long totalScoresPruned = 0;
+    private long totalRoundsPruned = 0;
+    private long totalPagesReclaimed = 0;
+
+    private final File maintenanceReport;
+    // Local scores are kept by maintenance until uploaded only if there is a server.
+    private final boolean syncConfigured;
+    private volatile String lastMaintenance = "";
+
+    // Only touched on the main thread.
+    private final ArrayList<OnScoreAddedListener> listeners = new ArrayList<>();
+
+    // Run after every local score is committed; set by ScoreSync.
+    private volatile Runnable onLocalScoreCommitted;
+
+    private LeaderboardStore(Context appContext) {
+        dbHelper = new DBHelper(appContext);
+        dbHelper.setWriteAheadLoggingEnabled(true);
+        writer = Executors.newSingleThreadExecutor(r -> new Thread(r, "leaderboard-writer"));
+        readers = Executors.newFixedThreadPool(READER_THREADS, r -> new Thread(r, "leaderboard-reader"));
+        maintenanceReport = new File(appContext.getFilesDir(), "db_maintenance.txt");
+        syncConfigured = ScoreSync.isConfigured(appContext);
+
+        // Open (and create or upgrade) the database ahead of the first request,
+        // then fill the cache. Both run on the writer so no insert can slip in between.
+        writer.execute(() -> {
+            dbHelper.getWritableDatabase();
+            dbHelper.loadInto(cache);
+            dbHelper.loadLevelStats(levelStats);
+        });
+        writer.execute(this::runMaintenance);
+    }
+
+    /**
+     * @return The shared store, created on first use.
+     */
+    public static LeaderboardStore get(Context context) {
+        LeaderboardStore store = instance;
+        if (store == null) {
+            synchronized (LeaderboardStore.class) {
+                store = instance;
+                if (store == null) {
+                    store = new LeaderboardStore(context.getApplicationContext());
+                    instance = store;
+                }
+            }
+        }
+        return store;
+    }
+
+    /**
+     * Blocks until the database is open and the cache is loaded. For startup
+     * work on a background thread; never call it on the main thread.
+     */
+    void awaitStartup() {
+        onWriter(() -> null);
+    }
+
+    /**
+     * Checks whether a score qualifies for the level's Top 25 in the background.
+     */
+    public void isTop25(int score, int level, Callback<Boolean> callback) {
+        if (cache.isLoaded() && LeaderboardCache.covers(level)) {
+            deliver(callback, cache.qualifies(score, level));
+            return;
+        }
+        readers.execute(() -> {
+            boolean qualifies = dbHelper.isTop25(score, level);
+            deliver(callback, qualifies);
+        });
+    }
+
+    /**
+     * Loads the Top 25 in the background, or straight from memory once the
+     * cache is loaded.
+     *
+     * @param levelFilter The level to filter by, or -1 for all levels.
+     */
+    public void getTop25Scores(int levelFilter, Callback<ArrayList<ScoreRecord>> callback) {
+        ArrayList<ScoreRecord> cached = getCachedTop25(levelFilter);
+        if (cached != null) {
+            deliver(callback, cached);
+            return;
+        }
+        readers.execute(() -> {
+            ArrayList<ScoreRecord> scores = dbHelper.getTop25Scores(levelFilter);
+            deliver(callback, scores);
+        });
+    }
+
+    /**
+     * Returns the Top 25 synchronously if the in-memory cache can answer.
+     * Never touches the disk, so it is safe on the main thread.
+     *
+     * @param levelFilter The level to filter by, or -1 for all levels.
+     * @return The rows best first, or null if the cache is not ready.
+     */
+    public ArrayList<ScoreRecord> getCachedTop25(int levelFilter) {
+        if (!cache.isLoaded() || !LeaderboardCache.covers(levelFilter)) return null;
+
+        long[] ids = new long[LeaderboardCache.CAPACITY];
+        String[] names = new String[LeaderboardCache.CAPACITY];
+        int[] scores = new int[LeaderboardCache.CAPACITY];
+        int[] levels = new int[LeaderboardCache.CAPACITY];
+        int count = cache.snapshot(levelFilter, ids, names, scores, levels);
+
+        ArrayList<ScoreRecord> records = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            records.add(new ScoreRecord(ids[i], names[i], scores[i], levels[i]));
+        }
+        return records;
+    }
+
+    /**
+     * Loads the rows ranked right after a given entry in the background.
+     *
+     * @param levelFilter The level to filter by, or -1 for all levels.
+     * @param after       The last entry already loaded.
+     * @param limit       The page size.
+     */
+    public void getScoresPage(int levelFilter, ScoreRecord after, int limit,
+                              Callback<ArrayList<ScoreRecord>> callback) {
+        readers.execute(() -> deliver(callback, dbHelper.getScoresPage(levelFilter, after, limit)));
+    }
+
+    /**
+     * Looks up a score's level and global rank in the background.
+     */
+    public void getRank(int score, int level, Callback<DBHelper.Rank> callback) {
+        readers.execute(() -> deliver(callback, dbHelper.getRank(score, level)));
+    }
+
+    /**
+     * Loads the entries around a score in the background.
+     *
+     * @param levelFilter The level to look at, or -1 for all levels.
+     * @param radius      How many entries to return on each side.
+     */
+    public void getScoresAround(int score, int levelFilter, int radius,
+                                Callback<ArrayList<ScoreRecord>> callback) {
+        readers.execute(() -> deliver(callback, dbHelper.getScoresAround(score, levelFilter, radius)));
+    }
+
+    /**
+     * Queues a score insert on the writer thread.
+     *
+     * @param callback Notified once the row is committed; may be null.
+     */
+    public void addScore(String name, int score, int level, Callback<Void> callback) {
+        writer.execute(() -> {
+            long id = dbHelper.addScore(name, score, level);
+            if (id != -1) {
+                cache.offer(id, name, score, level);
+                ScoreRecord record = new ScoreRecord(id, name, score, level);
+                mainHandler.post(() -> notifyScoreAdded(record));
+                Runnable hook = onLocalScoreCommitted;
+                if (hook != null) hook.run();
+                noteWrites(1);
+            }
+            if (callback != null) deliver(callback, null);
+        });
+    }
+
+    /**
+     * Queues a finished round for the history.
+     *
+     * @param callback Receives the share of earlier rounds on the same level
+     *                 that scored lower, in percent, or -1 if this is the
+     *                 first; may be null.
+     */
+    public void recordRound(RoundRecord round, Callback<Double> callback) {
+        writer.execute(() -> {
+            double percentBelow = -1;
+            if (round.level >= 0 && round.level < levelStats.length) {
+                if (levelStats[round.level] == null) levelStats[round.level] = new ScoreDistribution();
+                ScoreDistribution d = levelStats[round.level];
+                percentBelow = d.percentBelow(round.score);
+                d.record(round.score);
+            }
+            pendingRounds.add(round);
+            // Anything queued behind this task joins the same transaction.
+            if (!flushQueued) {
+                flushQueued = true;
+                writer.execute(this::flushRounds);
+            }
+            if (callback != null) deliver(callback, percentBelow);
+        });
+    }
+
+    private void flushRounds() {
+        flushQueued = false;
+        try {
+            dbHelper.appendRounds(pendingRounds, levelStats);
+        } catch (Exception e) {
+            // The summaries already count these rounds; retry them with the next one.
+            e.printStackTrace();
+            return;
+        }
+        noteWrites(pendingRounds.size());
+        pendingRounds.clear();
+    }
+
+    /**
+     * Changes how deep the boards and the history are kept, and prunes to
+     * the new depth right away.
+     */
+    public void setRetention(RetentionPolicy policy) {
+        writer.execute(() -> {
+            retention = policy;
+            runMaintenance();
+        });
+    }
+
+    /**
+     * @return The sizes and totals of the last maintenance pass.
+     */
+    public String formatMaintenanceReport() {
+        return lastMaintenance;
+    }
+
+    // Writer thread only.
+    private void noteWrites(int rows) {
+        writesSinceMaintenance += rows;
+        if (writesSinceMaintenance >= MAINTENANCE_EVERY) {
+            writesSinceMaintenance = Integer.MIN_VALUE;
+            writer.execute(this::runMaintenance);
+        }
+    }
+
+    private void runMaintenance() {
+        writesSinceMaintenance = 0;
+        DBHelper.Maintenance m;
+        try {
+            m = dbHelper.runMaintenance(retention, syncConfigured);
+        } catch (Exception e) {
+            e.printStackTrace();
+            return;
+        }
+        maintenancePasses++;
+        totalScoresPruned += m.scoresPruned;
+        totalRoundsPruned += m.roundsPruned;
+        totalPagesReclaimed += m.pagesReclaimed;
+
+        String report = String.format(Locale.US, "# database maintenance\n"
+                        + "retention\tper level %d\tglobal %d\trounds %s\n"
+                        + "last pass\tscores pruned %d\trounds pruned %d\tpages reclaimed %d\n"
+                        + "totals\tpasses %d\tscores pruned %d\trounds pruned %d\tpages reclaimed %d\n"
+                        + "rows\tscores %d\trounds %d\n"
+                        + "file\t%d pages x %d bytes = %d bytes\tfree pages %d\n",
+                retention.perLevel, retention.global,
+                retention.trimsRounds() ? String.valueOf(retention.rounds) : "all",
+                m.scoresPruned, m.roundsPruned, m.pagesReclaimed,
+                maintenancePasses, totalScoresPruned, totalRoundsPruned, totalPagesReclaimed,
+                m.scoreRows, m.roundRows,
+                m.pageCount, m.pageSize, m.pageCount * m.pageSize, m.freePages);
+        lastMaintenance = report;
+        try (FileWriter out = new FileWriter(maintenanceReport)) {
+            out.write(report);
+        } catch (IOException e) { e.printStackTrace(); }
+    }
+
+    /**
+     * Loads a level's round statistics in the background.
+     *
+     * @param callback Receives null if no round of the level was recorded.
+     */
+    public void getLevelStats(int level, Callback<LevelStats> callback) {
+        writer.execute(() -> {
+            ScoreDistribution d = level >= 0 && level < levelStats.length ? levelStats[level] : null;
+            deliver(callback, d != null ? new LevelStats(d) : null);
+        });
+    }
+
+    /**
+     * Writes every score and round to a file in the background, as a binary
+     * archive or, for names ending in {@code .csv}, as CSV. The file is
+     * written next to its final name and renamed once complete. Reads run
+     * alongside the writer, so the game can keep recording.
+     *
+     * @param callback Receives a one-line summary, or null if it failed.
+     */
+    public void exportTo(File file, Callback<String> callback) {
+        readers.execute(() -> {
+            long start = System.nanoTime();
+            File partial = new File(file.getPath() + ".part");
+            DBHelper.Transfer transfer;
+            try (FileOutputStream out = new FileOutputStream(partial);
+                 ScoreArchive.Sink sink = isCsv(file)
+                         ? ScoreCsv.newWriter(out.getChannel()) : ScoreArchive.newWriter(out.getChannel())) {
+                transfer = dbHelper.exportArchive(sink);
+                out.getFD().sync();
+            } catch (Exception e) {
+                e.printStackTrace();
+                partial.delete();
+                deliver(callback, null);
+                return;
+            }
+            if (!partial.renameTo(file)) {
+                partial.delete();
+                deliver(callback, null);
+                return;
+            }
+            deliver(callback, formatTransfer("Exported", transfer, file, start));
+        });
+    }
+
+    /**
+     * Adds the rows of a file written by {@link #exportTo} to the database, on
+     * the writer thread. The whole file is read and checked first, so a
+     * damaged one changes nothing. Imported scores enter the Top 25 cache and
+     * imported rounds the level statistics; listeners are not told about
+     * each row. Only restores into a database without local scores or
+     * rounds, so the same rows are never imported twice.
+     *
+     * @param callback Receives a one-line summary of what was imported, or
+     *                 of why nothing was.
+     */
+    public void importFrom(File file, Callback<String> callback) {
+        writer.execute(() -> {
+            long start = System.nanoTime();
+            if (dbHelper.hasLocalHistory()) {
+                deliver(callback, "Nothing imported: this device already has scores or rounds");
+                return;
+            }
+            DBHelper.Transfer transfer;
+            try {
+                verifyArchive(file);
+                try (FileInputStream in = new FileInputStream(file);
+                     ScoreArchive.Source source = isCsv(file)
+                             ? ScoreCsv.newReader(in.getChannel()) : ScoreArchive.newReader(in.getChannel())) {
+                    transfer = dbHelper.importArchive(source, levelStats, cache);
+                }
+            } catch (Exception e) {
+                e.printStackTrace();
+                reloadCaches();
+                deliver(callback, "Import failed: " + e.getMessage());
+                return;
+            }
+            noteWrites((int) Math.min(Integer.MAX_VALUE, transfer.scores + transfer.rounds));
+            deliver(callback, formatTransfer("Imported", transfer, file, start));
+        });
+    }
+
+    private static void verifyArchive(File file) throws IOException {
+        ScoreArchive.Row row = new ScoreArchive.Row();
+        try (FileInputStream in = new FileInputStream(file);
+             ScoreArchive.Source source = isCsv(file)
+                     ? ScoreCsv.newReader(in.getChannel()) : ScoreArchive.newReader(in.getChannel())) {
+            while (source.next(row)) {
+                // Reading to the end runs the format's own checks.
+            }
+        }
+    }
+
+    // Writer thread only. Drops whatever a failed import left in memory.
+    private void reloadCaches() {
+        try {
+            cache.clear();
+            dbHelper.loadInto(cache);
+            Arrays.fill(levelStats, null);
+            dbHelper.loadLevelStats(levelStats);
+        } catch (Exception e) { e.printStackTrace(); }
+    }
+
+    private static boolean isCsv(File file) {
+        return file.getName().endsWith(".csv");
+    }
+
+    private static String formatTransfer(String verb, DBHelper.Transfer transfer, File file, long startNanos) {
+        long millis = (System.nanoTime() - startNanos) / 1_000_000L;
+        double rowsPerSecond = (transfer.scores + transfer.rounds) * 1000.0 / Math.max(1, millis);
+        return String.format(Locale.US, "%s %d scores and %d rounds (%d KB) in %d ms, %.0f rows/s",
+                verb, transfer.scores, transfer.rounds, file.length() / 1024, millis, rowsPerSecond);
+    }
+
+    void setOnLocalScoreCommitted(Runnable hook) {
+        onLocalScoreCommitted = hook;
+    }
+
+    /**
+     * @return The database side of a leaderboard sync. Its methods block and
+     * must not be called on the main thread; writes wait for the writer thread.
+     */
+    LeaderboardSync.Store syncStore() {
+        return syncStore;
+    }
+
+    /**
+     * @return This installation's sync id, created on first use. Blocking.
+     */
+    String syncClientId() {
+        return onWriter(() -> {
+            String id = dbHelper.getSyncValue(DBHelper.SYNC_CLIENT_ID);
+            if (id == null) {
+                id = UUID.randomUUID().toString();
+                dbHelper.putSyncValue(DBHelper.SYNC_CLIENT_ID, id);
+            }
+            return id;
+        });
+    }
+
+    private final LeaderboardSync.Store syncStore = new LeaderboardSync.Store() {
+        @Override
+        public List<SyncRecord> pendingUploads(long afterId, int limit) {
+            return dbHelper.getPendingUploads(afterId, limit);
+        }
+
+        @Override
+        public long uploadWatermark() {
+            return readWatermark(DBHelper.SYNC_UPLOAD_WATERMARK);
+        }
+
+        @Override
+        public void markUploaded(long upToId) {
+            onWriter(() -> {
+                dbHelper.putSyncValue(DBHelper.SYNC_UPLOAD_WATERMARK, String.valueOf(upToId));
+                return null;
+            });
+        }
+
+        @Override
+        public long pullWatermark() {
+            return readWatermark(DBHelper.SYNC_PULL_WATERMARK);
+        }
+
+        @Override
+        public void applyRemote(List<SyncRecord> rows, long newWatermark) {
+            onWriter(() -> {
+                ArrayList<ScoreRecord> inserted = dbHelper.applyRemoteScores(rows, newWatermark);
+                for (ScoreRecord record : inserted) {
+                    cache.offer(record.id, record.name, record.score, record.level);
+                }
+                noteWrites(inserted.size());
+                if (!inserted.isEmpty()) {
+                    mainHandler.post(() -> {
+                        for (ScoreRecord record : inserted) notifyScoreAdded(record);
+                    });
+                }
+                return null;
+            });
+        }
+
+        private long readWatermark(String key) {
+            String value = dbHelper.getSyncValue(key);
+            return value != null ? Long.parseLong(value) : 0L;
+        }
+    };
+
+    // Runs a task on the writer thread and waits for it, so sync writes stay
+    // serialized with local inserts.
+    private <T> T onWriter(Callable<T> task) {
+        try {
+            return writer.submit(task).get();
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Registers a listener for new scores. Must be called on the main thread.
+     */
+    public void addOnScoreAddedListener(OnScoreAddedListener listener) {
+        if (!listeners.contains(listener)) listeners.add(listener);
+    }
+
+    /**
+     * Unregisters a listener. Must be called on the main thread.
+     */
+    public void removeOnScoreAddedListener(OnScoreAddedListener listener) {
+        listeners.remove(listener);
+    }
+
+    private void notifyScoreAdded(ScoreRecord record) {
+        for (int i = listeners.size() - 1; i >= 0; i--) {
+            listeners.get(i).onScoreAdded(record);
+        }
+    }
+
+    private <T> void deliver(Callback<T> callback, T result) {
+        mainHandler.post(() -> callback.onResult(result));
+    }
+}
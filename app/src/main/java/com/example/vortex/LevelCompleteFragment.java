@@ -0,0 +1,257 @@
+package com.example.vortex;
+
+import android.content.Intent;
+import android.os.Bundle;
+import android.view.View;
+import android.widget.Button;
+import android.widget.EditText;
+import android.widget.TextView;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.appcompat.app.AlertDialog;
+import androidx.fragment.app.Fragment;
+import androidx.fragment.app.FragmentActivity;
+import com.example.vortex.core.GameRules;
+import com.example.vortex.core.ReactionStats;
+import java.io.IOException;
+import java.util.Locale;
+
+/**
+ * The screen shown when a level is completed or the game ends.
+ * It displays the final score and determines if the user should be prompted
+ * to enter their name for the leaderboard.
+ *
+ * Inside a game session it is an overlay on top of {@link GameActivity}, shown
+ * and hidden between levels so the game's audio, vibrator and grid stay alive;
+ * {@link GameOverActivity} hosts it on its own otherwise. What "Next Level"
+ * does is up to the hosting activity, see {@link Host}.
+ * The level's median and p90 reaction time arrive as one
+ * {@link ReactionStats#encode() ReactionStats} blob.
+ */
+public class LevelCompleteFragment extends Fragment {
+
+    public static final String TAG = "level_complete";
+
+    /**
+     * Implemented by the activity that shows this fragment.
+     */
+    public interface Host {
+        /**
+         * Called when the player continues to the level after the finished one.
+         */
+        void onNextLevel(int finishedLevel, int totalScore);
+    }
+
+    private static final String ARG_FINISHED_LEVEL = "FINISHED_LEVEL";
+    private static final String ARG_LEVEL_SCORE = "LEVEL_SCORE";
+    private static final String ARG_TOTAL_SCORE = "TOTAL_SCORE";
+    private static final String ARG_PERCENT_BELOW = "PERCENT_BELOW";
+    private static final String ARG_REACTIONS = "REACTION_STATS";
+    private static final String ARG_REPLAY = "REPLAY";
+
+    private TextView tvTitle, tvSub;
+    private Button btnEndGame, btnNext;
+
+    public LevelCompleteFragment() {
+        super(R.layout.fragment_level_complete);
+    }
+
+    /**
+     * @param reactions The level's {@link ReactionStats#encode()} summary, or null.
+     */
+    public static LevelCompleteFragment newInstance(int finishedLevel, int levelScore, int totalScore,
+                                                    @Nullable byte[] reactions) {
+        LevelCompleteFragment fragment = new LevelCompleteFragment();
+        fragment.setArguments(new Bundle());
+        fragment.putResult(finishedLevel, levelScore, totalScore, reactions);
+        return fragment;
+    }
+
+    /**
+     * The result of a watched replay. It only leads back to the menu: there
+     * is no next level to continue to and the score is not a new entry.
+     */
+    public static LevelCompleteFragment newReplayResult(int finishedLevel, int levelScore,
+                                                        @Nullable byte[] reactions) {
+        LevelCompleteFragment fragment = newInstance(finishedLevel, levelScore, levelScore, reactions);
+        fragment.requireArguments().putBoolean(ARG_REPLAY, true);
+        return fragment;
+    }
+
+    @Override
+    public void onViewCreated(@NonNull View view, @Nullable Bundle savedInstanceState) {
+        super.onViewCreated(view, savedInstanceState);
+
+        // Bind UI Elements
+        tvTitle = view.findViewById(R.id.tvGameOverTitle);
+        tvSub = view.findViewById(R.id.tvGameOverSub);
+        btnEndGame = view.findViewById(R.id.btnEndGame);
+        btnNext = view.findViewById(R.id.btnNextLevel);
+
+        // "End Game" Button: Checks score qualification before exiting
+        btnEndGame.setOnClickListener(v -> {
+            setButtonsEnabled(false);
+            if (isReplay()) goToMainMenu();
+            else checkHighScoreAndFinish();
+        });
+
+        btnNext.setOnClickListener(v -> {
+            setButtonsEnabled(false);
+            Bundle args = requireArguments();
+            ((Host) requireActivity()).onNextLevel(args.getInt(ARG_FINISHED_LEVEL),
+                    args.getInt(ARG_TOTAL_SCORE));
+        });
+
+        render();
+    }
+
+    /**
+     * Shows the result of another level. Used when the overlay is reused
+     * instead of being created again.
+     */
+    public void showResult(int finishedLevel, int levelScore, int totalScore, @Nullable byte[] reactions) {
+        putResult(finishedLevel, levelScore, totalScore, reactions);
+        if (getView() != null) render();
+    }
+
+    /**
+     * Shows how the level's score compares with the player's earlier rounds.
+     *
+     * @param percentBelow The share of earlier rounds that scored lower, or
+     *                     -1 if there were none.
+     */
+    public void showPercentile(double percentBelow) {
+        requireArguments().putDouble(ARG_PERCENT_BELOW, percentBelow);
+        if (getView() != null) renderSummary();
+    }
+
+    private void putResult(int finishedLevel, int levelScore, int totalScore, @Nullable byte[] reactions) {
+        Bundle args = requireArguments();
+        args.putInt(ARG_FINISHED_LEVEL, finishedLevel);
+        args.putInt(ARG_LEVEL_SCORE, levelScore);
+        args.putInt(ARG_TOTAL_SCORE, totalScore);
+        args.putByteArray(ARG_REACTIONS, reactions);
+        args.remove(ARG_PERCENT_BELOW);
+    }
+
+    private void render() {
+        Bundle args = requireArguments();
+        int finishedLevel = args.getInt(ARG_FINISHED_LEVEL, 1);
+
+        // Update Text
+        tvTitle.setText((isReplay() ? "REPLAY OF LEVEL " : "LEVEL ") + finishedLevel
+                + (isReplay() ? "" : " COMPLETE"));
+        renderSummary();
+
+        // "Next Level" Button: Only visible if not at the final level (Level 4)
+        if (isReplay()) {
+            btnNext.setVisibility(View.GONE);
+            btnEndGame.setText("BACK TO MENU");
+        } else if (!GameRules.hasNextLevel(finishedLevel)) {
+            btnNext.setVisibility(View.GONE);
+            btnEndGame.setText("FINISH GAME");
+        } else {
+            btnNext.setVisibility(View.VISIBLE);
+            btnEndGame.setText("END THE GAME");
+        }
+        setButtonsEnabled(true);
+    }
+
+    private void renderSummary() {
+        Bundle args = requireArguments();
+        int finishedLevel = args.getInt(ARG_FINISHED_LEVEL, 1);
+        String sub = "TOTAL SCORE: " + args.getInt(ARG_TOTAL_SCORE)
+                + "\n(+" + args.getInt(ARG_LEVEL_SCORE) + " this level)";
+        double percentBelow = args.getDouble(ARG_PERCENT_BELOW, -1);
+        if (percentBelow >= 0) {
+            sub += "\nBETTER THAN " + Math.round(percentBelow) + "% OF YOUR LEVEL " + finishedLevel + " ROUNDS";
+        }
+        sub += formatReactions(args.getByteArray(ARG_REACTIONS));
+        tvSub.setText(sub);
+    }
+
+    /**
+     * @return The reaction line, or an empty string if there were no hits.
+     */
+    private static String formatReactions(@Nullable byte[] data) {
+        if (data == null) return "";
+        try {
+            ReactionStats.Summary reactions = ReactionStats.decode(data);
+            if (reactions.hits == 0) return "";
+            return String.format(Locale.US, "\nREACTION: MEDIAN %d MS, P90 %d MS",
+                    reactions.medianMicros / 1000, reactions.p90Micros / 1000);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return "";
+        }
+    }
+
+    private boolean isReplay() {
+        return requireArguments().getBoolean(ARG_REPLAY, false);
+    }
+
+    private void setButtonsEnabled(boolean enabled) {
+        btnNext.setEnabled(enabled);
+        btnEndGame.setEnabled(enabled);
+    }
+
+    /**
+     * Checks if the user's score qualifies for the Hall of Fame.
+     * If it qualifies, show the dialog. If not, go directly to Main Menu.
+     */
+    private void checkHighScoreAndFinish() {
+        Bundle args = requireArguments();
+        int finishedLevel = args.getInt(ARG_FINISHED_LEVEL, 1);
+        int totalScore = args.getInt(ARG_TOTAL_SCORE);
+        LeaderboardStore store = LeaderboardStore.get(requireContext());
+
+        // The query runs in the background; the answer arrives on the main thread.
+        store.isTop25(totalScore, finishedLevel, qualifies -> {
+            FragmentActivity activity = getActivity();
+            if (activity == null || activity.isFinishing() || activity.isDestroyed()) return;
+            if (qualifies) {
+                showSaveDialog(store, totalScore, finishedLevel);
+            } else {
+                // Score is too low or list is full; return to menu immediately.
+                goToMainMenu();
+            }
+        });
+    }
+
+    /**
+     * Shows a dialog for the user to enter their name.
+     *
+     * @param store The shared leaderboard store.
+     */
+    private void showSaveDialog(LeaderboardStore store, int totalScore, int finishedLevel) {
+        AlertDialog.Builder builder = new AlertDialog.Builder(requireContext());
+        builder.setTitle("NEW HIGH SCORE!");
+        builder.setMessage("Enter Name:");
+
+        final EditText input = new EditText(requireContext());
+        builder.setView(input);
+        builder.setCancelable(false); // Prevents clicking outside to close
+
+        builder.setPositiveButton("SUBMIT", (dialog, which) -> {
+            String name = input.getText().toString();
+            if (name.isEmpty()) name = "Guest";
+
+            // Queued on the writer thread; no need to wait for the commit.
+            store.addScore(name, totalScore, finishedLevel, null);
+            goToMainMenu();
+        });
+
+        builder.show();
+    }
+
+    /**
+     * Navigates back to the Main Menu, clearing the activity stack.
+     */
+    private void goToMainMenu() {
+        FragmentActivity activity = requireActivity();
+        Intent intent = new Intent(activity, MainActivity.class);
+        intent.setFlags(Intent.FLAG_ACTIVITY_CLEAR_TOP | Intent.FLAG_ACTIVITY_NEW_TASK);
+        startActivity(intent);
+        activity.finish();
+    }
+}
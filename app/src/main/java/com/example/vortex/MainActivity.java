@@ -2,10 +2,18 @@ package com.example.vortex;
 
 import android.content.Intent;
 import android.os.Bundle;
+import android.os.SystemClock;
+import android.view.Choreographer;
 import android.widget.Button;
+import android.widget.Toast;
 import android.view.View;
 import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
+import java.io.File;
+import java.io.IOException;
+import java.text.DateFormat;
+import java.util.Arrays;
+import java.util.Date;
 
 /**
  * The entry point for the VORTEX application.
@@ -13,14 +21,25 @@ import androidx.appcompat.app.AppCompatActivity;
  * 1. The Game (starting at Level 1).
  * 2. The Help/Mission dialog.
  * 3. The Leaderboard/High Scores screen.
+ * Long-pressing the title opens a debug menu with developer tools.
  */
 public class MainActivity extends AppCompatActivity {
 
+    // Backups go to the app's external files directory, reachable over USB
+    // without any storage permission.
+    private static final String ARCHIVE_FILE = "scores.vxa";
+    private static final String CSV_FILE = "scores.csv";
+
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
+        long createdUptime = SystemClock.uptimeMillis();
         setContentView(R.layout.activity_main);
 
+        // Audio, the database and sync are already warming up in VortexApp.
+        Choreographer.getInstance().postFrameCallback(frameTimeNanos ->
+                ((VortexApp) getApplication()).reportFirstFrame("menu", createdUptime));
+
         Button btnStart = findViewById(R.id.btnStartGame);
         Button btnHelp = findViewById(R.id.btnHelp);
         Button btnScores = findViewById(R.id.btnHighScores);
@@ -29,7 +48,13 @@ public class MainActivity extends AppCompatActivity {
         btnStart.setOnClickListener(v -> {
             Intent intent = new Intent(MainActivity.this, GameActivity.class);
             intent.putExtra("SELECTED_LEVEL", 1);
-            startActivity(intent);
+            startGame(intent);
+        });
+
+        // Hidden developer tools.
+        findViewById(R.id.tvTitle).setOnLongClickListener(v -> {
+            showDebugMenu();
+            return true;
         });
 
         // Displays the mission objective/help dialog to the user.
@@ -44,6 +69,125 @@ public class MainActivity extends AppCompatActivity {
         });
     }
 
+    /**
+     * Lists the developer tools. Toggles show their current state and flip it
+     * when tapped.
+     */
+    private void showDebugMenu() {
+        boolean frameOverlay = DebugSettings.isFrameOverlayEnabled(this);
+        boolean tracing = DebugSettings.isTracingEnabled(this);
+        String[] items = {
+                "Frame-time overlay: " + (frameOverlay ? "ON" : "OFF"),
+                "System tracing: " + (tracing ? "ON" : "OFF"),
+                "Dump trace counters",
+                "Grid benchmark",
+                "Export scores",
+                "Export scores as CSV",
+                "Import scores",
+                "Watch a replay",
+        };
+        new AlertDialog.Builder(this)
+                .setTitle("DEBUG")
+                .setItems(items, (dialog, which) -> {
+                    if (which == 0) DebugSettings.setFrameOverlayEnabled(this, !frameOverlay);
+                    else if (which == 1) DebugSettings.setTracingEnabled(this, !tracing);
+                    else if (which == 2) dumpTraceCounters();
+                    else if (which == 3) startGridBenchmark();
+                    else if (which == 4) exportScores(ARCHIVE_FILE);
+                    else if (which == 5) exportScores(CSV_FILE);
+                    else if (which == 6) importScores();
+                    else if (which == 7) showReplayPicker();
+                })
+                .show();
+    }
+
+    /**
+     * Runs the game through grid sizes up to 64x64 with synthetic taps; the
+     * results table is shown and saved when it ends.
+     */
+    private void startGridBenchmark() {
+        Intent intent = new Intent(this, GameActivity.class);
+        intent.putExtra("BENCHMARK", true);
+        startGame(intent);
+    }
+
+    /**
+     * Starts a {@link GameActivity}, timing the hop to its first frame.
+     */
+    private void startGame(Intent intent) {
+        VortexTrace.beginHop(VortexTrace.HOP_TO_GAME);
+        startActivity(intent);
+    }
+
+    /**
+     * Streams the database to a backup file and reports the result.
+     */
+    private void exportScores(String fileName) {
+        File out = new File(backupDir(), fileName);
+        LeaderboardStore.get(this).exportTo(out, summary -> Toast.makeText(this,
+                summary != null ? summary + "\n" + out.getPath() : "Export failed", Toast.LENGTH_LONG).show());
+    }
+
+    /**
+     * Restores the backup file into an empty database: the binary archive if
+     * there is one, the CSV otherwise.
+     */
+    private void importScores() {
+        File in = new File(backupDir(), ARCHIVE_FILE);
+        if (!in.exists()) in = new File(backupDir(), CSV_FILE);
+        if (!in.exists()) {
+            Toast.makeText(this, "No " + ARCHIVE_FILE + " or " + CSV_FILE + " in " + backupDir(),
+                    Toast.LENGTH_LONG).show();
+            return;
+        }
+        LeaderboardStore.get(this).importFrom(in,
+                summary -> Toast.makeText(this, summary, Toast.LENGTH_LONG).show());
+    }
+
+    /**
+     * Lists the saved round recordings, newest first, and plays the chosen one.
+     */
+    private void showReplayPicker() {
+        File[] saved = new File(getFilesDir(), "replays").listFiles();
+        if (saved == null || saved.length == 0) {
+            Toast.makeText(this, "No replays recorded yet", Toast.LENGTH_SHORT).show();
+            return;
+        }
+        Arrays.sort(saved, (a, b) -> Long.compare(b.lastModified(), a.lastModified()));
+        String[] labels = new String[saved.length];
+        for (int i = 0; i < saved.length; i++) {
+            labels[i] = saved[i].getName() + "  " + DateFormat.getDateTimeInstance()
+                    .format(new Date(saved[i].lastModified()));
+        }
+        new AlertDialog.Builder(this)
+                .setTitle("REPLAYS")
+                .setItems(labels, (dialog, which) -> {
+                    Intent intent = new Intent(this, GameActivity.class);
+                    intent.putExtra("REPLAY_FILE", saved[which].getPath());
+                    startGame(intent);
+                })
+                .show();
+    }
+
+    private File backupDir() {
+        File dir = getExternalFilesDir(null);
+        return dir != null ? dir : getFilesDir();
+    }
+
+    /**
+     * Writes the trace counters to {@code files/trace_counters.txt} in the
+     * background and tells the user where.
+     */
+    private void dumpTraceCounters() {
+        File out = new File(getFilesDir(), "trace_counters.txt");
+        new Thread(() -> {
+            try {
+                VortexTrace.dump(out);
+                runOnUiThread(() -> Toast.makeText(this, "Saved " + out.getPath(), Toast.LENGTH_LONG).show());
+            } catch (IOException e) { e.printStackTrace(); }
+        }, "trace-dump").start();
+    }
+
     /**
      * Inflates and displays a custom alert dialog containing the game rules.
      * The background is set to transparent to accommodate the custom XML shape.
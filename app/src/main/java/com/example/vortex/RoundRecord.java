@@ -0,0 +1,25 @@
+package com.example.vortex;
+
+/**
+ * One finished round as kept in the game history.
+ * Every live round is recorded, whether or not its score reached the
+ * leaderboard.
+ */
+public final class RoundRecord {
+
+    public final long playedAtMillis;
+    public final int level;
+    public final int score;
+    public final int hits;
+    public final int misses;
+    public final long durationMillis;
+
+    public RoundRecord(long playedAtMillis, int level, int score, int hits, int misses, long durationMillis) {
+        this.playedAtMillis = playedAtMillis;
+        this.level = level;
+        this.score = score;
+        this.hits = hits;
+        this.misses = misses;
+        this.durationMillis = durationMillis;
+    }
+}
@@ -1,50 +1,192 @@
 package com.example.vortex;
 
+import android.content.res.ColorStateList;
 import android.os.Bundle;
-import android.widget.ArrayAdapter;
-import android.widget.ListView;
+import android.widget.Button;
 import android.widget.TextView;
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.core.content.ContextCompat;
+import androidx.recyclerview.widget.DividerItemDecoration;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
 import java.util.ArrayList;
 
 /**
  * Activity responsible for displaying the High Scores / Hall of Fame.
- * It uses a ListView to present the data fetched from the SQLite database.
+ * It uses a RecyclerView to present typed score rows from {@link LeaderboardStore}.
+ * The first page comes from the in-memory Top 25 when available, deeper ranks are
+ * paged in from the database as the user scrolls, and newly submitted scores are
+ * merged into the visible list as they arrive instead of reloading it.
  */
-public class ScoreActivity extends AppCompatActivity {
+public class ScoreActivity extends AppCompatActivity implements LeaderboardStore.OnScoreAddedListener {
+
+    private static final int PAGE_SIZE = 25;
+    // Start fetching the next page when this many rows are left below the screen.
+    private static final int PREFETCH_DISTANCE = 5;
+
+    private static final int[] FILTER_BUTTONS = {
+            R.id.btnFilterAll, R.id.btnFilterL1, R.id.btnFilterL2, R.id.btnFilterL3, R.id.btnFilterL4
+    };
+
+    private LeaderboardStore store;
+    private ScoreAdapter adapter;
+    private LinearLayoutManager layoutManager;
+    private TextView tvSub;
+
+    private int levelFilter;
+    private final ArrayList<ScoreRecord> rows = new ArrayList<>();
+    private boolean loadingPage = false;
+    private boolean exhausted = false;
+    // Bumped on every filter switch so results for an old filter are dropped.
+    private int generation = 0;
+
+    private int COLOR_CYAN, COLOR_INACTIVE, COLOR_BG, COLOR_WHITE;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_scores);
 
-        ListView listView = findViewById(R.id.listViewScores);
-        TextView tvSub = findViewById(R.id.tvLevelSub);
+        COLOR_CYAN = ContextCompat.getColor(this, R.color.cyber_cyan);
+        COLOR_INACTIVE = ContextCompat.getColor(this, R.color.cyber_inactive);
+        COLOR_BG = ContextCompat.getColor(this, R.color.cyber_bg);
+        COLOR_WHITE = ContextCompat.getColor(this, R.color.white);
 
-        DBHelper db = new DBHelper(this);
+        RecyclerView recyclerView = findViewById(R.id.recyclerScores);
+        tvSub = findViewById(R.id.tvLevelSub);
+        store = LeaderboardStore.get(this);
 
         // Retrieve the filter flag passed from MainActivity.
         // -1 implies a global view, otherwise it is specific to a level ID.
-        int levelFilter = getIntent().getIntExtra("LEVEL_FILTER", -1);
+        int initialFilter = getIntent().getIntExtra("LEVEL_FILTER", -1);
+
+        adapter = new ScoreAdapter(initialFilter);
+        layoutManager = new LinearLayoutManager(this);
+        recyclerView.setLayoutManager(layoutManager);
+        recyclerView.setAdapter(adapter);
+
+        DividerItemDecoration divider = new DividerItemDecoration(this, DividerItemDecoration.VERTICAL);
+        divider.setDrawable(ContextCompat.getDrawable(this, R.drawable.divider_score));
+        recyclerView.addItemDecoration(divider);
+
+        recyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(RecyclerView view, int dx, int dy) {
+                if (dy <= 0) return;
+                int lastVisible = layoutManager.findLastVisibleItemPosition();
+                if (lastVisible >= rows.size() - PREFETCH_DISTANCE) loadNextPage();
+            }
+        });
+
+        for (int i = 0; i < FILTER_BUTTONS.length; i++) {
+            final int filter = i == 0 ? -1 : i;
+            Button button = findViewById(FILTER_BUTTONS[i]);
+            button.setOnClickListener(v -> showLevel(filter));
+        }
+
+        store.addOnScoreAddedListener(this);
+        showLevel(initialFilter);
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        store.removeOnScoreAddedListener(this);
+    }
+
+    /**
+     * Switches the board being shown. The first page is taken from memory when
+     * the leaderboard cache is loaded, so switching levels is instant.
+     *
+     * @param filter The level to show, or -1 for all levels.
+     */
+    private void showLevel(int filter) {
+        levelFilter = filter;
+        generation++;
+        loadingPage = false;
+        exhausted = false;
 
         // Set the subtitle text based on the filter context.
-        if (levelFilter == -1) {
+        if (filter == -1) {
             tvSub.setText("HALL OF FAME");
         } else {
-            tvSub.setText("LEVEL " + levelFilter);
+            tvSub.setText("LEVEL " + filter);
         }
+        updateFilterButtons();
+        adapter.setLevelFilter(filter);
 
-        // Fetch the list of strings representing the Top 25 scores.
-        ArrayList<String> scores = db.getTop25Scores(levelFilter);
+        ArrayList<ScoreRecord> cached = store.getCachedTop25(filter);
+        if (cached != null) {
+            applyFirstPage(cached);
+            return;
+        }
+
+        final int requested = generation;
+        store.getTop25Scores(filter, records -> {
+            if (requested != generation || isFinishing() || isDestroyed()) return;
+            applyFirstPage(records);
+        });
+    }
+
+    private void applyFirstPage(ArrayList<ScoreRecord> records) {
+        rows.clear();
+        rows.addAll(records);
+        exhausted = records.size() < PAGE_SIZE;
+        submitRows();
+    }
+
+    /**
+     * Fetches the ranks below the last loaded row, if there may be any.
+     */
+    private void loadNextPage() {
+        if (loadingPage || exhausted || rows.isEmpty()) return;
+        loadingPage = true;
+
+        final int requested = generation;
+        ScoreRecord last = rows.get(rows.size() - 1);
+        store.getScoresPage(levelFilter, last, PAGE_SIZE, page -> {
+            if (requested != generation || isFinishing() || isDestroyed()) return;
+            loadingPage = false;
+            if (page.size() < PAGE_SIZE) exhausted = true;
+            rows.addAll(page);
+            submitRows();
+        });
+    }
 
-        // Bind the data to the ListView using a standard ArrayAdapter.
-        ArrayAdapter<String> adapter = new ArrayAdapter<>(
-                this,
-                R.layout.item_score,
-                R.id.tvScoreItem,
-                scores
-        );
+    /**
+     * Merges a newly stored score into the loaded rows. Scores that fall below
+     * the loaded range are skipped; paging will pick them up.
+     */
+    @Override
+    public void onScoreAdded(ScoreRecord record) {
+        if (levelFilter != -1 && record.level != levelFilter) return;
+
+        int position = rows.size();
+        for (int i = 0; i < rows.size(); i++) {
+            ScoreRecord row = rows.get(i);
+            if (row.id == record.id) return;
+            if (record.ranksAbove(row)) {
+                position = i;
+                break;
+            }
+        }
+        if (position == rows.size() && !exhausted) return;
+
+        rows.add(position, record);
+        submitRows();
+    }
+
+    private void submitRows() {
+        // ListAdapter diffs against the previous list, so it needs a fresh copy.
+        adapter.submitList(new ArrayList<>(rows));
+    }
 
-        listView.setAdapter(adapter);
+    private void updateFilterButtons() {
+        for (int i = 0; i < FILTER_BUTTONS.length; i++) {
+            boolean selected = (i == 0 ? -1 : i) == levelFilter;
+            Button button = findViewById(FILTER_BUTTONS[i]);
+            button.setBackgroundTintList(ColorStateList.valueOf(selected ? COLOR_CYAN : COLOR_INACTIVE));
+            button.setTextColor(selected ? COLOR_BG : COLOR_WHITE);
+        }
     }
-}
\ No newline at end of file
+}
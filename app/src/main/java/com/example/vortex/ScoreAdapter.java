@@ -0,0 +1,125 @@
+package com.example.vortex;
+
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.TextView;
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
+import androidx.recyclerview.widget.RecyclerView;
+import java.util.List;
+
+/**
+ * Shows leaderboard rows in a RecyclerView.
+ * Rows are typed {@link ScoreRecord}s and are only formatted when they are bound.
+ * New lists are diffed in the background, so an inserted score only touches the
+ * rows it actually affects: the new row itself, plus a rank-only rebind of the
+ * rows it pushed down.
+ */
+class ScoreAdapter extends ListAdapter<ScoreRecord, ScoreAdapter.Holder> {
+
+    // Marks a rebind where only the rank number moved.
+    private static final Object PAYLOAD_RANK = new Object();
+
+    private static final DiffUtil.ItemCallback<ScoreRecord> DIFF = new DiffUtil.ItemCallback<ScoreRecord>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull ScoreRecord oldItem, @NonNull ScoreRecord newItem) {
+            return oldItem.id == newItem.id;
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull ScoreRecord oldItem, @NonNull ScoreRecord newItem) {
+            return oldItem.equals(newItem);
+        }
+    };
+
+    private int levelFilter;
+    // Set when the filter changed since the last submitted list was shown.
+    private boolean filterChanged;
+
+    ScoreAdapter(int levelFilter) {
+        super(DIFF);
+        this.levelFilter = levelFilter;
+    }
+
+    /**
+     * Sets whether rows show their level (only on the all-levels board).
+     * Takes effect with the next submitted list, which then rebinds every row.
+     */
+    void setLevelFilter(int levelFilter) {
+        if (levelFilter != this.levelFilter) filterChanged = true;
+        this.levelFilter = levelFilter;
+    }
+
+    @NonNull
+    @Override
+    public Holder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View view = LayoutInflater.from(parent.getContext()).inflate(R.layout.item_score, parent, false);
+        return new Holder(view);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull Holder holder, int position) {
+        holder.bind(getItem(position), position + 1, levelFilter);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull Holder holder, int position, @NonNull List<Object> payloads) {
+        if (payloads.isEmpty()) {
+            onBindViewHolder(holder, position);
+            return;
+        }
+        // Only rank payloads are ever sent, so the row still shows the same record.
+        holder.bindRank(position + 1);
+    }
+
+    @Override
+    public void onCurrentListChanged(@NonNull List<ScoreRecord> previousList, @NonNull List<ScoreRecord> currentList) {
+        int size = currentList.size();
+        if (filterChanged) {
+            // Rows shared with the previous board still carry its level suffix.
+            filterChanged = false;
+            if (size > 0) notifyItemRangeChanged(0, size);
+            return;
+        }
+        // Rows that kept their identity but moved keep their old rank text,
+        // so rebind the ranks from the first position that changed.
+        int first = 0;
+        int common = Math.min(previousList.size(), size);
+        while (first < common && previousList.get(first).id == currentList.get(first).id) first++;
+        if (first < size) notifyItemRangeChanged(first, size - first, PAYLOAD_RANK);
+    }
+
+    static class Holder extends RecyclerView.ViewHolder {
+        private final TextView text;
+        private final StringBuilder line = new StringBuilder(48);
+        // Length of the rank number at the start of the line.
+        private int rankLength;
+
+        Holder(View itemView) {
+            super(itemView);
+            text = itemView.findViewById(R.id.tvScoreItem);
+        }
+
+        void bind(ScoreRecord record, int rank, int levelFilter) {
+            line.setLength(0);
+            line.append(rank);
+            rankLength = line.length();
+            line.append(" | ").append(record.name).append(" : ").append(record.score);
+            if (levelFilter == -1) {
+                line.append(" (Lvl ").append(record.level).append(')');
+            }
+            text.setText(line);
+        }
+
+        /** Swaps the rank number in front of an already bound row. */
+        void bindRank(int rank) {
+            line.delete(0, rankLength);
+            int rest = line.length();
+            line.insert(0, rank);
+            rankLength = line.length() - rest;
+            text.setText(line);
+        }
+    }
+}
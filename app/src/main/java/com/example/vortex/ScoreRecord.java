@@ -0,0 +1,46 @@
+package com.example.vortex;
+
+import java.util.Objects;
+
+/**
+ * One row of the leaderboard as stored in the database.
+ * Records carry no rank or display text; the rank follows from a record's
+ * position in a sorted list and the text is formatted when a row is shown.
+ */
+public final class ScoreRecord {
+
+    public final long id;
+    public final String name;
+    public final int score;
+    public final int level;
+
+    public ScoreRecord(long id, String name, int score, int level) {
+        this.id = id;
+        this.name = name;
+        this.score = score;
+        this.level = level;
+    }
+
+    /**
+     * Leaderboard order: higher score first, older entry first on ties.
+     *
+     * @return True if this record is listed before the other one.
+     */
+    public boolean ranksAbove(ScoreRecord other) {
+        return score > other.score || (score == other.score && id < other.id);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ScoreRecord)) return false;
+        ScoreRecord that = (ScoreRecord) o;
+        return id == that.id && score == that.score && level == that.level
+                && Objects.equals(name, that.name);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(id);
+    }
+}
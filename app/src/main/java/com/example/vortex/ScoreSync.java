@@ -0,0 +1,115 @@
+package com.example.vortex;
+
+import android.content.Context;
+import com.example.vortex.core.Backoff;
+import com.example.vortex.core.LeaderboardSync;
+import com.example.vortex.core.SyncClient;
+import java.io.IOException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the local leaderboard in step with the leaderboard server.
+ * Passes run on one background thread: at startup, a few seconds after each
+ * new local score (so a burst of saves goes up as one batch), and again with
+ * exponential backoff while the server cannot be reached. Each pass uploads
+ * only rows not yet acknowledged and downloads only rows newer than the last
+ * pull; see {@link LeaderboardSync}. Nothing here ever blocks the UI, and
+ * saving a score never waits for the network.
+ *
+ * Sync is off unless the {@code sync_url} string resource names a server.
+ */
+public final class ScoreSync {
+
+    private static final long DEBOUNCE_MS = 3_000;
+    private static final long RETRY_BASE_MS = 5_000;
+    private static final long RETRY_CAP_MS = 10 * 60_000;
+
+    private static volatile ScoreSync instance;
+
+    private final String baseUrl;
+    private final LeaderboardStore store;
+    private final ScheduledExecutorService executor;
+    private final Backoff backoff = new Backoff(RETRY_BASE_MS, RETRY_CAP_MS, System.nanoTime());
+
+    // Sync thread only.
+    private LeaderboardSync sync;
+    private boolean scheduled = false;
+
+    private ScoreSync(Context appContext) {
+        baseUrl = serverUrl(appContext);
+        store = LeaderboardStore.get(appContext);
+        if (baseUrl.isEmpty()) {
+            executor = null;
+            return;
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(r -> new Thread(r, "leaderboard-sync"));
+        store.setOnLocalScoreCommitted(() -> schedule(DEBOUNCE_MS));
+        schedule(0);
+    }
+
+    /**
+     * @return The shared sync, created (and started) on first use.
+     */
+    public static ScoreSync get(Context context) {
+        ScoreSync scoreSync = instance;
+        if (scoreSync == null) {
+            synchronized (ScoreSync.class) {
+                scoreSync = instance;
+                if (scoreSync == null) {
+                    scoreSync = new ScoreSync(context.getApplicationContext());
+                    instance = scoreSync;
+                }
+            }
+        }
+        return scoreSync;
+    }
+
+    /**
+     * @return True if a server is configured, whether or not sync has started.
+     */
+    static boolean isConfigured(Context context) {
+        return !serverUrl(context).isEmpty();
+    }
+
+    private static String serverUrl(Context context) {
+        return context.getString(R.string.sync_url).trim();
+    }
+
+    public boolean isEnabled() {
+        return executor != null;
+    }
+
+    /**
+     * Asks for a pass soon. Requests made while one is already waiting are
+     * folded into it.
+     */
+    public void requestSync() {
+        if (isEnabled()) schedule(0);
+    }
+
+    private void schedule(long delayMillis) {
+        executor.execute(() -> {
+            if (scheduled) return;
+            scheduled = true;
+            executor.schedule(this::runPass, delayMillis, TimeUnit.MILLISECONDS);
+        });
+    }
+
+    private void runPass() {
+        scheduled = false;
+        try {
+            if (sync == null) sync = new LeaderboardSync(new SyncClient(baseUrl, store.syncClientId()), store.syncStore());
+            sync.runOnce();
+            backoff.reset();
+        } catch (IOException e) {
+            e.printStackTrace();
+            scheduled = true;
+            executor.schedule(this::runPass, backoff.nextDelayMillis(), TimeUnit.MILLISECONDS);
+        } catch (RuntimeException e) {
+            // A local database failure; try again on the next request.
+            e.printStackTrace();
+        }
+    }
+}
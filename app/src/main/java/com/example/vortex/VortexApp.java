@@ -0,0 +1,130 @@
+package com.example.vortex;
+
+import android.app.Application;
+import android.os.Process;
+import android.os.SystemClock;
+import android.view.ContextThemeWrapper;
+import android.view.LayoutInflater;
+import android.widget.FrameLayout;
+import androidx.annotation.VisibleForTesting;
+import com.example.vortex.core.RoundTimer;
+import com.example.vortex.core.StagedInitializer;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Warms up everything a game needs while the main menu is showing.
+ * The work is split into stages run on two background threads in dependency
+ * order by a {@link StagedInitializer}:
+ * - prefs: loads GamePrefs, so later main-thread reads hit memory, and
+ *   applies the debug settings (tracing).
+ * - database: opens (and creates or upgrades) GameDB and fills the leaderboard cache.
+ * - audio: creates the {@link AudioEngine} and starts decoding the samples.
+ * - feedback: sets up the haptic thread and effects, after audio.
+ * - sync: starts the leaderboard sync, after the database.
+ * - layouts: inflates the game and level complete layouts once, so their
+ *   classes and resources are loaded before "Start" is tapped.
+ *
+ * Each stage's timing and the time from process start to the first frame of
+ * the menu and of the game are written to {@code files/startup.txt}.
+ */
+public class VortexApp extends Application {
+
+    private static final int STARTUP_THREADS = 2;
+
+    private final StagedInitializer startup = new StagedInitializer(RoundTimer.SYSTEM_CLOCK);
+    private long onCreateMillis;
+
+    // Main thread only.
+    private final Map<String, String> firstFrames = new LinkedHashMap<>();
+    private RoundTimer.Clock gameClock;
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        onCreateMillis = SystemClock.uptimeMillis() - Process.getStartUptimeMillis();
+
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(STARTUP_THREADS, STARTUP_THREADS,
+                1, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> new Thread(() -> {
+                    // Stay out of the way of the menu's first frames.
+                    Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                    r.run();
+                }, "startup"));
+        pool.allowCoreThreadTimeOut(true);
+
+        startup.add("prefs", () -> {
+                    getSharedPreferences("GamePrefs", MODE_PRIVATE).getInt("unlocked_level", 1);
+                    VortexTrace.setEnabled(DebugSettings.isTracingEnabled(this));
+                })
+                .add("database", () -> LeaderboardStore.get(this).awaitStartup())
+                .add("audio", () -> AudioEngine.get(this))
+                .add("feedback", () -> FeedbackDispatcher.get(this), "audio")
+                .add("sync", () -> ScoreSync.get(this).requestSync(), "database")
+                .add("layouts", this::warmLayouts)
+                .start(pool);
+    }
+
+    /**
+     * Makes live rounds run on the given clock instead of display frames, so
+     * a test can drive games on simulated time. Set before a game starts.
+     */
+    @VisibleForTesting
+    void setGameClock(RoundTimer.Clock clock) {
+        gameClock = clock;
+    }
+
+    /**
+     * @return The clock live rounds run on, or null to follow display frames.
+     */
+    RoundTimer.Clock gameClock() {
+        return gameClock;
+    }
+
+    private void warmLayouts() {
+        LayoutInflater inflater = LayoutInflater.from(new ContextThemeWrapper(this, R.style.Theme_VORTEX));
+        FrameLayout parent = new FrameLayout(inflater.getContext());
+        inflater.inflate(R.layout.activity_game, parent, false);
+        inflater.inflate(R.layout.fragment_level_complete, parent, false);
+    }
+
+    /**
+     * Records the first frame a screen drew in this process. Later frames
+     * of the same screen are ignored. Call on the main thread.
+     *
+     * @param screen         A short name for the screen.
+     * @param createdUptime  {@link SystemClock#uptimeMillis()} at the screen's onCreate.
+     */
+    public void reportFirstFrame(String screen, long createdUptime) {
+        if (firstFrames.containsKey(screen)) return;
+        long now = SystemClock.uptimeMillis();
+        firstFrames.put(screen, String.format(Locale.US, "%d\t%d",
+                now - Process.getStartUptimeMillis(), now - createdUptime));
+        exportStartupReport();
+    }
+
+    private void exportStartupReport() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("# startup\n");
+        sb.append(String.format(Locale.US, "process start to Application.onCreate\t%d ms\n", onCreateMillis));
+        sb.append("# stages (microseconds after Application.onCreate)\n");
+        sb.append(startup.formatReport());
+        sb.append("# first frame (ms after process start, ms after onCreate)\n");
+        for (Map.Entry<String, String> entry : firstFrames.entrySet()) {
+            sb.append(entry.getKey()).append('\t').append(entry.getValue()).append('\n');
+        }
+        final String report = sb.toString();
+        final File out = new File(getFilesDir(), "startup.txt");
+        new Thread(() -> {
+            try (FileWriter writer = new FileWriter(out)) {
+                writer.write(report);
+            } catch (IOException e) { e.printStackTrace(); }
+        }, "startup-export").start();
+    }
+}
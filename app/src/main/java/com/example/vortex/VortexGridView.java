@@ -0,0 +1,289 @@
+package com.example.vortex;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.RectF;
+import android.os.Build;
+import android.util.AttributeSet;
+import android.view.MotionEvent;
+import android.view.View;
+import android.view.animation.AnimationUtils;
+import androidx.annotation.Nullable;
+import androidx.core.content.ContextCompat;
+import com.example.vortex.core.GridGeometry;
+
+/**
+ * Draws the whole game grid on a single canvas.
+ * Every cell is a slot in a set of parallel arrays instead of a child View, so
+ * resizing the grid never inflates, measures or lays out anything per cell.
+ * Pop-in, spin and miss-shake are {@link CellEffects} started on a cell index
+ * and advanced from the animation clock inside {@link #onDraw(Canvas)}; no
+ * animator objects exist, so steady-state play allocates nothing.
+ * The state arrays are borrowed from {@link CellStatePool} and returned on
+ * detach, so level transitions reuse them instead of reallocating.
+ */
+public class VortexGridView extends View {
+
+    /**
+     * Receives taps that land on a cell, as soon as the finger touches down.
+     * Every finger counts, so two fingers landing together are two taps.
+     */
+    public interface OnCellTapListener {
+        /**
+         * @param cell           The tapped cell index.
+         * @param eventTimeNanos When the finger touched down, from the input
+         *                       event, in the {@code System.nanoTime()} time base.
+         */
+        void onCellTapped(int cell, long eventTimeNanos);
+    }
+
+    private static final long NANOS_PER_MILLI = 1_000_000L;
+
+    private final Paint fillPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint strokePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final RectF cellRect = new RectF();
+
+    private final int colorIdle, colorStroke, colorTarget, colorMiss;
+    private final float cellMargin;
+
+    private int side;
+    private int cellCount;
+    private final GridGeometry geometry = new GridGeometry();
+    private int targetCell = -1;
+
+    // Per-cell effect start times live in a CellState borrowed from
+    // CellStatePool, so they outlive this view.
+    private final CellEffects effects = new CellEffects();
+
+    // True once a touch sequence has delivered a tap, for accessibility clicks.
+    private boolean tappedSinceDown = false;
+    private OnCellTapListener listener;
+
+    public VortexGridView(Context context) {
+        this(context, null);
+    }
+
+    public VortexGridView(Context context, @Nullable AttributeSet attrs) {
+        super(context, attrs);
+        float density = getResources().getDisplayMetrics().density;
+
+        // Same palette and proportions as the old cell_cyber drawable.
+        colorIdle = ContextCompat.getColor(context, R.color.cyber_inactive);
+        colorTarget = ContextCompat.getColor(context, R.color.cyber_cyan);
+        colorMiss = ContextCompat.getColor(context, R.color.cyber_pink);
+        colorStroke = 0xFF333333;
+        cellMargin = 4 * density;
+
+        fillPaint.setStyle(Paint.Style.FILL);
+        strokePaint.setStyle(Paint.Style.STROKE);
+        strokePaint.setStrokeWidth(2 * density);
+    }
+
+    public void setOnCellTapListener(OnCellTapListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Resizes the grid to side x side cells and clears all per-cell state.
+     * Existing cell slots are reused in place; a grid larger than any level
+     * reallocates them.
+     *
+     * @param side The number of cells per row/column.
+     */
+    public void setGridSize(int side) {
+        this.side = side;
+        this.cellCount = side * side;
+        if (effects.state() == null) effects.attach(CellStatePool.acquire());
+        effects.state().resize(cellCount);
+        targetCell = -1;
+        updateCellGeometry(getWidth());
+        invalidate();
+    }
+
+    public int getGridSize() {
+        return side;
+    }
+
+    public int getCellCount() {
+        return cellCount;
+    }
+
+    /**
+     * Moves the highlight to a new cell and plays the pop-in effect on it.
+     * The previous target loses its highlight and any unfinished pop-in; the
+     * new target drops whatever was still running on it (a late shake, say)
+     * so the pop-in starts from a clean cell.
+     */
+    public void setTarget(int cell) {
+        if (targetCell >= 0 && targetCell < cellCount) {
+            effects.cancel(CellEffects.POP_IN, targetCell);
+        }
+        targetCell = cell;
+        if (cell >= 0 && cell < cellCount) {
+            effects.reset(cell);
+            effects.start(CellEffects.POP_IN, cell, AnimationUtils.currentAnimationTimeMillis());
+        }
+        postInvalidateOnAnimation();
+    }
+
+    public int getTarget() {
+        return targetCell;
+    }
+
+    /**
+     * Plays the success spin on a cell.
+     */
+    public void spin(int cell) {
+        if (cell < 0 || cell >= cellCount) return;
+        effects.start(CellEffects.SPIN, cell, AnimationUtils.currentAnimationTimeMillis());
+        postInvalidateOnAnimation();
+    }
+
+    /**
+     * Flashes a cell pink and shakes it horizontally.
+     */
+    public void flashMiss(int cell) {
+        if (cell < 0 || cell >= cellCount) return;
+        effects.start(CellEffects.SHAKE, cell, AnimationUtils.currentAnimationTimeMillis());
+        postInvalidateOnAnimation();
+    }
+
+    /**
+     * Maps a point in view coordinates to a cell index with plain arithmetic.
+     *
+     * @return The cell index, or -1 if the point falls outside the grid.
+     */
+    public int cellAt(float x, float y) {
+        return geometry.cellAt(x, y);
+    }
+
+    /**
+     * @return The horizontal center of a cell in view coordinates.
+     */
+    public float cellCenterX(int cell) {
+        return geometry.centerX(cell);
+    }
+
+    /**
+     * @return The vertical center of a cell in view coordinates.
+     */
+    public float cellCenterY(int cell) {
+        return geometry.centerY(cell);
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        // The grid is always square and as wide as the parent allows.
+        int width = MeasureSpec.getSize(widthMeasureSpec);
+        if (MeasureSpec.getMode(heightMeasureSpec) != MeasureSpec.UNSPECIFIED) {
+            width = Math.min(width, MeasureSpec.getSize(heightMeasureSpec));
+        }
+        setMeasuredDimension(width, width);
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        updateCellGeometry(w);
+    }
+
+    private void updateCellGeometry(int width) {
+        geometry.update(side, width, cellMargin);
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        super.onDraw(canvas);
+        float cellSize = geometry.cellSize();
+        if (cellCount == 0 || cellSize <= 0) return;
+
+        long now = AnimationUtils.currentAnimationTimeMillis();
+        boolean animating = false;
+        float half = cellSize / 2f;
+
+        for (int i = 0; i < cellCount; i++) {
+            if (effects.sample(i, now)) animating = true;
+            float scale = effects.scale;
+            float rotation = effects.rotation;
+            float shift = effects.shiftX;
+            boolean target = i == targetCell;
+            int color = effects.tinted ? colorMiss : target ? colorTarget : colorIdle;
+            int stroke = effects.tinted ? colorMiss : target ? colorTarget : colorStroke;
+
+            if (scale <= 0f) continue;
+
+            float cx = geometry.centerX(i) + shift;
+            float cy = geometry.centerY(i);
+
+            canvas.save();
+            canvas.translate(cx, cy);
+            if (rotation != 0f) canvas.rotate(rotation);
+            if (scale != 1f) canvas.scale(scale, scale);
+
+            cellRect.set(-half, -half, half, half);
+            fillPaint.setColor(color);
+            strokePaint.setColor(stroke);
+            canvas.drawRoundRect(cellRect, half, half, fillPaint);
+            canvas.drawRoundRect(cellRect, half, half, strokePaint);
+            canvas.restore();
+        }
+
+        if (animating) postInvalidateOnAnimation();
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        // Hand the arrays back so the next GameActivity can pick them up.
+        CellStatePool.release(effects.state());
+        effects.attach(null);
+        cellCount = 0;
+        side = 0;
+        updateCellGeometry(0);
+    }
+
+    /**
+     * Registers a tap on every finger that touches down, first or additional.
+     * The cell comes straight from the coordinates; nothing is looked up in
+     * the view hierarchy, so the cost is the same at any grid size.
+     */
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        switch (event.getActionMasked()) {
+            case MotionEvent.ACTION_DOWN:
+                tappedSinceDown = false;
+                // Fall through: the first finger is handled like any other.
+            case MotionEvent.ACTION_POINTER_DOWN:
+                int index = event.getActionIndex();
+                int cell = cellAt(event.getX(index), event.getY(index));
+                if (cell != -1) {
+                    tappedSinceDown = true;
+                    if (listener != null) listener.onCellTapped(cell, eventTimeNanos(event));
+                }
+                // Keep receiving the gesture so later fingers arrive too.
+                return true;
+            case MotionEvent.ACTION_UP:
+                if (tappedSinceDown) performClick();
+                tappedSinceDown = false;
+                return true;
+            default:
+                return true;
+        }
+    }
+
+    /**
+     * @return The event's hardware timestamp, at full precision where available.
+     */
+    private static long eventTimeNanos(MotionEvent event) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.UPSIDE_DOWN_CAKE) {
+            return event.getEventTimeNanos();
+        }
+        return event.getEventTime() * NANOS_PER_MILLI;
+    }
+
+    @Override
+    public boolean performClick() {
+        return super.performClick();
+    }
+}
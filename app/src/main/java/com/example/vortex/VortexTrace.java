@@ -0,0 +1,136 @@
+package com.example.vortex;
+
+import android.os.Build;
+import android.os.Trace;
+import com.example.vortex.core.SectionCounters;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+
+/**
+ * Named sections and counters for system traces (Perfetto, systrace), plus
+ * an in-process tally of every section's calls and durations that field
+ * testers can dump from the debug menu.
+ * Tracing is switched at runtime; while it is off {@link #begin} returns 0
+ * after a single volatile read and {@link #end} returns immediately, so the
+ * instrumented paths cost nothing measurable.
+ *
+ * Usage:
+ * <pre>
+ * long t = VortexTrace.begin(VortexTrace.DB_ADD_SCORE);
+ * try { ... } finally { VortexTrace.end(VortexTrace.DB_ADD_SCORE, t); }
+ * </pre>
+ * Hops (a screen change measured until the next screen's first frame) use
+ * {@link #beginHop}/{@link #endHop} on the main thread and show up as async
+ * sections on API 29+.
+ */
+public final class VortexTrace {
+
+    public static final int DB_IS_TOP25 = 0;
+    public static final int DB_ADD_SCORE = 1;
+    public static final int DB_TOP25 = 2;
+    public static final int GRID_BUILD = 3;
+    public static final int AUDIO_INIT = 4;
+    public static final int TARGET = 5;
+    public static final int HOP_TO_GAME_OVER = 6;
+    public static final int HOP_TO_GAME = 7;
+    public static final int HOP_NEXT_LEVEL = 8;
+
+    private static final String[] NAMES = {
+            "db.isTop25",
+            "db.addScore",
+            "db.getTop25Scores",
+            "game.generateGrid",
+            "audio.initSoundPool",
+            "game.highlightRandomCell",
+            "hop.gameToGameOver",
+            "hop.toGame",
+            "hop.nextLevel",
+    };
+
+    private static final SectionCounters counters = new SectionCounters(NAMES);
+    private static volatile boolean enabled = false;
+
+    // Main thread only.
+    private static final long[] hopStarts = new long[NAMES.length];
+
+    private VortexTrace() {
+    }
+
+    public static void setEnabled(boolean on) {
+        enabled = on;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Opens a section on the calling thread.
+     *
+     * @return The token to pass to {@link #end}; 0 while tracing is off.
+     */
+    public static long begin(int section) {
+        if (!enabled) return 0;
+        Trace.beginSection(NAMES[section]);
+        return System.nanoTime();
+    }
+
+    /**
+     * Closes the section opened by the matching {@link #begin}.
+     */
+    public static void end(int section, long token) {
+        if (token == 0) return;
+        Trace.endSection();
+        counters.record(section, System.nanoTime() - token);
+    }
+
+    /**
+     * Starts a hop. A second start before the end restarts it.
+     */
+    public static void beginHop(int section) {
+        if (!enabled) return;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            if (hopStarts[section] != 0) Trace.endAsyncSection(NAMES[section], section);
+            Trace.beginAsyncSection(NAMES[section], section);
+        }
+        hopStarts[section] = System.nanoTime();
+    }
+
+    /**
+     * Ends a hop; does nothing if it was not started.
+     */
+    public static void endHop(int section) {
+        long start = hopStarts[section];
+        if (start == 0) return;
+        hopStarts[section] = 0;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            Trace.endAsyncSection(NAMES[section], section);
+        }
+        counters.record(section, System.nanoTime() - start);
+    }
+
+    /**
+     * Publishes a named value as a trace counter track (API 29+).
+     */
+    public static void counter(String name, long value) {
+        if (!enabled || Build.VERSION.SDK_INT < Build.VERSION_CODES.Q) return;
+        Trace.setCounter(name, value);
+    }
+
+    /**
+     * @return Calls and durations of every section recorded so far.
+     */
+    public static String formatReport() {
+        return "# trace sections (microseconds)\n" + counters.formatReport();
+    }
+
+    /**
+     * Writes {@link #formatReport()} to a file. Blocking.
+     */
+    public static void dump(File out) throws IOException {
+        try (FileWriter writer = new FileWriter(out)) {
+            writer.write(formatReport());
+        }
+    }
+}
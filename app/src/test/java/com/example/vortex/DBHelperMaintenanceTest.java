@@ -0,0 +1,78 @@
+package com.example.vortex;
+
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteDatabase;
+import androidx.test.core.app.ApplicationProvider;
+import com.example.vortex.core.RetentionPolicy;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.*;
+
+/**
+ * {@link DBHelper#runMaintenance} on a real SQLite file: pruning to the
+ * retention depth with and without sync, and handing the freed pages back.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+public class DBHelperMaintenanceTest {
+
+    private static final int SCORES = 2000;
+
+    private DBHelper db;
+
+    @Before
+    public void setUp() {
+        db = new DBHelper(ApplicationProvider.getApplicationContext());
+    }
+
+    @After
+    public void tearDown() {
+        db.close();
+    }
+
+    @Test
+    public void syncOff_trimsLocalScoresToPolicyDepth() {
+        addScores();
+
+        DBHelper.Maintenance m = db.runMaintenance(RetentionPolicy.DEFAULT, false);
+
+        assertEquals(SCORES - RetentionPolicy.DEFAULT.perLevel, m.scoresPruned);
+        assertEquals(RetentionPolicy.DEFAULT.perLevel, m.scoreRows);
+        assertTrue(m.pagesReclaimed > 0);
+        assertEquals(0, m.freePages);
+        assertEquals(0, DatabaseUtils.longForQuery(db.getReadableDatabase(), "PRAGMA freelist_count", null));
+    }
+
+    @Test
+    public void syncOn_keepsScoresNotYetUploaded() {
+        long[] ids = addScores();
+        int uploaded = SCORES / 2;
+        db.putSyncValue(DBHelper.SYNC_UPLOAD_WATERMARK, String.valueOf(ids[uploaded - 1]));
+
+        DBHelper.Maintenance m = db.runMaintenance(RetentionPolicy.DEFAULT, true);
+
+        // Only uploaded rows below the depth go; the top rows are all unsent.
+        assertEquals(uploaded, m.scoresPruned);
+        assertEquals(SCORES - uploaded, m.scoreRows);
+        assertEquals(0, m.freePages);
+    }
+
+    // One level, scores rising with the id, so the newest rows rank highest.
+    private long[] addScores() {
+        long[] ids = new long[SCORES];
+        SQLiteDatabase sql = db.getWritableDatabase();
+        sql.beginTransaction();
+        try {
+            for (int i = 0; i < SCORES; i++) ids[i] = db.addScore("Player number " + i, i, 1);
+            sql.setTransactionSuccessful();
+        } finally {
+            sql.endTransaction();
+        }
+        return ids;
+    }
+}
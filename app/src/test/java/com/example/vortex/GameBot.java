@@ -0,0 +1,86 @@
+package com.example.vortex;
+
+import android.os.SystemClock;
+import android.view.MotionEvent;
+import androidx.fragment.app.Fragment;
+import androidx.fragment.app.FragmentActivity;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.robolectric.shadows.ShadowLooper;
+
+/**
+ * Scripted player for Robolectric tests. Taps through the grid view's real
+ * touch path at a fixed rate, hitting the lit cell with a given probability
+ * and a random other cell otherwise, while advancing the main looper's
+ * simulated clock between taps.
+ */
+final class GameBot {
+
+    // A round lasts 5 seconds; this leaves room for slow tap rates.
+    private static final int MAX_STEPS_PER_ROUND = 10_000;
+
+    private final Random random;
+    private final double accuracy;
+    private final long tapIntervalMillis;
+
+    int taps = 0;
+    int intendedHits = 0;
+
+    /**
+     * @param accuracy      Chance in [0, 1] that a tap goes to the target.
+     * @param tapsPerSecond How fast the bot taps, in simulated time.
+     */
+    GameBot(long seed, double accuracy, double tapsPerSecond) {
+        this.random = new Random(seed);
+        this.accuracy = accuracy;
+        this.tapIntervalMillis = Math.max(1, Math.round(1000 / tapsPerSecond));
+    }
+
+    /**
+     * Plays the running round until the level complete overlay shows.
+     *
+     * @return False if the round did not end.
+     */
+    boolean playRound(FragmentActivity activity) {
+        VortexGridView grid = activity.findViewById(R.id.gameGrid);
+        for (int step = 0; step < MAX_STEPS_PER_ROUND; step++) {
+            if (isLevelCompleteShowing(activity)) return true;
+            tap(grid);
+            ShadowLooper.idleMainLooper(tapIntervalMillis, TimeUnit.MILLISECONDS);
+        }
+        return isLevelCompleteShowing(activity);
+    }
+
+    private void tap(VortexGridView grid) {
+        int cells = grid.getCellCount();
+        int target = grid.getTarget();
+        if (target < 0 || cells < 2) return;
+
+        int cell = target;
+        if (random.nextDouble() < accuracy) {
+            intendedHits++;
+        } else {
+            cell = (target + 1 + random.nextInt(cells - 1)) % cells;
+        }
+        float x = grid.cellCenterX(cell);
+        float y = grid.cellCenterY(cell);
+        long now = SystemClock.uptimeMillis();
+        MotionEvent down = MotionEvent.obtain(now, now, MotionEvent.ACTION_DOWN, x, y, 0);
+        MotionEvent up = MotionEvent.obtain(now, now + 1, MotionEvent.ACTION_UP, x, y, 0);
+        grid.dispatchTouchEvent(down);
+        grid.dispatchTouchEvent(up);
+        down.recycle();
+        up.recycle();
+        taps++;
+    }
+
+    static LevelCompleteFragment levelComplete(FragmentActivity activity) {
+        Fragment fragment = activity.getSupportFragmentManager().findFragmentByTag(LevelCompleteFragment.TAG);
+        return (LevelCompleteFragment) fragment;
+    }
+
+    static boolean isLevelCompleteShowing(FragmentActivity activity) {
+        LevelCompleteFragment overlay = levelComplete(activity);
+        return overlay != null && overlay.isAdded() && !overlay.isHidden() && overlay.getView() != null;
+    }
+}
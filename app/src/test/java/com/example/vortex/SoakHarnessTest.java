@@ -0,0 +1,201 @@
+package com.example.vortex;
+
+import android.app.Activity;
+import android.app.Dialog;
+import android.content.Context;
+import android.content.DialogInterface;
+import android.content.Intent;
+import android.media.SoundPool;
+import android.os.SystemClock;
+import androidx.appcompat.app.AlertDialog;
+import androidx.test.core.app.ApplicationProvider;
+import com.example.vortex.core.GameRules;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.android.controller.ActivityController;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.Implementation;
+import org.robolectric.annotation.Implements;
+import org.robolectric.annotation.RealObject;
+import org.robolectric.shadows.ShadowDialog;
+import org.robolectric.shadows.ShadowLooper;
+import org.robolectric.util.reflector.Direct;
+import org.robolectric.util.reflector.ForType;
+
+import static org.junit.Assert.*;
+import static org.robolectric.util.reflector.Reflector.reflector;
+
+/**
+ * Soak test: a {@link GameBot} plays whole games on the JVM, through every
+ * level, the level complete overlay and the high score dialog, so scores
+ * really reach the database the way a player's do.
+ * Sessions, accuracy and tap rate come from the vortex.soak.* system
+ * properties (see app/build.gradle). The run reports rounds per second, heap
+ * growth, activities still reachable after they were destroyed, and the
+ * database size over time, to build/soak-report.txt.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34, shadows = SoakHarnessTest.CountingSoundPoolBuilder.class)
+public class SoakHarnessTest {
+
+    private static final int DIALOG_WAIT_STEPS = 500;
+
+    @Test
+    public void soak_playsFullGamesAndSubmitsScores() throws Exception {
+        int sessions = Integer.getInteger("vortex.soak.sessions", 10);
+        double accuracy = Double.parseDouble(System.getProperty("vortex.soak.accuracy", "0.8"));
+        double rate = Double.parseDouble(System.getProperty("vortex.soak.rate", "6"));
+
+        Context app = ApplicationProvider.getApplicationContext();
+        // Live rounds follow the looper's simulated clock instead of vsync.
+        ((VortexApp) app).setGameClock(() -> SystemClock.uptimeMillis() * 1_000_000L);
+
+        LeaderboardStore store = LeaderboardStore.get(app);
+        store.awaitStartup();
+        AudioEngine.get(app);
+
+        GameBot bot = new GameBot(42L, accuracy, rate);
+        List<WeakReference<Activity>> destroyed = new ArrayList<>();
+        StringBuilder dbGrowth = new StringBuilder("session\trounds\tdb bytes\n");
+        long heapBefore = usedHeap();
+        long startNanos = System.nanoTime();
+        int rounds = 0;
+        int submitted = 0;
+
+        for (int session = 0; session < sessions; session++) {
+            Intent intent = new Intent(app, GameActivity.class).putExtra("SELECTED_LEVEL", 1);
+            ActivityController<GameActivity> game = Robolectric.buildActivity(GameActivity.class, intent).setup();
+
+            for (int level = 1; level <= GameRules.MAX_LEVEL; level++) {
+                assertTrue("Round did not end at level " + level, bot.playRound(game.get()));
+                rounds++;
+                LevelCompleteFragment overlay = GameBot.levelComplete(game.get());
+                if (GameRules.hasNextLevel(level)) {
+                    overlay.requireView().findViewById(R.id.btnNextLevel).performClick();
+                    ShadowLooper.idleMainLooper();
+                } else {
+                    overlay.requireView().findViewById(R.id.btnEndGame).performClick();
+                    if (submitHighScore(game.get(), store)) submitted++;
+                }
+            }
+            destroy(game, destroyed);
+
+            store.awaitStartup();
+            dbGrowth.append(String.format(Locale.US, "%d\t%d\t%d\n", session + 1, rounds, databaseBytes(app)));
+        }
+
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        long heapAfter = usedHeap();
+        int leaked = 0;
+        for (WeakReference<Activity> ref : destroyed) if (ref.get() != null) leaked++;
+
+        String report = String.format(Locale.US, "# soak\nsessions\t%d\nrounds\t%d\nrounds per second\t%.1f\n"
+                        + "taps\t%d\nscores submitted\t%d\nheap growth (KB)\t%d\n"
+                        + "destroyed activities still reachable\t%d of %d\n"
+                        + "cell states\tcreated %d\treused %d\n"
+                        + "cell slots\tcreated %d\treused %d\n",
+                sessions, rounds, rounds / seconds, bot.taps, submitted,
+                (heapAfter - heapBefore) / 1024, leaked, destroyed.size(),
+                CellStatePool.getStatesCreated(), CellStatePool.getStatesReused(),
+                CellStatePool.getCellsCreated(), CellStatePool.getCellsReused())
+                + dbGrowth + store.formatMaintenanceReport();
+        writeReport(report);
+
+        assertEquals(sessions * GameRules.MAX_LEVEL, rounds);
+        // One SoundPool for the whole process, however many games ran.
+        assertEquals(1, CountingSoundPoolBuilder.built);
+        // Grid state is allocated once per holder and never grows between levels.
+        assertEquals(CellStatePool.getStatesCreated() * CellStatePool.PRESIZED_CELLS, CellStatePool.getCellsCreated());
+        // Robolectric keeps the latest dialog, and with it that dialog's activity.
+        assertTrue("Leaked activities: " + leaked, leaked <= 1);
+        if (submitted > 0) assertFalse(store.getCachedTop25(-1).isEmpty());
+    }
+
+    /**
+     * Waits for the high score check and enters a name if the dialog comes up.
+     *
+     * @return True if a score was submitted.
+     */
+    private static boolean submitHighScore(Activity activity, LeaderboardStore store) throws InterruptedException {
+        Dialog before = ShadowDialog.getLatestDialog();
+        for (int i = 0; i < DIALOG_WAIT_STEPS; i++) {
+            ShadowLooper.idleMainLooper();
+            Dialog latest = ShadowDialog.getLatestDialog();
+            if (latest != before && latest instanceof AlertDialog && latest.isShowing()) {
+                ((AlertDialog) latest).getButton(DialogInterface.BUTTON_POSITIVE).performClick();
+                ShadowLooper.idleMainLooper();
+                store.awaitStartup();
+                return true;
+            }
+            if (activity.isFinishing()) return false;
+            // The qualification check may still be on a reader thread.
+            TimeUnit.MILLISECONDS.sleep(2);
+        }
+        fail("High score check never finished");
+        return false;
+    }
+
+    /**
+     * Counts every SoundPool the app builds, so a second pool shows up even
+     * if the first is still referenced.
+     */
+    @Implements(SoundPool.Builder.class)
+    public static class CountingSoundPoolBuilder {
+        static int built;
+
+        @RealObject
+        private SoundPool.Builder realBuilder;
+
+        @Implementation
+        protected SoundPool build() {
+            built++;
+            return reflector(BuilderReflector.class, realBuilder).build();
+        }
+
+        @ForType(SoundPool.Builder.class)
+        interface BuilderReflector {
+            @Direct
+            SoundPool build();
+        }
+    }
+
+    private static <T extends Activity> void destroy(ActivityController<T> controller,
+                                                     List<WeakReference<Activity>> destroyed) {
+        destroyed.add(new WeakReference<>(controller.get()));
+        if (!controller.get().isFinishing()) controller.get().finish();
+        controller.pause().stop().destroy();
+        ShadowLooper.idleMainLooper();
+    }
+
+    private static long databaseBytes(Context context) {
+        File db = context.getDatabasePath("GameDB");
+        return db.length() + new File(db.getPath() + "-wal").length();
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            TimeUnit.MILLISECONDS.sleep(20);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static void writeReport(String report) {
+        File out = new File("build", "soak-report.txt");
+        out.getParentFile().mkdirs();
+        try (FileWriter writer = new FileWriter(out)) {
+            writer.write(report);
+        } catch (IOException e) { e.printStackTrace(); }
+    }
+}
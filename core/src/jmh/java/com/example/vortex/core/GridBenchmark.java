@@ -0,0 +1,64 @@
+package com.example.vortex.core;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Grid sizing from 2x2 up to 64x64: laying out the grid, hit testing a
+ * point and starting a round on it. None of these should grow with the
+ * number of cells.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class GridBenchmark {
+
+    // A typical phone grid width in pixels and a 4dp gutter at xxhdpi.
+    private static final int WIDTH = 1080;
+    private static final float MARGIN = 12f;
+
+    @Param({"2", "4", "8", "16", "32", "64"})
+    public int side;
+
+    private final GridGeometry geometry = new GridGeometry();
+    private GameEngine engine;
+    private float x;
+    private float y;
+
+    @Setup
+    public void setUp() {
+        geometry.update(side, WIDTH, MARGIN);
+        engine = new GameEngine(System::nanoTime, true, new QuietListener());
+    }
+
+    @Benchmark
+    public float layout() {
+        geometry.update(side, WIDTH, MARGIN);
+        return geometry.cellSize();
+    }
+
+    @Benchmark
+    public int hitTest() {
+        // Walk the point across the grid so every row and column is exercised.
+        x += 37f;
+        if (x >= WIDTH) {
+            x -= WIDTH;
+            y += 53f;
+            if (y >= WIDTH) y -= WIDTH;
+        }
+        return geometry.cellAt(x, y);
+    }
+
+    @Benchmark
+    public int startRound() {
+        engine.startRound(1, side, 42L);
+        return engine.target();
+    }
+}
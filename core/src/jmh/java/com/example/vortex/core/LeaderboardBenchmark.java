@@ -0,0 +1,59 @@
+package com.example.vortex.core;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * The Top N path on a full board: checking whether a score qualifies and
+ * inserting one that does.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class LeaderboardBenchmark {
+
+    private static final String NAME = "bench";
+    private static final int SCORE_LIMIT = 1 << 30;
+
+    private LeaderboardCache cache;
+    private long nextId;
+    private int nextScore;
+    private final TargetSequence scores = new TargetSequence(false);
+
+    @Setup
+    public void setUp() {
+        cache = new LeaderboardCache();
+        fill();
+        scores.reset(7L);
+    }
+
+    private void fill() {
+        for (int i = 0; i < GameRules.TOP_N; i++) cache.offer(nextId++, NAME, i, 1);
+        nextScore = GameRules.TOP_N;
+    }
+
+    /**
+     * Every score beats the board, so each call replaces the weakest entry on
+     * the level board and on the global board.
+     */
+    @Benchmark
+    public int insert() {
+        if (nextScore == SCORE_LIMIT) setUp();
+        cache.offer(nextId++, NAME, nextScore++, 1);
+        return nextScore;
+    }
+
+    /**
+     * Scores spread across the board, so about half qualify.
+     */
+    @Benchmark
+    public boolean qualify() {
+        return cache.qualifies(scores.next(2 * GameRules.TOP_N), 1);
+    }
+}
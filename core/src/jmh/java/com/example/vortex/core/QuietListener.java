@@ -0,0 +1,40 @@
+package com.example.vortex.core;
+
+/**
+ * Engine listener for benchmarks; counts events so the work stays observable
+ * without adding any rendering cost.
+ */
+final class QuietListener implements GameEngine.Listener {
+
+    long events;
+
+    @Override
+    public void onRoundStart(int level, int side) {
+        events++;
+    }
+
+    @Override
+    public void onTarget(int cell) {
+        events += cell;
+    }
+
+    @Override
+    public void onHit(int cell) {
+        events++;
+    }
+
+    @Override
+    public void onMiss(int cell) {
+        events++;
+    }
+
+    @Override
+    public void onTick(long millisRemaining) {
+        events++;
+    }
+
+    @Override
+    public void onRoundEnd() {
+        events++;
+    }
+}
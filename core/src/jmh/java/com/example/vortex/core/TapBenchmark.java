@@ -0,0 +1,57 @@
+package com.example.vortex.core;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Taps per second through the engine: scoring, the next target and the
+ * replay recording. Reported both as throughput and as time per tap.
+ * The round is restarted before the recording outgrows its initial buffer,
+ * so a steady state allocates nothing.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TapBenchmark {
+
+    // Stay clear of the recorder's initial 4 KB buffer.
+    private static final int ROUND_BYTES = 3500;
+
+    // One tap every 200 ms of simulated time.
+    private static final long TAP_NANOS = 200_000_000L;
+
+    @Param({"2", "5", "16", "64"})
+    public int side;
+
+    private long now;
+    private GameEngine engine;
+
+    @Setup
+    public void setUp() {
+        engine = new GameEngine(() -> now, true, new QuietListener());
+        engine.startRound(1, side, 42L);
+    }
+
+    @Benchmark
+    public boolean hit() {
+        return tap(engine.target());
+    }
+
+    @Benchmark
+    public boolean miss() {
+        return tap((engine.target() + 1) % engine.cellCount());
+    }
+
+    private boolean tap(int cell) {
+        if (engine.recorder().length() > ROUND_BYTES) engine.startRound(1, side, now);
+        now += TAP_NANOS;
+        return engine.tap(cell, now);
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.vortex.core;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Cost of drawing the next target, with and without the no-repeat rule.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TargetBenchmark {
+
+    @Param({"2", "5", "64"})
+    public int side;
+
+    @Param({"true", "false"})
+    public boolean noRepeat;
+
+    private int cellCount;
+    private TargetSequence targets;
+
+    @Setup
+    public void setUp() {
+        cellCount = side * side;
+        targets = new TargetSequence(noRepeat);
+        targets.reset(42L);
+    }
+
+    @Benchmark
+    public int next() {
+        return targets.next(cellCount);
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.vortex.core;
+
+import java.util.Random;
+
+/**
+ * Exponential backoff with full jitter: the n-th consecutive failure waits a
+ * random time between zero and {@code min(cap, base * 2^n)}. Spreading the
+ * retries keeps many devices from hitting the server in lockstep.
+ * Not thread-safe.
+ */
+public final class Backoff {
+
+    private final long baseMillis;
+    private final long capMillis;
+    private final Random random;
+    private int failures = 0;
+
+    public Backoff(long baseMillis, long capMillis, long seed) {
+        this.baseMillis = baseMillis;
+        this.capMillis = capMillis;
+        this.random = new Random(seed);
+    }
+
+    /**
+     * Records a failure.
+     *
+     * @return How long to wait before the next attempt.
+     */
+    public long nextDelayMillis() {
+        long ceiling = capMillis;
+        // Past 30 doublings any sane base has long passed the cap.
+        if (failures < 30) ceiling = Math.min(capMillis, baseMillis << failures);
+        failures++;
+        return (long) (ceiling * random.nextDouble());
+    }
+
+    /**
+     * Records a success; the next failure starts from the base delay again.
+     */
+    public void reset() {
+        failures = 0;
+    }
+
+    public int failures() {
+        return failures;
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.vortex.core;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Frame durations of a play session, by level, with the events that caused
+ * slow frames. The host marks what happened (a grid rebuild, a target
+ * change, a miss animation) as it happens and reports every frame's
+ * duration; each slow frame is blamed on the marks made since the previous
+ * frame, or counted as unmarked.
+ * Recording is allocation-free once a level has been seen. Not thread-safe.
+ */
+public final class FrameTimeline {
+
+    public static final int MARK_GRID = 0;
+    public static final int MARK_TARGET = 1;
+    public static final int MARK_MISS = 2;
+    public static final int MARK_COUNT = 3;
+    public static final String[] MARK_NAMES = {"grid", "target", "miss"};
+
+    /** Levels (or grid sizes in benchmark mode) 0 to this are tracked separately. */
+    public static final int MAX_LEVEL = 64;
+
+    /** How many of the latest slow frames are kept with their marks. */
+    public static final int RECENT_SLOW = 32;
+
+    private static final int VERSION = 1;
+
+    private final long slowMicros;
+    private final LatencyHistogram[] byLevel = new LatencyHistogram[MAX_LEVEL + 1];
+    private LatencyHistogram current;
+    private int level;
+    private int pendingMarks;
+
+    private long frames;
+    private long slowFrames;
+    private long unmarkedSlow;
+    private final long[] slowByMark = new long[MARK_COUNT];
+
+    private final long[] recentMicros = new long[RECENT_SLOW];
+    private final int[] recentMarks = new int[RECENT_SLOW];
+    private final int[] recentLevels = new int[RECENT_SLOW];
+    private int recentNext = 0;
+
+    /**
+     * @param slowMicros Frames longer than this count as slow.
+     */
+    public FrameTimeline(long slowMicros) {
+        this.slowMicros = slowMicros;
+        setLevel(0);
+    }
+
+    /**
+     * Sends the following frames to a level's histogram. Levels above
+     * {@link #MAX_LEVEL} share the last one.
+     */
+    public void setLevel(int level) {
+        this.level = Math.max(0, Math.min(MAX_LEVEL, level));
+        if (byLevel[this.level] == null) byLevel[this.level] = new LatencyHistogram();
+        current = byLevel[this.level];
+    }
+
+    /**
+     * Notes that something expensive happened before the next frame.
+     *
+     * @param mark One of the {@code MARK_} constants.
+     */
+    public void mark(int mark) {
+        pendingMarks |= 1 << mark;
+    }
+
+    /**
+     * Records one frame and clears the pending marks.
+     */
+    public void onFrame(long durationMicros) {
+        current.record(durationMicros);
+        frames++;
+        if (durationMicros > slowMicros) {
+            slowFrames++;
+            if (pendingMarks == 0) unmarkedSlow++;
+            for (int m = 0; m < MARK_COUNT; m++) {
+                if ((pendingMarks & (1 << m)) != 0) slowByMark[m]++;
+            }
+            recentMicros[recentNext] = durationMicros;
+            recentMarks[recentNext] = pendingMarks;
+            recentLevels[recentNext] = level;
+            recentNext = (recentNext + 1) % RECENT_SLOW;
+        }
+        pendingMarks = 0;
+    }
+
+    public long frames() {
+        return frames;
+    }
+
+    public long slowFrames() {
+        return slowFrames;
+    }
+
+    /**
+     * @return How many slow frames followed the given mark.
+     */
+    public long slowFramesAfter(int mark) {
+        return slowByMark[mark];
+    }
+
+    public long unmarkedSlowFrames() {
+        return unmarkedSlow;
+    }
+
+    /**
+     * @return The frame times of a level, or null if it was never played.
+     */
+    public LatencyHistogram level(int level) {
+        return level >= 0 && level <= MAX_LEVEL ? byLevel[level] : null;
+    }
+
+    /**
+     * Writes the session in a compact binary form: a version byte, the slow
+     * threshold and totals, the slow frame count per mark, then for each
+     * played level its non-empty {@link LatencyHistogram} buckets, and last
+     * the recent slow frames with their marks. Big-endian throughout.
+     */
+    public byte[] encode() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(VERSION);
+            out.writeInt((int) slowMicros);
+            out.writeLong(frames);
+            out.writeLong(slowFrames);
+            out.writeLong(unmarkedSlow);
+            out.writeByte(MARK_COUNT);
+            for (long count : slowByMark) out.writeLong(count);
+
+            int played = 0;
+            for (LatencyHistogram h : byLevel) if (h != null && h.count() > 0) played++;
+            out.writeByte(played);
+            for (int l = 0; l <= MAX_LEVEL; l++) {
+                LatencyHistogram h = byLevel[l];
+                if (h == null || h.count() == 0) continue;
+                out.writeByte(l);
+                int used = 0;
+                for (int b = 0; b < LatencyHistogram.BUCKET_COUNT; b++) if (h.countAt(b) != 0) used++;
+                out.writeShort(used);
+                for (int b = 0; b < LatencyHistogram.BUCKET_COUNT; b++) {
+                    if (h.countAt(b) == 0) continue;
+                    out.writeShort(b);
+                    out.writeInt((int) h.countAt(b));
+                }
+            }
+
+            int recent = (int) Math.min(slowFrames, RECENT_SLOW);
+            out.writeByte(recent);
+            for (int i = 0; i < recent; i++) {
+                int slot = (recentNext - recent + i + RECENT_SLOW) % RECENT_SLOW;
+                out.writeInt((int) recentMicros[slot]);
+                out.writeByte(recentLevels[slot]);
+                out.writeByte(recentMarks[slot]);
+            }
+        } catch (IOException e) {
+            // A byte array stream never fails.
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+}
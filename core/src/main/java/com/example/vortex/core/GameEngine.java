@@ -0,0 +1,254 @@
+package com.example.vortex.core;
+
+/**
+ * Headless game loop for one round at a time.
+ * The engine owns the round timer, the seeded target sequence, scoring and the
+ * replay recording; the host (an activity, a test or a benchmark) feeds it taps
+ * and clock ticks and renders what the {@link Listener} reports. Nothing here
+ * allocates per tap or per tick.
+ *
+ * Every judged tap's reaction time (from the moment the engine lit the
+ * target to the tap) goes into the round's {@link ReactionStats}.
+ *
+ * A round can also be driven by a {@link Replay}: the recorded taps are then
+ * delivered as time passes and the round ends on the recording's end marker.
+ * All methods must be called on one thread.
+ */
+public final class GameEngine {
+
+    /**
+     * Receives everything the host needs to show.
+     */
+    public interface Listener {
+        /** A round started on a side x side grid; called before its first target. */
+        void onRoundStart(int level, int side);
+
+        void onTarget(int cell);
+
+        /** The target was hit; {@link #levelScore()} already includes it. */
+        void onHit(int cell);
+
+        void onMiss(int cell);
+
+        void onTick(long millisRemaining);
+
+        void onRoundEnd();
+    }
+
+    private final RoundTimer.Clock clock;
+    private final Listener listener;
+    private final RoundTimer timer;
+    private final ReplayRecorder recorder = new ReplayRecorder();
+    private final ReactionStats reactions = new ReactionStats();
+    private TargetSequence targets;
+
+    private ReplayPlayer replayPlayer;
+    private int level;
+    private int side;
+    private int cellCount;
+    private int target = -1;
+    private int levelScore;
+    private int misses;
+    private long roundStartNanos;
+    private long targetShownNanos;
+    private long roundMillis;
+    private boolean roundOver = true;
+
+    private final RoundTimer.Listener timerListener = new RoundTimer.Listener() {
+        @Override
+        public void onTick(long millisRemaining) {
+            listener.onTick(millisRemaining);
+        }
+
+        @Override
+        public void onFinish() {
+            listener.onTick(0);
+            // A replay ends on its own recorded end marker instead.
+            if (replayPlayer == null) endRound();
+        }
+    };
+
+    private final ReplayPlayer.Listener replayListener = new ReplayPlayer.Listener() {
+        @Override
+        public void onReplayTap(int cell) {
+            if (!roundOver) judge(cell, clock.nanoTime());
+        }
+
+        @Override
+        public void onReplayEnd() {
+            endRound();
+        }
+    };
+
+    /**
+     * @param clock    Time base for the round timer and tap timestamps.
+     * @param noRepeat True to never light the same cell twice in a row.
+     */
+    public GameEngine(RoundTimer.Clock clock, boolean noRepeat, Listener listener) {
+        this.clock = clock;
+        this.listener = listener;
+        this.targets = new TargetSequence(noRepeat);
+        this.timer = new RoundTimer(GameRules.ROUND_MILLIS, GameRules.TICK_MILLIS, clock, timerListener);
+    }
+
+    /**
+     * Starts a recorded round on the level's own grid size.
+     */
+    public void startRound(int level, long seed) {
+        startRound(level, GameRules.gridSide(level), seed);
+    }
+
+    /**
+     * Starts a recorded round on an explicit grid size.
+     */
+    public void startRound(int level, int side, long seed) {
+        replayPlayer = null;
+        recorder.begin(seed, level, side, targets.isNoRepeat());
+        begin(level, side, seed);
+    }
+
+    /**
+     * Starts playing back a recorded round. Taps from {@link #tap} are ignored
+     * until it ends.
+     */
+    public void startReplay(Replay replay) {
+        if (targets.isNoRepeat() != replay.noRepeat) targets = new TargetSequence(replay.noRepeat);
+        replayPlayer = new ReplayPlayer(replay);
+        begin(replay.level, replay.side, replay.seed);
+    }
+
+    private void begin(int level, int side, long seed) {
+        this.level = level;
+        this.side = side;
+        this.cellCount = side * side;
+        levelScore = 0;
+        misses = 0;
+        roundMillis = 0;
+        reactions.reset();
+        roundOver = false;
+        targets.reset(seed);
+        listener.onRoundStart(level, side);
+        nextTarget();
+        roundStartNanos = clock.nanoTime();
+        timer.start();
+    }
+
+    /**
+     * Scores a tap from the player.
+     *
+     * @param eventTimeNanos When the tap happened, in the clock's time base.
+     * @return True if the tap hit the target.
+     */
+    public boolean tap(int cell, long eventTimeNanos) {
+        if (roundOver || replayPlayer != null) return false;
+        recorder.recordTap((eventTimeNanos - roundStartNanos) / 1000L, cell);
+        return judge(cell, eventTimeNanos);
+    }
+
+    /**
+     * Moves the round forward; call on every frame.
+     *
+     * @param nowNanos The current time in the clock's time base.
+     * @return True while the round needs further calls.
+     */
+    public boolean advance(long nowNanos) {
+        if (roundOver) return false;
+        timer.advance(nowNanos);
+        if (replayPlayer != null && !roundOver) {
+            replayPlayer.advance((nowNanos - roundStartNanos) / 1000L, replayListener);
+        }
+        return !roundOver;
+    }
+
+    /**
+     * Ends the round early, for example when the host goes away.
+     * The listener is not told.
+     */
+    public void cancel() {
+        timer.cancel();
+        roundOver = true;
+    }
+
+    private boolean judge(int cell, long tapNanos) {
+        boolean hit = cell == target;
+        reactions.record((tapNanos - targetShownNanos) / 1000L, hit);
+        if (!hit) {
+            misses++;
+            listener.onMiss(cell);
+            return false;
+        }
+        levelScore++;
+        listener.onHit(cell);
+        nextTarget();
+        return true;
+    }
+
+    private void nextTarget() {
+        target = targets.next(cellCount);
+        targetShownNanos = clock.nanoTime();
+        listener.onTarget(target);
+    }
+
+    private void endRound() {
+        if (roundOver) return;
+        roundOver = true;
+        timer.cancel();
+        long elapsedMicros = (clock.nanoTime() - roundStartNanos) / 1000L;
+        roundMillis = elapsedMicros / 1000L;
+        if (recorder.isRecording()) recorder.end(elapsedMicros);
+        listener.onRoundEnd();
+    }
+
+    public int level() {
+        return level;
+    }
+
+    public int side() {
+        return side;
+    }
+
+    public int cellCount() {
+        return cellCount;
+    }
+
+    public int target() {
+        return target;
+    }
+
+    public int levelScore() {
+        return levelScore;
+    }
+
+    public int misses() {
+        return misses;
+    }
+
+    /**
+     * @return How long the last round lasted, once it has ended.
+     */
+    public long roundMillis() {
+        return roundMillis;
+    }
+
+    /**
+     * @return The reaction times of the current or last round.
+     */
+    public ReactionStats reactions() {
+        return reactions;
+    }
+
+    public boolean isRoundOver() {
+        return roundOver;
+    }
+
+    public boolean isReplaying() {
+        return replayPlayer != null;
+    }
+
+    /**
+     * @return The recording of the last live round; complete once it has ended.
+     */
+    public ReplayRecorder recorder() {
+        return recorder;
+    }
+}
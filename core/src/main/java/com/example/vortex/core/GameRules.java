@@ -0,0 +1,57 @@
+package com.example.vortex.core;
+
+/**
+ * The rules of the game that do not depend on how it is shown.
+ * Grid size per level, round timing, level unlocking and leaderboard
+ * qualification live here so the app, the engine and the tests agree on them.
+ */
+public final class GameRules {
+
+    public static final int MAX_LEVEL = 4;
+
+    public static final long ROUND_MILLIS = 5000;
+    public static final long TICK_MILLIS = 100;
+
+    // Below this the time display switches to its warning color.
+    public static final long WARNING_MILLIS = 2000;
+
+    // Size of each leaderboard.
+    public static final int TOP_N = 25;
+
+    private GameRules() {
+    }
+
+    /**
+     * Level 1 = 2x2, Level 2 = 3x3, etc.
+     *
+     * @return The number of cells per row/column for a level.
+     */
+    public static int gridSide(int level) {
+        return level + 1;
+    }
+
+    /**
+     * @return True if finishing this level leads to another one.
+     */
+    public static boolean hasNextLevel(int level) {
+        return level < MAX_LEVEL;
+    }
+
+    /**
+     * @param finishedLevel The level just completed.
+     * @param unlocked      The highest level unlocked so far.
+     * @return The highest level unlocked after finishing the level.
+     */
+    public static int unlockedAfter(int finishedLevel, int unlocked) {
+        if (!hasNextLevel(finishedLevel)) return unlocked;
+        return Math.max(unlocked, finishedLevel + 1);
+    }
+
+    /**
+     * Entry rule for a full leaderboard: the score must be strictly greater
+     * than the lowest (Top N-th) score. Ties do not displace older entries.
+     */
+    public static boolean beatsLowest(int score, long lowestTopScore) {
+        return score > lowestTopScore;
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.vortex.core;
+
+/**
+ * Layout of a square grid of round cells inside a square area.
+ * Cells sit on a uniform pitch with a gutter between them; on dense grids the
+ * gutter shrinks so cells never collapse to nothing. Hit testing is plain
+ * arithmetic, so its cost does not depend on the grid size.
+ */
+public final class GridGeometry {
+
+    private int side;
+    private float pitch;
+    private float cellSize;
+
+    /**
+     * Recomputes the layout.
+     *
+     * @param side      The number of cells per row/column; 0 for an empty grid.
+     * @param width     The width (and height) of the area in pixels.
+     * @param maxMargin The gutter on each side of a cell when there is room for it.
+     */
+    public void update(int side, int width, float maxMargin) {
+        this.side = side;
+        if (side <= 0 || width <= 0) {
+            pitch = 0;
+            cellSize = 0;
+            return;
+        }
+        pitch = (float) width / side;
+        cellSize = pitch - 2 * Math.min(maxMargin, pitch / 8f);
+    }
+
+    public int side() {
+        return side;
+    }
+
+    public float pitch() {
+        return pitch;
+    }
+
+    /**
+     * @return The diameter of a cell, excluding the gutter.
+     */
+    public float cellSize() {
+        return cellSize;
+    }
+
+    public float centerX(int cell) {
+        return (cell % side) * pitch + pitch / 2f;
+    }
+
+    public float centerY(int cell) {
+        return (cell / side) * pitch + pitch / 2f;
+    }
+
+    /**
+     * Maps a point to a cell index.
+     *
+     * @return The cell index, or -1 if the point falls outside the grid.
+     */
+    public int cellAt(float x, float y) {
+        if (side == 0 || pitch <= 0) return -1;
+        if (x < 0 || y < 0) return -1;
+        int col = (int) (x / pitch);
+        int row = (int) (y / pitch);
+        if (col >= side || row >= side) return -1;
+        return row * side + col;
+    }
+}
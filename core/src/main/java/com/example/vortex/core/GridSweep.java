@@ -0,0 +1,143 @@
+package com.example.vortex.core;
+
+import java.util.Locale;
+
+/**
+ * Plan and results of an on-device stress run over growing grid sizes.
+ * The host plays one timed round per size, driving it with synthetic taps,
+ * and reports here how long the grid took to build, how long each tap took
+ * to handle and which frame times the round produced; {@link #formatReport()}
+ * turns that into one table row per size, so devices can be compared.
+ * Nothing is allocated while a size is running. Not thread-safe.
+ */
+public final class GridSweep {
+
+    /** Grid sides from the game's smallest grid far beyond its largest one. */
+    public static final int[] DEFAULT_SIDES = {2, 3, 4, 5, 6, 8, 12, 16, 24, 32, 48, 64};
+
+    private static final long NANOS_PER_MICRO = 1000L;
+
+    private final int[] sides;
+    private final int tapsPerSecond;
+    private int index = -1;
+
+    private final long[] buildMicros;
+    private final long[] taps;
+    private final long[] hits;
+    private final long[] tapNanos;
+    private final long[] maxTapNanos;
+    private final long[] roundMillis;
+    private final LatencyHistogram[] frames;
+
+    /**
+     * @param sides         The grid sides to run, in order.
+     * @param tapsPerSecond The synthetic tap rate the host aims for.
+     */
+    public GridSweep(int[] sides, int tapsPerSecond) {
+        if (sides.length == 0) throw new IllegalArgumentException("no grid sizes");
+        if (tapsPerSecond <= 0) throw new IllegalArgumentException("tapsPerSecond must be positive");
+        this.sides = sides.clone();
+        this.tapsPerSecond = tapsPerSecond;
+        int n = sides.length;
+        buildMicros = new long[n];
+        taps = new long[n];
+        hits = new long[n];
+        tapNanos = new long[n];
+        maxTapNanos = new long[n];
+        roundMillis = new long[n];
+        frames = new LatencyHistogram[n];
+        for (int i = 0; i < n; i++) frames[i] = new LatencyHistogram();
+    }
+
+    public int tapsPerSecond() {
+        return tapsPerSecond;
+    }
+
+    /**
+     * @return Milliseconds between two synthetic taps.
+     */
+    public long tapIntervalMillis() {
+        return Math.max(1, 1000 / tapsPerSecond);
+    }
+
+    public boolean hasNext() {
+        return index + 1 < sides.length;
+    }
+
+    /**
+     * Moves on to the next size.
+     *
+     * @return Its grid side.
+     */
+    public int next() {
+        if (!hasNext()) throw new IllegalStateException("sweep finished");
+        return sides[++index];
+    }
+
+    /**
+     * @return The side of the size running now, or -1 before the first.
+     */
+    public int side() {
+        return index >= 0 ? sides[index] : -1;
+    }
+
+    public void recordBuild(long nanos) {
+        buildMicros[index] += nanos / NANOS_PER_MICRO;
+    }
+
+    /**
+     * Records one synthetic tap.
+     *
+     * @param nanos How long handing it to the game took.
+     */
+    public void recordTap(boolean hit, long nanos) {
+        taps[index]++;
+        if (hit) hits[index]++;
+        tapNanos[index] += nanos;
+        if (nanos > maxTapNanos[index]) maxTapNanos[index] = nanos;
+    }
+
+    /**
+     * @return Where the host adds the frame times of the size running now, in microseconds.
+     */
+    public LatencyHistogram frames() {
+        return frames[index];
+    }
+
+    /**
+     * Closes the size running now.
+     *
+     * @param millis How long its round lasted.
+     */
+    public void finishSize(long millis) {
+        roundMillis[index] = millis;
+    }
+
+    /**
+     * @return Taps handled per second during a finished size's round.
+     */
+    public double tapThroughput(int i) {
+        return roundMillis[i] > 0 ? taps[i] * 1000.0 / roundMillis[i] : 0;
+    }
+
+    /**
+     * Formats one row per finished size: grid build time, frame count and
+     * frame time percentiles (microseconds), taps, hits, achieved taps per
+     * second against the target rate, and mean and maximum tap handling time.
+     */
+    public String formatReport() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.US, "# grid sweep, %d taps/s\n", tapsPerSecond));
+        sb.append("grid\tcells\tbuild us\tframes\tp50\tp95\tp99\tmax\ttaps\thits\ttaps/s\ttap us\ttap max\n");
+        for (int i = 0; i <= index; i++) {
+            if (roundMillis[i] == 0) continue;
+            LatencyHistogram f = frames[i];
+            long meanTap = taps[i] > 0 ? tapNanos[i] / taps[i] / NANOS_PER_MICRO : 0;
+            sb.append(String.format(Locale.US, "%dx%d\t%d\t%d\t%d\t%d\t%d\t%d\t%d\t%d\t%d\t%.1f\t%d\t%d\n",
+                    sides[i], sides[i], sides[i] * sides[i], buildMicros[i], f.count(),
+                    f.percentile(50), f.percentile(95), f.percentile(99), f.max(),
+                    taps[i], hits[i], tapThroughput(i), meanTap, maxTapNanos[i] / NANOS_PER_MICRO));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.vortex.core;
+
+/**
+ * A HUD label rendered into a reusable char buffer.
+ * The label is a fixed prefix followed by a number, e.g. "PTS: 12" or "T: 4.9".
+ * Digits are written in place, so updating the label never allocates; pass
+ * {@link #buffer()} and {@link #length()} to {@code TextView.setText(char[], int, int)}.
+ * Since the TextView keeps a reference to the buffer, each label needs its own instance.
+ */
+public final class HudText {
+
+    // Long.MIN_VALUE has 19 digits plus a sign.
+    private static final int MAX_DIGITS = 20;
+
+    private final char[] buffer;
+    private final int prefixLength;
+    private int length;
+
+    private boolean hasValue = false;
+    private long lastValue;
+    private boolean lastTenths;
+
+    public HudText(String prefix) {
+        prefixLength = prefix.length();
+        // Room for the digits, a decimal point and a leading zero.
+        buffer = new char[prefixLength + MAX_DIGITS + 2];
+        prefix.getChars(0, prefixLength, buffer, 0);
+        length = prefixLength;
+    }
+
+    public char[] buffer() {
+        return buffer;
+    }
+
+    public int length() {
+        return length;
+    }
+
+    /**
+     * Renders an integer value after the prefix.
+     *
+     * @return True if the text changed and should be pushed to the view.
+     */
+    public boolean setInt(long value) {
+        if (hasValue && !lastTenths && value == lastValue) return false;
+        remember(value, false);
+        length = writeDigits(value, 0);
+        return true;
+    }
+
+    /**
+     * Renders a value given in tenths with one decimal place, e.g. 49 as "4.9".
+     *
+     * @return True if the text changed and should be pushed to the view.
+     */
+    public boolean setTenths(long tenths) {
+        if (hasValue && lastTenths && tenths == lastValue) return false;
+        remember(tenths, true);
+        length = writeDigits(tenths, 1);
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return new String(buffer, 0, length);
+    }
+
+    private void remember(long value, boolean tenths) {
+        hasValue = true;
+        lastValue = value;
+        lastTenths = tenths;
+    }
+
+    /**
+     * Writes the value after the prefix with {@code decimals} digits after a point.
+     *
+     * @return The new total length of the text.
+     */
+    private int writeDigits(long value, int decimals) {
+        boolean negative = value < 0;
+        // Work on the negative magnitude so Long.MIN_VALUE does not overflow.
+        long rest = negative ? value : -value;
+
+        int digits = 0;
+        for (long probe = rest; probe != 0; probe /= 10) digits++;
+        // Always show at least one digit before the point.
+        digits = Math.max(digits, decimals + 1);
+
+        int pos = prefixLength;
+        if (negative) buffer[pos++] = '-';
+        int end = pos + digits + (decimals > 0 ? 1 : 0);
+
+        int write = end;
+        for (int i = 0; i < digits; i++) {
+            if (decimals > 0 && i == decimals) buffer[--write] = '.';
+            buffer[--write] = (char) ('0' - (rest % 10));
+            rest /= 10;
+        }
+        return end;
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.vortex.core;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-size log-linear histogram of durations in microseconds.
+ * Each power of two is split into 16 linear sub-buckets, which keeps the
+ * relative error of any reported percentile under about 6%. Values up to
+ * roughly 16 seconds are bucketed; anything larger lands in the last bucket
+ * while the exact maximum is still tracked.
+ * Recording is allocation-free and O(1). Not thread-safe.
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BITS = 4;
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+    private static final int MAX_SHIFT = 20;
+    public static final int BUCKET_COUNT = (MAX_SHIFT + 2) * SUB_COUNT;
+
+    private final long[] counts = new long[BUCKET_COUNT];
+    private long totalCount;
+    private long sum;
+    private long min = Long.MAX_VALUE;
+    private long max;
+
+    /**
+     * Records one duration. Negative values are treated as zero.
+     */
+    public void record(long micros) {
+        long value = Math.max(0L, micros);
+        counts[bucketOf(value)]++;
+        totalCount++;
+        sum += value;
+        if (value < min) min = value;
+        if (value > max) max = value;
+    }
+
+    public long count() {
+        return totalCount;
+    }
+
+    /**
+     * @return The number of values recorded in one bucket, see {@link #bucketOf}.
+     */
+    public long countAt(int bucket) {
+        return counts[bucket];
+    }
+
+    public long max() {
+        return max;
+    }
+
+    public long min() {
+        return totalCount == 0 ? 0 : min;
+    }
+
+    public long mean() {
+        return totalCount == 0 ? 0 : sum / totalCount;
+    }
+
+    /**
+     * Returns the value at the given percentile, as the upper bound of the
+     * bucket holding that rank, capped at the recorded maximum.
+     *
+     * @param percentile A value in [0, 100].
+     */
+    public long percentile(double percentile) {
+        if (totalCount == 0) return 0;
+        long rank = (long) Math.ceil(percentile / 100.0 * totalCount);
+        rank = Math.max(1, Math.min(totalCount, rank));
+
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts[i];
+            if (seen >= rank) return Math.min(upperBoundOf(i), max);
+        }
+        return max;
+    }
+
+    /**
+     * Adds every sample of another histogram to this one.
+     */
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < BUCKET_COUNT; i++) counts[i] += other.counts[i];
+        totalCount += other.totalCount;
+        sum += other.sum;
+        if (other.totalCount > 0) {
+            min = Math.min(min, other.min);
+            max = Math.max(max, other.max);
+        }
+    }
+
+    public void reset() {
+        Arrays.fill(counts, 0L);
+        totalCount = 0;
+        sum = 0;
+        min = Long.MAX_VALUE;
+        max = 0;
+    }
+
+    public static int bucketOf(long value) {
+        if (value < 2 * SUB_COUNT) return (int) value;
+        int msb = 63 - Long.numberOfLeadingZeros(value);
+        int shift = msb - SUB_BITS;
+        if (shift > MAX_SHIFT) return BUCKET_COUNT - 1;
+        return (shift << SUB_BITS) + (int) (value >>> shift);
+    }
+
+    public static long upperBoundOf(int bucket) {
+        if (bucket < 2 * SUB_COUNT) return bucket;
+        int shift = (bucket >>> SUB_BITS) - 1;
+        long top = bucket - ((long) shift << SUB_BITS);
+        return ((top + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,209 @@
+package com.example.vortex.core;
+
+import java.util.Arrays;
+
+/**
+ * In-memory copy of the Top 25 for each level (1..4) and for all levels combined.
+ * Each board is a bounded min-heap over parallel primitive arrays, so the weakest
+ * entry is always at the root: checking whether a score qualifies is O(1) and
+ * inserting is O(log n), with no boxing and no per-entry objects. Names are kept
+ * as the raw strings from the database; display formatting happens at render time.
+ *
+ * The cache is filled once per process from the database and then kept in sync
+ * write-through by the app's leaderboard store. All methods are thread-safe.
+ */
+public final class LeaderboardCache {
+
+    public static final int GLOBAL = -1;
+    public static final int LEVEL_COUNT = GameRules.MAX_LEVEL;
+    public static final int CAPACITY = GameRules.TOP_N;
+
+    // Index 0 holds the global board, 1..LEVEL_COUNT the per-level boards.
+    private final Board[] boards = new Board[LEVEL_COUNT + 1];
+    private volatile boolean loaded = false;
+
+    public LeaderboardCache() {
+        for (int i = 0; i < boards.length; i++) boards[i] = new Board(CAPACITY);
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    public void markLoaded() {
+        loaded = true;
+    }
+
+    /**
+     * @return True if the given level (or {@link #GLOBAL}) has a board here.
+     */
+    public static boolean covers(int level) {
+        return level == GLOBAL || (level >= 1 && level <= LEVEL_COUNT);
+    }
+
+    /**
+     * Records a stored score on its level board and on the global board.
+     * Scores for levels outside 1..4 only reach the global board.
+     */
+    public synchronized void offer(long id, String name, int score, int level) {
+        boards[0].offer(id, name, score, level);
+        if (level >= 1 && level <= LEVEL_COUNT) boards[level].offer(id, name, score, level);
+    }
+
+    /**
+     * Fills a single board while loading from the database, where each board's
+     * Top 25 is read separately and must not be double-counted.
+     *
+     * @param board A level from 1..4, or {@link #GLOBAL}.
+     */
+    public synchronized void load(int board, long id, String name, int score, int level) {
+        boards[indexOf(board)].offer(id, name, score, level);
+    }
+
+    /**
+     * Empties every board, so the cache can be loaded again.
+     */
+    public synchronized void clear() {
+        for (Board board : boards) {
+            Arrays.fill(board.names, null);
+            board.size = 0;
+        }
+    }
+
+    /**
+     * Same rule as the database check: any score qualifies while the board has
+     * room, otherwise it must beat the weakest entry ({@link GameRules#beatsLowest}).
+     */
+    public synchronized boolean qualifies(int score, int level) {
+        return boards[indexOf(level)].qualifies(score);
+    }
+
+    /**
+     * @return The number of entries on a board.
+     */
+    public synchronized int size(int level) {
+        return boards[indexOf(level)].size;
+    }
+
+    /**
+     * Copies a board into the caller's arrays, best score first. Equal scores
+     * keep insertion order (the older entry ranks higher).
+     *
+     * @param level  A level from 1..4, or {@link #GLOBAL}.
+     * @param ids    Receives row ids; must hold {@link #CAPACITY} entries, as must the others.
+     * @return The number of entries copied.
+     */
+    public synchronized int snapshot(int level, long[] ids, String[] names, int[] scores, int[] levels) {
+        Board board = boards[indexOf(level)];
+        int n = board.size;
+        System.arraycopy(board.ids, 0, ids, 0, n);
+        System.arraycopy(board.names, 0, names, 0, n);
+        System.arraycopy(board.scores, 0, scores, 0, n);
+        System.arraycopy(board.levels, 0, levels, 0, n);
+
+        // Insertion sort; boards are tiny and this keeps the copy allocation-free.
+        for (int i = 1; i < n; i++) {
+            long id = ids[i];
+            String name = names[i];
+            int score = scores[i];
+            int lvl = levels[i];
+            int j = i - 1;
+            while (j >= 0 && ranksBelow(scores[j], ids[j], score, id)) {
+                ids[j + 1] = ids[j];
+                names[j + 1] = names[j];
+                scores[j + 1] = scores[j];
+                levels[j + 1] = levels[j];
+                j--;
+            }
+            ids[j + 1] = id;
+            names[j + 1] = name;
+            scores[j + 1] = score;
+            levels[j + 1] = lvl;
+        }
+        return n;
+    }
+
+    private static int indexOf(int level) {
+        if (!covers(level)) throw new IllegalArgumentException("No board for level " + level);
+        return level == GLOBAL ? 0 : level;
+    }
+
+    /**
+     * @return True if entry a ranks below entry b.
+     */
+    private static boolean ranksBelow(int scoreA, long idA, int scoreB, long idB) {
+        return scoreA < scoreB || (scoreA == scoreB && idA > idB);
+    }
+
+    /**
+     * A bounded min-heap of scores; the root is the weakest entry.
+     */
+    private static final class Board {
+        final long[] ids;
+        final String[] names;
+        final int[] scores;
+        final int[] levels;
+        int size = 0;
+
+        Board(int capacity) {
+            ids = new long[capacity];
+            names = new String[capacity];
+            scores = new int[capacity];
+            levels = new int[capacity];
+        }
+
+        boolean qualifies(int score) {
+            return size < scores.length || GameRules.beatsLowest(score, scores[0]);
+        }
+
+        void offer(long id, String name, int score, int level) {
+            if (size < scores.length) {
+                set(size, id, name, score, level);
+                siftUp(size++);
+            } else if (ranksBelow(scores[0], ids[0], score, id)) {
+                set(0, id, name, score, level);
+                siftDown(0);
+            }
+        }
+
+        private void siftUp(int i) {
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (!ranksBelow(scores[i], ids[i], scores[parent], ids[parent])) break;
+                swap(i, parent);
+                i = parent;
+            }
+        }
+
+        private void siftDown(int i) {
+            while (true) {
+                int left = 2 * i + 1;
+                if (left >= size) break;
+                int weakest = left;
+                int right = left + 1;
+                if (right < size && ranksBelow(scores[right], ids[right], scores[left], ids[left])) {
+                    weakest = right;
+                }
+                if (!ranksBelow(scores[weakest], ids[weakest], scores[i], ids[i])) break;
+                swap(i, weakest);
+                i = weakest;
+            }
+        }
+
+        private void set(int i, long id, String name, int score, int level) {
+            ids[i] = id;
+            names[i] = name;
+            scores[i] = score;
+            levels[i] = level;
+        }
+
+        private void swap(int a, int b) {
+            long id = ids[a];
+            String name = names[a];
+            int score = scores[a];
+            int level = levels[a];
+            set(a, ids[b], names[b], scores[b], levels[b]);
+            set(b, id, name, score, level);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.vortex.core;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * One sync pass between the local leaderboard and the server: first every
+ * row not yet uploaded goes up in batches, then everything other devices
+ * uploaded since the last pull comes down in pages. Both directions resume
+ * from a watermark kept by the {@link Store}, so each pass only moves the
+ * delta and an interrupted pass loses nothing but the batch in flight.
+ * Blocking; run it off the main thread.
+ */
+public final class LeaderboardSync {
+
+    public static final int BATCH_SIZE = 100;
+    public static final int PAGE_SIZE = 200;
+
+    /**
+     * Local side of the sync. Called on the syncing thread.
+     */
+    public interface Store {
+        /**
+         * @return Up to {@code limit} rows recorded on this device with an id
+         * above {@code afterId}, in id order.
+         */
+        List<SyncRecord> pendingUploads(long afterId, int limit);
+
+        /** The highest local id the server has acknowledged. */
+        long uploadWatermark();
+
+        void markUploaded(long upToId);
+
+        /** The server watermark the last pull ended at. */
+        long pullWatermark();
+
+        /**
+         * Stores rows from other devices and moves the pull watermark, ideally
+         * in one transaction.
+         */
+        void applyRemote(List<SyncRecord> rows, long newWatermark);
+    }
+
+    /**
+     * What a pass moved.
+     */
+    public static final class Result {
+        public final int uploaded;
+        public final int pulled;
+        public final long bytesSent;
+        public final long bytesReceived;
+
+        Result(int uploaded, int pulled, long bytesSent, long bytesReceived) {
+            this.uploaded = uploaded;
+            this.pulled = pulled;
+            this.bytesSent = bytesSent;
+            this.bytesReceived = bytesReceived;
+        }
+    }
+
+    private final SyncClient client;
+    private final Store store;
+
+    public LeaderboardSync(SyncClient client, Store store) {
+        this.client = client;
+        this.store = store;
+    }
+
+    /**
+     * Runs one full pass.
+     *
+     * @throws IOException When the server cannot be reached or rejects a
+     *                     request; work acknowledged before that is kept.
+     */
+    public Result runOnce() throws IOException {
+        long sentBefore = client.bytesSent();
+        long receivedBefore = client.bytesReceived();
+
+        int uploaded = 0;
+        while (true) {
+            List<SyncRecord> batch = store.pendingUploads(store.uploadWatermark(), BATCH_SIZE);
+            if (batch.isEmpty()) break;
+            long acked = client.upload(batch);
+            long last = batch.get(batch.size() - 1).id;
+            if (acked < last) throw new IOException("Server acknowledged " + acked + " of " + last);
+            store.markUploaded(last);
+            uploaded += batch.size();
+            if (batch.size() < BATCH_SIZE) break;
+        }
+
+        int pulled = 0;
+        while (true) {
+            long since = store.pullWatermark();
+            SyncClient.PullResult page = client.pull(since, PAGE_SIZE);
+            if (page.watermark <= since) break;
+            store.applyRemote(page.rows, page.watermark);
+            pulled += page.rows.size();
+            if (page.pageSize < PAGE_SIZE) break;
+        }
+
+        return new Result(uploaded, pulled,
+                client.bytesSent() - sentBefore, client.bytesReceived() - receivedBefore);
+    }
+}
@@ -0,0 +1,196 @@
+package com.example.vortex.core;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Reaction times of one round: how long after a target was lit each tap
+ * came, and whether it hit.
+ * The latest taps are kept in a preallocated ring of primitive longs (the
+ * time in microseconds, shifted left, with the hit flag in the low bit).
+ * Over the hits, a running mean and variance (Welford's method) and a
+ * {@link LatencyHistogram} sketch for quantiles are updated as each tap is
+ * recorded; misses are only counted, since a wrong cell says little about
+ * reaction speed. Recording allocates nothing. Not thread-safe.
+ */
+public final class ReactionStats {
+
+    /** Taps kept in the ring; enough for any 5-second round. */
+    public static final int DEFAULT_CAPACITY = 256;
+
+    private static final int VERSION = 1;
+
+    private final long[] ring;
+    private int next = 0;
+    private int size = 0;
+
+    private long hits;
+    private long misses;
+    private double mean;
+    private double m2;
+    private final LatencyHistogram sketch = new LatencyHistogram();
+
+    public ReactionStats() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public ReactionStats(int capacity) {
+        if (capacity <= 0) throw new IllegalArgumentException("capacity must be positive");
+        ring = new long[capacity];
+    }
+
+    /**
+     * @param reactionMicros Time from the target being lit to the tap; negative values count as 0.
+     */
+    public void record(long reactionMicros, boolean hit) {
+        long micros = Math.max(0, reactionMicros);
+        ring[next] = micros << 1 | (hit ? 1 : 0);
+        next = (next + 1) % ring.length;
+        if (size < ring.length) size++;
+
+        if (!hit) {
+            misses++;
+            return;
+        }
+        hits++;
+        double delta = micros - mean;
+        mean += delta / hits;
+        m2 += delta * (micros - mean);
+        sketch.record(micros);
+    }
+
+    public void reset() {
+        next = 0;
+        size = 0;
+        hits = 0;
+        misses = 0;
+        mean = 0;
+        m2 = 0;
+        sketch.reset();
+    }
+
+    /**
+     * @return How many taps the ring holds, at most its capacity.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param i 0 for the oldest tap still in the ring.
+     */
+    public long reactionMicrosAt(int i) {
+        return ring[slot(i)] >>> 1;
+    }
+
+    public boolean hitAt(int i) {
+        return (ring[slot(i)] & 1) != 0;
+    }
+
+    private int slot(int i) {
+        if (i < 0 || i >= size) throw new IndexOutOfBoundsException("tap " + i + " of " + size);
+        return (next - size + i + ring.length) % ring.length;
+    }
+
+    public long hits() {
+        return hits;
+    }
+
+    public long misses() {
+        return misses;
+    }
+
+    /**
+     * @return The mean reaction time of the hits, in microseconds.
+     */
+    public double mean() {
+        return mean;
+    }
+
+    /**
+     * @return The sample variance of the hits' reaction times, or 0 below two hits.
+     */
+    public double variance() {
+        return hits > 1 ? m2 / (hits - 1) : 0;
+    }
+
+    public double stdDev() {
+        return Math.sqrt(variance());
+    }
+
+    /**
+     * @return An upper bound of the given percentile of the hits, in microseconds.
+     */
+    public long percentile(double percentile) {
+        return sketch.percentile(percentile);
+    }
+
+    /**
+     * The figures a results screen needs, small enough to travel as one
+     * byte array extra.
+     */
+    public static final class Summary {
+        public final long hits;
+        public final long misses;
+        public final long meanMicros;
+        public final long stdDevMicros;
+        public final long medianMicros;
+        public final long p90Micros;
+        public final long bestMicros;
+
+        Summary(long hits, long misses, long meanMicros, long stdDevMicros, long medianMicros,
+                long p90Micros, long bestMicros) {
+            this.hits = hits;
+            this.misses = misses;
+            this.meanMicros = meanMicros;
+            this.stdDevMicros = stdDevMicros;
+            this.medianMicros = medianMicros;
+            this.p90Micros = p90Micros;
+            this.bestMicros = bestMicros;
+        }
+    }
+
+    /**
+     * Writes the summary: a version byte, then hit and miss counts and the
+     * mean, standard deviation, median, p90 and fastest reaction as ints
+     * (microseconds). 29 bytes.
+     */
+    public byte[] encode() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(32);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(VERSION);
+            out.writeInt(clamp(hits));
+            out.writeInt(clamp(misses));
+            out.writeInt(clamp(Math.round(mean)));
+            out.writeInt(clamp(Math.round(stdDev())));
+            out.writeInt(clamp(percentile(50)));
+            out.writeInt(clamp(percentile(90)));
+            out.writeInt(clamp(sketch.min()));
+        } catch (IOException e) {
+            // A byte array stream never fails.
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Reads a summary written by {@link #encode()}.
+     *
+     * @throws IOException If the data is truncated or from another version.
+     */
+    public static Summary decode(byte[] data) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            int version = in.readUnsignedByte();
+            if (version != VERSION) throw new IOException("Unsupported reaction stats version " + version);
+            return new Summary(in.readInt(), in.readInt(), in.readInt(), in.readInt(), in.readInt(),
+                    in.readInt(), in.readInt());
+        }
+    }
+
+    private static int clamp(long value) {
+        return (int) Math.min(Integer.MAX_VALUE, value);
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.vortex.core;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * A decoded round recording, see {@link ReplayRecorder} for the format.
+ * Tap times are absolute offsets from the start of the round in microseconds.
+ */
+public final class Replay {
+
+    public final long seed;
+    public final int level;
+    public final int side;
+    public final boolean noRepeat;
+    public final long[] tapMicros;
+    public final int[] tapCells;
+    public final int tapCount;
+    public final long durationMicros;
+
+    private Replay(long seed, int level, int side, boolean noRepeat,
+                   long[] tapMicros, int[] tapCells, int tapCount, long durationMicros) {
+        this.seed = seed;
+        this.level = level;
+        this.side = side;
+        this.noRepeat = noRepeat;
+        this.tapMicros = tapMicros;
+        this.tapCells = tapCells;
+        this.tapCount = tapCount;
+        this.durationMicros = durationMicros;
+    }
+
+    /**
+     * Parses a recording.
+     *
+     * @throws IOException If the data is not a complete replay of a known version.
+     */
+    public static Replay decode(byte[] data, int length) throws IOException {
+        Reader in = new Reader(data, length);
+        if (in.readInt() != ReplayRecorder.MAGIC) throw new IOException("Not a replay");
+        int version = in.readByte();
+        if (version != ReplayRecorder.VERSION) throw new IOException("Unsupported replay version " + version);
+
+        long seed = in.readLong();
+        int level = (int) in.readVarint();
+        int side = (int) in.readVarint();
+        boolean noRepeat = (in.readByte() & ReplayRecorder.FLAG_NO_REPEAT) != 0;
+
+        long[] times = new long[64];
+        int[] cells = new int[64];
+        int count = 0;
+        long now = 0;
+        while (true) {
+            now += in.readVarint();
+            long cell = in.readVarint();
+            if (cell == 0) break;
+            if (count == times.length) {
+                times = Arrays.copyOf(times, count * 2);
+                cells = Arrays.copyOf(cells, count * 2);
+            }
+            times[count] = now;
+            cells[count] = (int) (cell - 1);
+            count++;
+        }
+        return new Replay(seed, level, side, noRepeat, times, cells, count, now);
+    }
+
+    private static final class Reader {
+        private final byte[] data;
+        private final int length;
+        private int pos = 0;
+
+        Reader(byte[] data, int length) {
+            this.data = data;
+            this.length = length;
+        }
+
+        int readByte() throws IOException {
+            if (pos >= length) throw new IOException("Truncated replay");
+            return data[pos++] & 0xFF;
+        }
+
+        int readInt() throws IOException {
+            int value = 0;
+            for (int i = 0; i < 4; i++) value = (value << 8) | readByte();
+            return value;
+        }
+
+        long readLong() throws IOException {
+            long value = 0;
+            for (int i = 0; i < 8; i++) value = (value << 8) | readByte();
+            return value;
+        }
+
+        long readVarint() throws IOException {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = readByte();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) return value;
+            }
+            throw new IOException("Malformed varint");
+        }
+    }
+}
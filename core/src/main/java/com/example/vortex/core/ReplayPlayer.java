@@ -0,0 +1,60 @@
+package com.example.vortex.core;
+
+/**
+ * Feeds the taps of a {@link Replay} back into the game.
+ * The owner advances the player with the elapsed round time (typically on
+ * every frame); every tap whose recorded time has passed is delivered in order.
+ * Because targets come from a {@link TargetSequence} seeded with the recorded
+ * seed, delivering the same taps reproduces the same hits and misses at any
+ * playback speed.
+ */
+public final class ReplayPlayer {
+
+    /**
+     * Receives replayed input.
+     */
+    public interface Listener {
+        void onReplayTap(int cell);
+
+        void onReplayEnd();
+    }
+
+    private final Replay replay;
+    private int next = 0;
+    private boolean ended = false;
+
+    public ReplayPlayer(Replay replay) {
+        this.replay = replay;
+    }
+
+    public Replay replay() {
+        return replay;
+    }
+
+    public boolean isFinished() {
+        return ended;
+    }
+
+    /**
+     * Delivers every event due by the given round time.
+     *
+     * @param elapsedMicros Round time since start, already scaled for playback speed.
+     */
+    public void advance(long elapsedMicros, Listener listener) {
+        if (ended) return;
+        while (next < replay.tapCount && replay.tapMicros[next] <= elapsedMicros) {
+            listener.onReplayTap(replay.tapCells[next++]);
+        }
+        if (next == replay.tapCount && elapsedMicros >= replay.durationMicros) {
+            ended = true;
+            listener.onReplayEnd();
+        }
+    }
+
+    /**
+     * Delivers the whole replay at once, for regression checks off-device.
+     */
+    public static void playAll(Replay replay, Listener listener) {
+        new ReplayPlayer(replay).advance(Long.MAX_VALUE, listener);
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.vortex.core;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Records a round compactly enough to keep on every device.
+ * The format is a small header (magic, version, seed, level, grid size, flags)
+ * followed by one entry per tap: the time since the previous tap in
+ * microseconds and the tapped cell, both as unsigned LEB128 varints. A typical
+ * tap takes 3-4 bytes. The round ends with an entry whose cell field is zero.
+ * Recording writes into a buffer that is reused across rounds; it only grows
+ * if a round has more taps than it has room for.
+ */
+public final class ReplayRecorder {
+
+    public static final int MAGIC = 0x5652504C; // "VRPL"
+    public static final int VERSION = 1;
+    public static final int FLAG_NO_REPEAT = 1;
+
+    private static final int INITIAL_CAPACITY = 4096;
+
+    private byte[] buffer = new byte[INITIAL_CAPACITY];
+    private int length = 0;
+    private long lastMicros = 0;
+    private boolean recording = false;
+
+    /**
+     * Starts a new recording, discarding the previous one.
+     */
+    public void begin(long seed, int level, int side, boolean noRepeat) {
+        length = 0;
+        lastMicros = 0;
+        writeInt(MAGIC);
+        writeByte(VERSION);
+        writeLong(seed);
+        writeVarint(level);
+        writeVarint(side);
+        writeByte(noRepeat ? FLAG_NO_REPEAT : 0);
+        recording = true;
+    }
+
+    /**
+     * @param micros Time of the tap since the round started.
+     * @param cell   The tapped cell.
+     */
+    public void recordTap(long micros, int cell) {
+        if (!recording) return;
+        writeDelta(micros);
+        writeVarint(cell + 1L);
+    }
+
+    /**
+     * Closes the recording.
+     *
+     * @param micros Time the round ended, since it started.
+     */
+    public void end(long micros) {
+        if (!recording) return;
+        writeDelta(micros);
+        writeVarint(0);
+        recording = false;
+    }
+
+    public boolean isRecording() {
+        return recording;
+    }
+
+    public int length() {
+        return length;
+    }
+
+    /**
+     * @return A copy of the recorded bytes, safe to hand to another thread.
+     */
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buffer, length);
+    }
+
+    public void writeTo(OutputStream out) throws IOException {
+        out.write(buffer, 0, length);
+    }
+
+    private void writeDelta(long micros) {
+        // Taps arrive in event order, but never let a delta go negative.
+        long delta = Math.max(0L, micros - lastMicros);
+        lastMicros += delta;
+        writeVarint(delta);
+    }
+
+    private void writeVarint(long value) {
+        ensure(10);
+        while ((value & ~0x7FL) != 0) {
+            buffer[length++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[length++] = (byte) value;
+    }
+
+    private void writeByte(int value) {
+        ensure(1);
+        buffer[length++] = (byte) value;
+    }
+
+    private void writeInt(int value) {
+        ensure(4);
+        for (int shift = 24; shift >= 0; shift -= 8) buffer[length++] = (byte) (value >>> shift);
+    }
+
+    private void writeLong(long value) {
+        ensure(8);
+        for (int shift = 56; shift >= 0; shift -= 8) buffer[length++] = (byte) (value >>> shift);
+    }
+
+    private void ensure(int extra) {
+        if (length + extra > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + extra));
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.vortex.core;
+
+/**
+ * How many leaderboard rows and history rounds the database keeps.
+ * A score row survives while it ranks within {@link #perLevel} on its level's
+ * board or within {@link #global} on the global board; everything else has
+ * been pushed off every board anyone can page to and may be deleted. Both
+ * depths are at least {@link GameRules#TOP_N}, so pruning never touches a row
+ * the Top 25 lists (or their cache) could show. Scores recorded on this
+ * device are never pruned before they have been uploaded.
+ *
+ * The round history is append-only and kept whole by default
+ * ({@link #KEEP_ALL_ROUNDS}). A policy may opt in to keeping only the newest
+ * {@link #rounds} entries; the per-level statistics already include
+ * everything older.
+ */
+public final class RetentionPolicy {
+
+    /** A {@link #rounds} value that never trims the history. */
+    public static final int KEEP_ALL_ROUNDS = 0;
+
+    public static final RetentionPolicy DEFAULT = new RetentionPolicy(100, 100, KEEP_ALL_ROUNDS);
+
+    public final int perLevel;
+    public final int global;
+    /** The newest rounds to keep, or {@link #KEEP_ALL_ROUNDS}. */
+    public final int rounds;
+
+    public RetentionPolicy(int perLevel, int global, int rounds) {
+        if (perLevel < GameRules.TOP_N || global < GameRules.TOP_N) {
+            throw new IllegalArgumentException("Retention below the Top " + GameRules.TOP_N);
+        }
+        if (rounds < 0) throw new IllegalArgumentException("Negative round retention");
+        this.perLevel = perLevel;
+        this.global = global;
+        this.rounds = rounds;
+    }
+
+    public boolean trimsRounds() {
+        return rounds != KEEP_ALL_ROUNDS;
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.vortex.core;
+
+/**
+ * Fixed-timestep countdown for a single round.
+ * The timer does not schedule anything itself; the owner feeds it frame times
+ * (for example from Choreographer) through {@link #advance(long)}. Elapsed time
+ * is measured against a monotonic {@link Clock}, so the round ends on the first
+ * frame at or past the deadline no matter how busy the main looper is.
+ * Ticks are reported once per fixed step, never more often, and nothing is
+ * allocated after construction.
+ */
+public final class RoundTimer {
+
+    /**
+     * Monotonic time source in nanoseconds. Injected so tests can drive time.
+     */
+    public interface Clock {
+        long nanoTime();
+    }
+
+    /**
+     * Receives the fixed-step ticks and the end of the round.
+     */
+    public interface Listener {
+        /**
+         * Called once per step with the time left at that step boundary.
+         */
+        void onTick(long millisRemaining);
+
+        /**
+         * Called exactly once, on the first frame at or past the deadline.
+         */
+        void onFinish();
+    }
+
+    public static final Clock SYSTEM_CLOCK = System::nanoTime;
+
+    private static final long NANOS_PER_MILLI = 1_000_000L;
+
+    private final Clock clock;
+    private final Listener listener;
+    private final long durationMillis;
+    private final long stepMillis;
+    private final long durationNanos;
+    private final long stepNanos;
+
+    private long startNanos;
+    private long lastStep = -1;
+    private boolean running = false;
+
+    /**
+     * @param durationMillis Length of the round.
+     * @param stepMillis     Size of one fixed step; ticks fire once per step.
+     * @param clock          Monotonic time source.
+     * @param listener       Receiver of ticks and the finish event.
+     */
+    public RoundTimer(long durationMillis, long stepMillis, Clock clock, Listener listener) {
+        if (durationMillis <= 0 || stepMillis <= 0) {
+            throw new IllegalArgumentException("Duration and step must be positive");
+        }
+        this.durationMillis = durationMillis;
+        this.stepMillis = stepMillis;
+        this.durationNanos = durationMillis * NANOS_PER_MILLI;
+        this.stepNanos = stepMillis * NANOS_PER_MILLI;
+        this.clock = clock;
+        this.listener = listener;
+    }
+
+    /**
+     * Starts (or restarts) the round at the current clock time and reports the
+     * first tick immediately.
+     */
+    public void start() {
+        startNanos = clock.nanoTime();
+        lastStep = -1;
+        running = true;
+        advance(startNanos);
+    }
+
+    /**
+     * Stops the round without firing {@link Listener#onFinish()}.
+     */
+    public void cancel() {
+        running = false;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Advances the round to the given time.
+     * Frame timestamps may precede {@link #start()} slightly (vsync happens
+     * before the callback runs), so negative elapsed time is treated as zero.
+     *
+     * @param nowNanos A timestamp from the same time base as the clock.
+     */
+    public void advance(long nowNanos) {
+        if (!running) return;
+
+        long elapsed = Math.max(0L, nowNanos - startNanos);
+        if (elapsed >= durationNanos) {
+            running = false;
+            listener.onFinish();
+            return;
+        }
+
+        long step = elapsed / stepNanos;
+        if (step != lastStep) {
+            lastStep = step;
+            listener.onTick(durationMillis - step * stepMillis);
+        }
+    }
+
+    /**
+     * Advances the round using the timer's own clock.
+     */
+    public void advance() {
+        advance(clock.nanoTime());
+    }
+
+    /**
+     * @return Time left in the round, clamped to zero, measured on the clock.
+     */
+    public long millisRemaining() {
+        if (!running) return 0L;
+        long elapsed = Math.max(0L, clock.nanoTime() - startNanos);
+        return Math.max(0L, (durationNanos - elapsed) / NANOS_PER_MILLI);
+    }
+}
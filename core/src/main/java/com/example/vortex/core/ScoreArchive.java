@@ -0,0 +1,323 @@
+package com.example.vortex.core;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+
+/**
+ * Streaming backup format for the leaderboard and the round history.
+ * Rows are written and read one at a time through a fixed-size buffer over
+ * an NIO channel, so memory use does not depend on how many rows there are.
+ *
+ * Layout: the magic bytes {@code VXSA}, a version byte, then one tagged
+ * record per row and an end record. Numbers are zigzag varints, names are
+ * length-prefixed UTF-8, and a round's start time is stored as the
+ * difference to the previous round's. The end record holds the score and
+ * round counts and a CRC-32 of everything before it, so a truncated or
+ * damaged file is rejected instead of half imported.
+ *
+ * {@link ScoreCsv} reads and writes the same rows as text.
+ */
+public final class ScoreArchive {
+
+    public static final int VERSION = 1;
+
+    /** Size of the buffer between the codec and its channel. */
+    public static final int BUFFER_SIZE = 64 * 1024;
+
+    static final int TAG_END = 0;
+    static final int TAG_SCORE = 1;
+    static final int TAG_ROUND = 2;
+
+    private static final byte[] MAGIC = {'V', 'X', 'S', 'A'};
+
+    // Tag, five varints of up to ten bytes and a name length.
+    private static final int MAX_FIXED_BYTES = 1 + 6 * 10;
+
+    private ScoreArchive() {
+    }
+
+    /**
+     * One row read from an archive. A {@link Source} fills the same instance
+     * again for every row.
+     */
+    public static final class Row {
+        public static final int SCORE = TAG_SCORE;
+        public static final int ROUND = TAG_ROUND;
+
+        /** {@link #SCORE} or {@link #ROUND}. */
+        public int kind;
+
+        // Both kinds.
+        public int score;
+        public int level;
+
+        // Scores only; remoteSeq is 0 for rows that were never synced.
+        public String name;
+        public long remoteSeq;
+
+        // Rounds only.
+        public long playedAtMillis;
+        public int hits;
+        public int misses;
+        public long durationMillis;
+    }
+
+    /**
+     * Receives rows in any order. {@link #finish()} must be called after the
+     * last one, before closing.
+     */
+    public interface Sink extends Closeable {
+        void writeScore(String name, int score, int level, long remoteSeq) throws IOException;
+
+        void writeRound(long playedAtMillis, int level, int score, int hits, int misses,
+                        long durationMillis) throws IOException;
+
+        /**
+         * Ends the archive and writes out everything still buffered.
+         */
+        void finish() throws IOException;
+
+        long scoreCount();
+
+        long roundCount();
+    }
+
+    /**
+     * Delivers the rows of an archive in the order they were written.
+     */
+    public interface Source extends Closeable {
+        /**
+         * Reads the next row into {@code row}.
+         *
+         * @return False once the archive ended; its checks have passed by then.
+         * @throws IOException If the archive is truncated or damaged.
+         */
+        boolean next(Row row) throws IOException;
+    }
+
+    public static Sink newWriter(WritableByteChannel channel) throws IOException {
+        return new Writer(channel);
+    }
+
+    public static Source newReader(ReadableByteChannel channel) throws IOException {
+        return new Reader(channel);
+    }
+
+    private static final class Writer implements Sink {
+        private final WritableByteChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        private final CRC32 crc = new CRC32();
+        private long scores;
+        private long rounds;
+        private long lastPlayedAt;
+
+        Writer(WritableByteChannel channel) throws IOException {
+            this.channel = channel;
+            buffer.put(MAGIC);
+            buffer.put((byte) VERSION);
+        }
+
+        @Override
+        public void writeScore(String name, int score, int level, long remoteSeq) throws IOException {
+            byte[] utf8 = name.getBytes(StandardCharsets.UTF_8);
+            ensure(MAX_FIXED_BYTES + utf8.length);
+            buffer.put((byte) TAG_SCORE);
+            putVarint(utf8.length);
+            buffer.put(utf8);
+            putSigned(score);
+            putSigned(level);
+            putSigned(remoteSeq);
+            scores++;
+        }
+
+        @Override
+        public void writeRound(long playedAtMillis, int level, int score, int hits, int misses,
+                               long durationMillis) throws IOException {
+            ensure(MAX_FIXED_BYTES);
+            buffer.put((byte) TAG_ROUND);
+            putSigned(playedAtMillis - lastPlayedAt);
+            lastPlayedAt = playedAtMillis;
+            putSigned(level);
+            putSigned(score);
+            putSigned(hits);
+            putSigned(misses);
+            putSigned(durationMillis);
+            rounds++;
+        }
+
+        @Override
+        public void finish() throws IOException {
+            ensure(MAX_FIXED_BYTES + 4);
+            buffer.put((byte) TAG_END);
+            putVarint(scores);
+            putVarint(rounds);
+            crc.update(buffer.array(), 0, buffer.position());
+            buffer.putInt((int) crc.getValue());
+            drain();
+        }
+
+        @Override
+        public long scoreCount() {
+            return scores;
+        }
+
+        @Override
+        public long roundCount() {
+            return rounds;
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+
+        private void ensure(int bytes) throws IOException {
+            if (bytes > BUFFER_SIZE) throw new IOException("Row too large: " + bytes + " bytes");
+            if (buffer.remaining() < bytes) {
+                crc.update(buffer.array(), 0, buffer.position());
+                drain();
+            }
+        }
+
+        private void drain() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) channel.write(buffer);
+            buffer.clear();
+        }
+
+        private void putSigned(long value) {
+            putVarint((value << 1) ^ (value >> 63));
+        }
+
+        private void putVarint(long value) {
+            while ((value & ~0x7FL) != 0) {
+                buffer.put((byte) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            buffer.put((byte) value);
+        }
+    }
+
+    private static final class Reader implements Source {
+        private final ReadableByteChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        private final CRC32 crc = new CRC32();
+        // Start of the bytes read but not yet added to the checksum.
+        private int crcFrom = 0;
+        private byte[] nameBytes = new byte[64];
+        private long scores;
+        private long rounds;
+        private long lastPlayedAt;
+        private boolean ended;
+
+        Reader(ReadableByteChannel channel) throws IOException {
+            this.channel = channel;
+            buffer.flip();
+            require(MAGIC.length + 1);
+            for (byte b : MAGIC) {
+                if (buffer.get() != b) throw new IOException("Not a score archive");
+            }
+            int version = buffer.get();
+            if (version != VERSION) throw new IOException("Unsupported archive version " + version);
+        }
+
+        @Override
+        public boolean next(Row row) throws IOException {
+            if (ended) return false;
+            require(1);
+            int tag = buffer.get();
+            switch (tag) {
+                case TAG_SCORE:
+                    readScore(row);
+                    return true;
+                case TAG_ROUND:
+                    readRound(row);
+                    return true;
+                case TAG_END:
+                    readEnd();
+                    return false;
+                default:
+                    throw new IOException("Unknown record " + tag);
+            }
+        }
+
+        private void readScore(Row row) throws IOException {
+            int length = (int) getVarint();
+            if (length < 0 || length > BUFFER_SIZE - MAX_FIXED_BYTES) throw new IOException("Bad name length");
+            require(length);
+            if (nameBytes.length < length) nameBytes = new byte[Math.max(length, nameBytes.length * 2)];
+            buffer.get(nameBytes, 0, length);
+            row.kind = Row.SCORE;
+            row.name = new String(nameBytes, 0, length, StandardCharsets.UTF_8);
+            row.score = (int) getSigned();
+            row.level = (int) getSigned();
+            row.remoteSeq = getSigned();
+            scores++;
+        }
+
+        private void readRound(Row row) throws IOException {
+            row.kind = Row.ROUND;
+            lastPlayedAt += getSigned();
+            row.playedAtMillis = lastPlayedAt;
+            row.level = (int) getSigned();
+            row.score = (int) getSigned();
+            row.hits = (int) getSigned();
+            row.misses = (int) getSigned();
+            row.durationMillis = getSigned();
+            rounds++;
+        }
+
+        private void readEnd() throws IOException {
+            long expectedScores = getVarint();
+            long expectedRounds = getVarint();
+            crc.update(buffer.array(), crcFrom, buffer.position() - crcFrom);
+            crcFrom = buffer.position();
+            require(4);
+            int expectedCrc = buffer.getInt();
+            if (expectedCrc != (int) crc.getValue()) throw new IOException("Archive checksum mismatch");
+            if (expectedScores != scores || expectedRounds != rounds) {
+                throw new IOException("Archive row counts do not match");
+            }
+            ended = true;
+        }
+
+        // Makes sure the next bytes are in the buffer, reading more if needed.
+        private void require(int bytes) throws IOException {
+            if (buffer.remaining() >= bytes) return;
+            crc.update(buffer.array(), crcFrom, buffer.position() - crcFrom);
+            buffer.compact();
+            while (buffer.position() < bytes) {
+                if (channel.read(buffer) < 0) throw new EOFException("Archive is truncated");
+            }
+            buffer.flip();
+            crcFrom = 0;
+        }
+
+        private long getSigned() throws IOException {
+            long value = getVarint();
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        private long getVarint() throws IOException {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                require(1);
+                byte b = buffer.get();
+                value |= (long) (b & 0x7F) << shift;
+                if (b >= 0) return value;
+            }
+            throw new IOException("Bad varint");
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package com.example.vortex.core;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The rows of a {@link ScoreArchive} as CSV, for spreadsheets and scripts.
+ * The first line names the format and version, the second the columns; each
+ * following line is one score or round, with the columns of the other kind
+ * left empty. Names are always quoted. Like the binary format, rows stream
+ * through a fixed-size buffer.
+ */
+public final class ScoreCsv {
+
+    public static final String HEADER = "# vortex scores v" + ScoreArchive.VERSION;
+    public static final String COLUMNS = "kind,name,score,level,remote_seq,played_at,hits,misses,duration_ms";
+
+    private static final String KIND_SCORE = "score";
+    private static final String KIND_ROUND = "round";
+    private static final int COLUMN_COUNT = 9;
+
+    private ScoreCsv() {
+    }
+
+    public static ScoreArchive.Sink newWriter(WritableByteChannel channel) throws IOException {
+        return new Writer(channel);
+    }
+
+    public static ScoreArchive.Source newReader(ReadableByteChannel channel) throws IOException {
+        return new Parser(channel);
+    }
+
+    private static final class Writer implements ScoreArchive.Sink {
+        private final WritableByteChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(ScoreArchive.BUFFER_SIZE);
+        private final StringBuilder line = new StringBuilder(128);
+        private long scores;
+        private long rounds;
+
+        Writer(WritableByteChannel channel) throws IOException {
+            this.channel = channel;
+            line.append(HEADER).append('\n').append(COLUMNS).append('\n');
+            put();
+        }
+
+        @Override
+        public void writeScore(String name, int score, int level, long remoteSeq) throws IOException {
+            line.append(KIND_SCORE).append(",\"");
+            for (int i = 0; i < name.length(); i++) {
+                char c = name.charAt(i);
+                if (c == '"') line.append('"');
+                line.append(c);
+            }
+            line.append("\",").append(score).append(',').append(level).append(',')
+                    .append(remoteSeq).append(",,,,\n");
+            put();
+            scores++;
+        }
+
+        @Override
+        public void writeRound(long playedAtMillis, int level, int score, int hits, int misses,
+                               long durationMillis) throws IOException {
+            line.append(KIND_ROUND).append(",,").append(score).append(',').append(level).append(",,")
+                    .append(playedAtMillis).append(',').append(hits).append(',').append(misses).append(',')
+                    .append(durationMillis).append('\n');
+            put();
+            rounds++;
+        }
+
+        @Override
+        public void finish() throws IOException {
+            drain();
+        }
+
+        @Override
+        public long scoreCount() {
+            return scores;
+        }
+
+        @Override
+        public long roundCount() {
+            return rounds;
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+
+        private void put() throws IOException {
+            byte[] bytes = line.toString().getBytes(StandardCharsets.UTF_8);
+            line.setLength(0);
+            if (bytes.length > buffer.capacity()) throw new IOException("Row too large: " + bytes.length + " bytes");
+            if (buffer.remaining() < bytes.length) drain();
+            buffer.put(bytes);
+        }
+
+        private void drain() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) channel.write(buffer);
+            buffer.clear();
+        }
+    }
+
+    private static final class Parser implements ScoreArchive.Source {
+        private final BufferedReader in;
+        private final String[] fields = new String[COLUMN_COUNT];
+        private final StringBuilder field = new StringBuilder(64);
+        private long line = 2;
+
+        Parser(ReadableByteChannel channel) throws IOException {
+            in = new BufferedReader(Channels.newReader(channel, StandardCharsets.UTF_8.newDecoder(), -1),
+                    ScoreArchive.BUFFER_SIZE / 2);
+            if (!HEADER.equals(in.readLine())) throw new IOException("Not a score CSV");
+            if (!COLUMNS.equals(in.readLine())) throw new IOException("Unexpected CSV columns");
+        }
+
+        @Override
+        public boolean next(ScoreArchive.Row row) throws IOException {
+            int count;
+            do {
+                count = readRecord();
+                if (count < 0) return false;
+            } while (count == 1 && fields[0].isEmpty());
+            if (count != COLUMN_COUNT) throw error("expected " + COLUMN_COUNT + " columns, found " + count);
+
+            try {
+                if (KIND_SCORE.equals(fields[0])) {
+                    row.kind = ScoreArchive.Row.SCORE;
+                    row.name = fields[1];
+                    row.score = Integer.parseInt(fields[2]);
+                    row.level = Integer.parseInt(fields[3]);
+                    row.remoteSeq = Long.parseLong(fields[4]);
+                } else if (KIND_ROUND.equals(fields[0])) {
+                    row.kind = ScoreArchive.Row.ROUND;
+                    row.score = Integer.parseInt(fields[2]);
+                    row.level = Integer.parseInt(fields[3]);
+                    row.playedAtMillis = Long.parseLong(fields[5]);
+                    row.hits = Integer.parseInt(fields[6]);
+                    row.misses = Integer.parseInt(fields[7]);
+                    row.durationMillis = Long.parseLong(fields[8]);
+                } else {
+                    throw error("unknown kind " + fields[0]);
+                }
+            } catch (NumberFormatException e) {
+                throw error(e.getMessage());
+            }
+            return true;
+        }
+
+        /**
+         * Reads one record into {@link #fields}. Quoted fields may contain
+         * commas, doubled quotes and line breaks.
+         *
+         * @return The number of fields, or -1 at the end of the input.
+         */
+        private int readRecord() throws IOException {
+            line++;
+            int count = 0;
+            boolean quoted = false;
+            boolean any = false;
+            field.setLength(0);
+            while (true) {
+                int c = in.read();
+                if (c < 0) {
+                    if (quoted) throw error("unterminated quote");
+                    if (!any) return -1;
+                    return store(count);
+                }
+                any = true;
+                if (quoted) {
+                    if (c != '"') {
+                        field.append((char) c);
+                        continue;
+                    }
+                    in.mark(1);
+                    if (in.read() == '"') {
+                        field.append('"');
+                    } else {
+                        in.reset();
+                        quoted = false;
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    count = store(count);
+                    field.setLength(0);
+                } else if (c == '\n') {
+                    return store(count);
+                } else if (c != '\r') {
+                    field.append((char) c);
+                }
+            }
+        }
+
+        private int store(int count) throws IOException {
+            if (count == COLUMN_COUNT) throw error("too many columns");
+            fields[count] = field.toString();
+            return count + 1;
+        }
+
+        private IOException error(String message) {
+            return new IOException("CSV line " + line + ": " + message);
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.vortex.core;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Streaming summary of round scores: count, mean, best and percentiles.
+ * Scores are small non-negative integers, so every score below
+ * {@link #EXACT_LIMIT} has its own counter and percentiles are exact; higher
+ * scores share the last counter while the best score is still tracked.
+ * Recording is allocation-free and O(1). {@link #encode()} writes only the
+ * non-empty counters, so a level's summary can be stored as a small blob
+ * and updated in place instead of being recomputed from the history.
+ * Not thread-safe.
+ */
+public final class ScoreDistribution {
+
+    public static final int EXACT_LIMIT = 1024;
+    private static final int VERSION = 1;
+
+    private final long[] counts = new long[EXACT_LIMIT];
+    private long totalCount;
+    private long sum;
+    private int best;
+
+    /**
+     * Records one round. Negative scores are treated as zero.
+     */
+    public void record(int score) {
+        int value = Math.max(0, score);
+        counts[Math.min(value, EXACT_LIMIT - 1)]++;
+        totalCount++;
+        sum += value;
+        if (value > best) best = value;
+    }
+
+    public long count() {
+        return totalCount;
+    }
+
+    /**
+     * @return The sum of all recorded scores.
+     */
+    public long total() {
+        return sum;
+    }
+
+    public int best() {
+        return best;
+    }
+
+    public double mean() {
+        return totalCount == 0 ? 0 : (double) sum / totalCount;
+    }
+
+    /**
+     * Returns the score at the given percentile (nearest rank).
+     *
+     * @param percentile A value in [0, 100].
+     */
+    public int percentile(double percentile) {
+        if (totalCount == 0) return 0;
+        long rank = (long) Math.ceil(percentile / 100.0 * totalCount);
+        rank = Math.max(1, Math.min(totalCount, rank));
+
+        long seen = 0;
+        for (int i = 0; i < EXACT_LIMIT - 1; i++) {
+            seen += counts[i];
+            if (seen >= rank) return i;
+        }
+        return best;
+    }
+
+    /**
+     * @return The share of recorded rounds that scored strictly less, in
+     * percent, or -1 if nothing has been recorded.
+     */
+    public double percentBelow(int score) {
+        if (totalCount == 0) return -1;
+        int limit = Math.min(Math.max(0, score), EXACT_LIMIT - 1);
+        long below = 0;
+        for (int i = 0; i < limit; i++) below += counts[i];
+        return 100.0 * below / totalCount;
+    }
+
+    public void reset() {
+        Arrays.fill(counts, 0L);
+        totalCount = 0;
+        sum = 0;
+        best = 0;
+    }
+
+    /**
+     * @return A compact binary form, readable by {@link #decode}.
+     */
+    public byte[] encode() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(VERSION);
+            out.writeLong(sum);
+            out.writeInt(best);
+            int used = 0;
+            for (long c : counts) if (c != 0) used++;
+            out.writeShort(used);
+            for (int i = 0; i < EXACT_LIMIT; i++) {
+                if (counts[i] == 0) continue;
+                out.writeShort(i);
+                out.writeLong(counts[i]);
+            }
+        } catch (IOException e) {
+            // A byte array stream never fails.
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Restores a summary written by {@link #encode()}.
+     *
+     * @throws IOException If the data is truncated or from another version.
+     */
+    public static ScoreDistribution decode(byte[] data) throws IOException {
+        ScoreDistribution distribution = new ScoreDistribution();
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            int version = in.readUnsignedByte();
+            if (version != VERSION) throw new IOException("Unsupported distribution version " + version);
+            distribution.sum = in.readLong();
+            distribution.best = in.readInt();
+            int used = in.readUnsignedShort();
+            for (int i = 0; i < used; i++) {
+                int bucket = in.readUnsignedShort();
+                if (bucket >= EXACT_LIMIT) throw new IOException("Bad bucket " + bucket);
+                long count = in.readLong();
+                distribution.counts[bucket] = count;
+                distribution.totalCount += count;
+            }
+        }
+        return distribution;
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.vortex.core;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Call counts and durations for a fixed set of named code sections.
+ * Sections are addressed by index into the names given at construction.
+ * Recording is lock-free and allocation-free, so any thread may record
+ * while another formats a report; a report taken during recording may be
+ * off by the calls in flight.
+ */
+public final class SectionCounters {
+
+    private static final long NANOS_PER_MICRO = 1000L;
+
+    private final String[] names;
+    private final AtomicLongArray calls;
+    private final AtomicLongArray totalNanos;
+    private final AtomicLongArray maxNanos;
+
+    public SectionCounters(String... names) {
+        this.names = names.clone();
+        calls = new AtomicLongArray(names.length);
+        totalNanos = new AtomicLongArray(names.length);
+        maxNanos = new AtomicLongArray(names.length);
+    }
+
+    /**
+     * Records one completed call of a section.
+     */
+    public void record(int section, long nanos) {
+        calls.incrementAndGet(section);
+        totalNanos.addAndGet(section, nanos);
+        long max = maxNanos.get(section);
+        while (nanos > max && !maxNanos.compareAndSet(section, max, nanos)) {
+            max = maxNanos.get(section);
+        }
+    }
+
+    public int size() {
+        return names.length;
+    }
+
+    public String name(int section) {
+        return names[section];
+    }
+
+    public long calls(int section) {
+        return calls.get(section);
+    }
+
+    public long totalNanos(int section) {
+        return totalNanos.get(section);
+    }
+
+    public long maxNanos(int section) {
+        return maxNanos.get(section);
+    }
+
+    public void reset() {
+        for (int i = 0; i < names.length; i++) {
+            calls.set(i, 0);
+            totalNanos.set(i, 0);
+            maxNanos.set(i, 0);
+        }
+    }
+
+    /**
+     * Formats calls, total, mean and maximum duration (in microseconds) of
+     * every section that was called at least once.
+     */
+    public String formatReport() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("section\tcalls\ttotal\tmean\tmax\n");
+        for (int i = 0; i < names.length; i++) {
+            long n = calls.get(i);
+            if (n == 0) continue;
+            long total = totalNanos.get(i) / NANOS_PER_MICRO;
+            sb.append(String.format(Locale.US, "%s\t%d\t%d\t%d\t%d\n", names[i], n, total,
+                    total / n, maxNanos.get(i) / NANOS_PER_MICRO));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,156 @@
+package com.example.vortex.core;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs named startup stages on background threads in dependency order.
+ * A stage is submitted to the executor as soon as every stage it depends on
+ * has finished, so independent stages overlap. A stage that throws is
+ * reported and still releases its dependents; startup work is best effort
+ * and must never keep the app from running.
+ * Stages can only depend on stages added before them, which rules out
+ * cycles. Each stage's start and end are recorded for {@link #formatReport()}.
+ */
+public final class StagedInitializer {
+
+    private static final long NANOS_PER_MICRO = 1000L;
+
+    private static final class Stage {
+        final String name;
+        final Runnable task;
+        final List<Stage> dependents = new ArrayList<>();
+        final AtomicInteger waitingOn;
+        volatile long startNanos;
+        volatile long endNanos;
+        volatile String thread;
+        volatile Throwable failure;
+
+        Stage(String name, Runnable task, int dependencies) {
+            this.name = name;
+            this.task = task;
+            this.waitingOn = new AtomicInteger(dependencies);
+        }
+    }
+
+    private final RoundTimer.Clock clock;
+    private final List<Stage> stages = new ArrayList<>();
+    private final Map<String, Stage> byName = new HashMap<>();
+    private CountDownLatch done;
+    private Executor executor;
+    private long originNanos;
+
+    public StagedInitializer(RoundTimer.Clock clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * Adds a stage.
+     *
+     * @param after Names of stages that must finish first.
+     * @throws IllegalArgumentException If a name is reused or a dependency is unknown.
+     * @throws IllegalStateException    If the initializer was already started.
+     */
+    public StagedInitializer add(String name, Runnable task, String... after) {
+        if (done != null) throw new IllegalStateException("Already started");
+        if (byName.containsKey(name)) throw new IllegalArgumentException("Duplicate stage " + name);
+        Stage stage = new Stage(name, task, after.length);
+        for (String dependency : after) {
+            Stage parent = byName.get(dependency);
+            if (parent == null) throw new IllegalArgumentException("Unknown stage " + dependency);
+            parent.dependents.add(stage);
+        }
+        stages.add(stage);
+        byName.put(name, stage);
+        return this;
+    }
+
+    /**
+     * Submits every stage without dependencies; the rest follow as their
+     * dependencies finish.
+     */
+    public void start(Executor executor) {
+        if (done != null) throw new IllegalStateException("Already started");
+        this.executor = executor;
+        this.done = new CountDownLatch(stages.size());
+        this.originNanos = clock.nanoTime();
+        // Roots are picked before any runs, or a fast root would release a
+        // dependent that the loop then submits a second time.
+        List<Stage> roots = new ArrayList<>();
+        for (Stage stage : stages) {
+            if (stage.waitingOn.get() == 0) roots.add(stage);
+        }
+        for (Stage root : roots) submit(root);
+    }
+
+    private void submit(Stage stage) {
+        executor.execute(() -> run(stage));
+    }
+
+    private void run(Stage stage) {
+        stage.thread = Thread.currentThread().getName();
+        stage.startNanos = clock.nanoTime();
+        try {
+            stage.task.run();
+        } catch (Throwable t) {
+            t.printStackTrace();
+            stage.failure = t;
+        }
+        stage.endNanos = clock.nanoTime();
+        for (Stage dependent : stage.dependents) {
+            if (dependent.waitingOn.decrementAndGet() == 0) submit(dependent);
+        }
+        done.countDown();
+    }
+
+    /**
+     * Waits for every stage to finish.
+     *
+     * @return False if the timeout passed first.
+     */
+    public boolean await(long timeoutMillis) throws InterruptedException {
+        if (done == null) throw new IllegalStateException("Not started");
+        return done.await(timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public boolean isDone() {
+        return done != null && done.getCount() == 0;
+    }
+
+    /**
+     * @return When a stage finished, in microseconds after {@link #start}, or
+     * -1 if it has not.
+     */
+    public long endMicros(String name) {
+        Stage stage = byName.get(name);
+        if (stage == null || stage.endNanos == 0) return -1;
+        return (stage.endNanos - originNanos) / NANOS_PER_MICRO;
+    }
+
+    /**
+     * Formats each stage's thread and its start, end and duration in
+     * microseconds after {@link #start}, in the order the stages were added.
+     */
+    public String formatReport() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("stage\tthread\tstart\tend\tduration\n");
+        for (Stage stage : stages) {
+            if (stage.endNanos == 0) {
+                sb.append(stage.name).append("\tpending\n");
+                continue;
+            }
+            long start = (stage.startNanos - originNanos) / NANOS_PER_MICRO;
+            long end = (stage.endNanos - originNanos) / NANOS_PER_MICRO;
+            sb.append(String.format(Locale.US, "%s\t%s\t%d\t%d\t%d%s\n", stage.name, stage.thread,
+                    start, end, end - start, stage.failure != null ? "\tfailed: " + stage.failure : ""));
+        }
+        return sb.toString();
+    }
+}
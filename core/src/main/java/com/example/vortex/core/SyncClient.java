@@ -0,0 +1,170 @@
+package com.example.vortex.core;
+
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Talks to the leaderboard server over HTTP using {@link SyncCodec}.
+ * Calls block, so run them on a background thread. Any failure (network,
+ * non-200 reply, malformed body) surfaces as an {@link IOException}; retrying
+ * is up to the caller. Counts the compressed bytes sent and received so the
+ * cost of a sync can be checked against the amount of new data.
+ */
+public final class SyncClient {
+
+    private static final int CONNECT_TIMEOUT_MS = 10_000;
+    private static final int READ_TIMEOUT_MS = 15_000;
+
+    private final String baseUrl;
+    private final String clientId;
+
+    private volatile long bytesSent = 0;
+    private volatile long bytesReceived = 0;
+
+    /**
+     * A page of rows uploaded by other devices.
+     */
+    public static final class PullResult {
+        public final long watermark;
+        public final List<SyncRecord> rows;
+        /** Rows in the page before this device's own uploads were skipped. */
+        public final int pageSize;
+
+        PullResult(long watermark, List<SyncRecord> rows, int pageSize) {
+            this.watermark = watermark;
+            this.rows = rows;
+            this.pageSize = pageSize;
+        }
+    }
+
+    /**
+     * @param baseUrl  The server root, without a trailing slash.
+     * @param clientId A stable id for this installation; its own rows are
+     *                 skipped when pulling.
+     */
+    public SyncClient(String baseUrl, String clientId) {
+        this.baseUrl = baseUrl;
+        this.clientId = clientId;
+    }
+
+    /**
+     * Uploads one batch of local rows.
+     *
+     * @return The highest local id the server has stored.
+     */
+    public long upload(List<SyncRecord> rows) throws IOException {
+        HttpURLConnection connection = open("/scores");
+        try {
+            connection.setRequestMethod("POST");
+            connection.setDoOutput(true);
+            connection.setRequestProperty("Content-Type", "application/octet-stream");
+            try (CountingOutput out = new CountingOutput(connection.getOutputStream())) {
+                SyncCodec.writeUpload(out, clientId, rows);
+                bytesSent += out.count;
+            }
+            check(connection);
+            try (CountingInput in = new CountingInput(connection.getInputStream())) {
+                long ack = SyncCodec.readAck(in);
+                bytesReceived += in.count;
+                return ack;
+            }
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    /**
+     * Fetches rows the server received after a watermark.
+     *
+     * @param since The watermark from the previous pull, 0 at first.
+     * @param limit The most rows to return.
+     */
+    public PullResult pull(long since, int limit) throws IOException {
+        HttpURLConnection connection = open("/scores?since=" + since + "&limit=" + limit);
+        try {
+            check(connection);
+            SyncCodec.Page page;
+            try (CountingInput in = new CountingInput(connection.getInputStream())) {
+                page = SyncCodec.readPage(in);
+                bytesReceived += in.count;
+            }
+            List<SyncRecord> foreign = new ArrayList<>(page.rows.size());
+            for (int i = 0; i < page.rows.size(); i++) {
+                if (!clientId.equals(page.clientIds.get(i))) foreign.add(page.rows.get(i));
+            }
+            return new PullResult(page.watermark, foreign, page.rows.size());
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    public long bytesSent() {
+        return bytesSent;
+    }
+
+    public long bytesReceived() {
+        return bytesReceived;
+    }
+
+    private HttpURLConnection open(String path) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(baseUrl + path).openConnection();
+        connection.setConnectTimeout(CONNECT_TIMEOUT_MS);
+        connection.setReadTimeout(READ_TIMEOUT_MS);
+        connection.setUseCaches(false);
+        return connection;
+    }
+
+    private static void check(HttpURLConnection connection) throws IOException {
+        int code = connection.getResponseCode();
+        if (code != HttpURLConnection.HTTP_OK) throw new IOException("HTTP " + code);
+    }
+
+    private static final class CountingOutput extends FilterOutputStream {
+        long count;
+
+        CountingOutput(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+
+    private static final class CountingInput extends FilterInputStream {
+        long count;
+
+        CountingInput(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = in.read();
+            if (b >= 0) count++;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = in.read(b, off, len);
+            if (n > 0) count += n;
+            return n;
+        }
+    }
+}
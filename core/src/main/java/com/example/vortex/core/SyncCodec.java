@@ -0,0 +1,149 @@
+package com.example.vortex.core;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Wire format of the leaderboard sync protocol. Every body is gzip-compressed
+ * binary (big-endian, strings as modified UTF-8) starting with a version byte.
+ *
+ * Upload ({@code POST /scores}): clientId, row count, then per row the local
+ * id, name, score and level. The reply is the highest local id the server
+ * has stored, which becomes the device's upload watermark.
+ *
+ * Pull ({@code GET /scores?since=seq&limit=n}): the reply is the next
+ * watermark, a row count, then per row its server sequence, the uploading
+ * client's id, name, score and level.
+ *
+ * Used by both {@link SyncClient} and server implementations (including the
+ * in-process test server).
+ */
+public final class SyncCodec {
+
+    public static final int VERSION = 1;
+
+    private SyncCodec() {
+    }
+
+    /**
+     * A decoded upload request.
+     */
+    public static final class Upload {
+        public final String clientId;
+        public final List<SyncRecord> rows;
+
+        public Upload(String clientId, List<SyncRecord> rows) {
+            this.clientId = clientId;
+            this.rows = rows;
+        }
+    }
+
+    /**
+     * A decoded pull reply. {@link #clientIds} runs parallel to {@link #rows}.
+     */
+    public static final class Page {
+        public final long watermark;
+        public final List<SyncRecord> rows;
+        public final List<String> clientIds;
+
+        public Page(long watermark, List<SyncRecord> rows, List<String> clientIds) {
+            this.watermark = watermark;
+            this.rows = rows;
+            this.clientIds = clientIds;
+        }
+    }
+
+    public static void writeUpload(OutputStream out, String clientId, List<SyncRecord> rows) throws IOException {
+        DataOutputStream data = open(out);
+        data.writeUTF(clientId);
+        data.writeInt(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            SyncRecord row = rows.get(i);
+            data.writeLong(row.id);
+            data.writeUTF(row.name);
+            data.writeInt(row.score);
+            data.writeInt(row.level);
+        }
+        data.close();
+    }
+
+    public static Upload readUpload(InputStream in) throws IOException {
+        try (DataInputStream data = open(in)) {
+            String clientId = data.readUTF();
+            int count = readCount(data);
+            List<SyncRecord> rows = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                rows.add(new SyncRecord(data.readLong(), data.readUTF(), data.readInt(), data.readInt()));
+            }
+            return new Upload(clientId, rows);
+        }
+    }
+
+    public static void writeAck(OutputStream out, long uploadedUpTo) throws IOException {
+        DataOutputStream data = open(out);
+        data.writeLong(uploadedUpTo);
+        data.close();
+    }
+
+    public static long readAck(InputStream in) throws IOException {
+        try (DataInputStream data = open(in)) {
+            return data.readLong();
+        }
+    }
+
+    public static void writePage(OutputStream out, Page page) throws IOException {
+        DataOutputStream data = open(out);
+        data.writeLong(page.watermark);
+        data.writeInt(page.rows.size());
+        for (int i = 0; i < page.rows.size(); i++) {
+            SyncRecord row = page.rows.get(i);
+            data.writeLong(row.id);
+            data.writeUTF(page.clientIds.get(i));
+            data.writeUTF(row.name);
+            data.writeInt(row.score);
+            data.writeInt(row.level);
+        }
+        data.close();
+    }
+
+    public static Page readPage(InputStream in) throws IOException {
+        try (DataInputStream data = open(in)) {
+            long watermark = data.readLong();
+            int count = readCount(data);
+            List<SyncRecord> rows = new ArrayList<>(count);
+            List<String> clientIds = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                long seq = data.readLong();
+                clientIds.add(data.readUTF());
+                rows.add(new SyncRecord(seq, data.readUTF(), data.readInt(), data.readInt()));
+            }
+            return new Page(watermark, rows, clientIds);
+        }
+    }
+
+    private static DataOutputStream open(OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(new GZIPOutputStream(out));
+        data.writeByte(VERSION);
+        return data;
+    }
+
+    private static DataInputStream open(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(new GZIPInputStream(in));
+        int version = data.readUnsignedByte();
+        if (version != VERSION) throw new IOException("Unsupported sync version " + version);
+        return data;
+    }
+
+    private static int readCount(DataInputStream data) throws IOException {
+        int count = data.readInt();
+        if (count < 0) throw new IOException("Bad row count " + count);
+        return count;
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.vortex.core;
+
+/**
+ * One score row as it travels between a device and the leaderboard server.
+ * On upload {@link #id} is the device's own row id; on download it is the
+ * server's sequence number for the row.
+ */
+public final class SyncRecord {
+
+    public final long id;
+    public final String name;
+    public final int score;
+    public final int level;
+
+    public SyncRecord(long id, String name, int score, int level) {
+        this.id = id;
+        this.name = name;
+        this.score = score;
+        this.level = level;
+    }
+}
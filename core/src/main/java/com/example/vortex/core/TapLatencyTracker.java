@@ -0,0 +1,144 @@
+package com.example.vortex.core;
+
+import java.util.Locale;
+
+/**
+ * Measures how long it takes from a finger touching a cell to each piece of
+ * hit/miss feedback.
+ * Every tap is timestamped from its input event, and the delay to each stage
+ * (dispatch into game logic, sound and the first frame that draws the
+ * feedback) is recorded into a {@link LatencyHistogram} for the level and grid
+ * size being played. Histograms are created the first time a level/grid pair
+ * is seen; after that recording is allocation-free. Haptic pulses are issued
+ * on another thread and timed there, so they are not a stage here.
+ * Timestamps must share the {@code System.nanoTime()} time base, which is also
+ * the base of {@code MotionEvent} event times on Android.
+ * All methods must be called on the main thread.
+ */
+public final class TapLatencyTracker {
+
+    public static final int STAGE_DISPATCH = 0;
+    public static final int STAGE_SOUND = 1;
+    public static final int STAGE_FRAME = 2;
+    public static final int STAGE_COUNT = 3;
+
+    private static final String[] STAGE_NAMES = {"dispatch", "sound", "frame"};
+
+    private static final int MAX_SLOTS = 16;
+    private static final int MAX_PENDING_FRAMES = 16;
+
+    private final RoundTimer.Clock clock;
+
+    // One row of histograms per (level, grid side) slot.
+    private final int[] slotLevel = new int[MAX_SLOTS];
+    private final int[] slotSide = new int[MAX_SLOTS];
+    private final LatencyHistogram[][] slots = new LatencyHistogram[MAX_SLOTS][];
+    private int slotCount = 0;
+
+    private LatencyHistogram[] current;
+    private long tapNanos;
+
+    // Taps whose feedback has not been drawn yet.
+    private final long[] pendingFrame = new long[MAX_PENDING_FRAMES];
+    private int pendingFrameCount = 0;
+
+    public TapLatencyTracker(RoundTimer.Clock clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * Starts measuring a tap and records the input-to-dispatch delay.
+     *
+     * @param level          The level being played.
+     * @param side           The grid size (cells per row).
+     * @param eventTimeNanos When the input event happened.
+     */
+    public void beginTap(int level, int side, long eventTimeNanos) {
+        current = slotFor(level, side);
+        tapNanos = eventTimeNanos;
+        mark(STAGE_DISPATCH);
+        if (pendingFrameCount < MAX_PENDING_FRAMES) {
+            pendingFrame[pendingFrameCount++] = eventTimeNanos;
+        }
+    }
+
+    /**
+     * Records the delay from the current tap's input event to now.
+     */
+    public void mark(int stage) {
+        if (current == null) return;
+        current[stage].record((clock.nanoTime() - tapNanos) / 1000L);
+    }
+
+    /**
+     * @return True if a tap is waiting for its feedback to be drawn.
+     */
+    public boolean hasPendingFrame() {
+        return pendingFrameCount > 0;
+    }
+
+    /**
+     * Records the input-to-frame delay for every tap since the last frame.
+     *
+     * @param frameNanos When the frame that draws the feedback started.
+     */
+    public void onFrame(long frameNanos) {
+        if (current != null) {
+            for (int i = 0; i < pendingFrameCount; i++) {
+                current[STAGE_FRAME].record((frameNanos - pendingFrame[i]) / 1000L);
+            }
+        }
+        pendingFrameCount = 0;
+    }
+
+    /**
+     * Forgets taps whose feedback frame will never be drawn.
+     */
+    public void discardPendingFrames() {
+        pendingFrameCount = 0;
+    }
+
+    /**
+     * Formats p50/p95/p99/max per stage for every level/grid pair seen so far.
+     * Allocates; meant for export, not for the tap path.
+     */
+    public String formatReport() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("# tap-to-feedback latency (microseconds)\n");
+        sb.append("level\tgrid\tstage\tcount\tp50\tp95\tp99\tmax\n");
+        for (int s = 0; s < slotCount; s++) {
+            for (int stage = 0; stage < STAGE_COUNT; stage++) {
+                LatencyHistogram h = slots[s][stage];
+                sb.append(String.format(Locale.US, "%d\t%dx%d\t%s\t%d\t%d\t%d\t%d\t%d\n",
+                        slotLevel[s], slotSide[s], slotSide[s], STAGE_NAMES[stage], h.count(),
+                        h.percentile(50), h.percentile(95), h.percentile(99), h.max()));
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * @return The histogram for a level/grid/stage, or null if never recorded.
+     */
+    public LatencyHistogram histogram(int level, int side, int stage) {
+        for (int s = 0; s < slotCount; s++) {
+            if (slotLevel[s] == level && slotSide[s] == side) return slots[s][stage];
+        }
+        return null;
+    }
+
+    private LatencyHistogram[] slotFor(int level, int side) {
+        for (int s = 0; s < slotCount; s++) {
+            if (slotLevel[s] == level && slotSide[s] == side) return slots[s];
+        }
+        // Past the table size, the last slot absorbs everything else.
+        if (slotCount == MAX_SLOTS) return slots[MAX_SLOTS - 1];
+
+        LatencyHistogram[] row = new LatencyHistogram[STAGE_COUNT];
+        for (int i = 0; i < STAGE_COUNT; i++) row[i] = new LatencyHistogram();
+        slotLevel[slotCount] = level;
+        slotSide[slotCount] = side;
+        slots[slotCount++] = row;
+        return row;
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.vortex.core;
+
+/**
+ * Deterministic source of target cells for a round.
+ * Seeded once per round with a SplitMix64 generator held in a single long, so
+ * the same seed always yields the same targets and drawing one never allocates.
+ * Optionally the sequence never picks the cell that was just lit, which keeps
+ * every hit visibly moving the target.
+ */
+public final class TargetSequence {
+
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+    private static long seedCounter = 0;
+
+    private final boolean noRepeat;
+    private long state;
+    private int last = -1;
+
+    /**
+     * @param noRepeat True to never return the same cell twice in a row.
+     */
+    public TargetSequence(boolean noRepeat) {
+        this.noRepeat = noRepeat;
+    }
+
+    public boolean isNoRepeat() {
+        return noRepeat;
+    }
+
+    /**
+     * Restarts the sequence from a seed.
+     */
+    public void reset(long seed) {
+        state = seed;
+        last = -1;
+    }
+
+    /**
+     * @param cellCount The number of cells in the grid.
+     * @return The next target, uniformly distributed over the allowed cells.
+     */
+    public int next(int cellCount) {
+        if (noRepeat && cellCount > 1 && last >= 0 && last < cellCount) {
+            // Draw from the other cells and step over the previous target.
+            int pick = nextInt(cellCount - 1);
+            if (pick >= last) pick++;
+            last = pick;
+        } else {
+            last = nextInt(cellCount);
+        }
+        return last;
+    }
+
+    /**
+     * @return A fresh seed that differs between calls and between runs.
+     */
+    public static synchronized long newSeed() {
+        seedCounter++;
+        return mix64(System.nanoTime() + seedCounter * GOLDEN_GAMMA);
+    }
+
+    private long nextLong() {
+        state += GOLDEN_GAMMA;
+        return mix64(state);
+    }
+
+    /**
+     * Unbiased integer in [0, bound), by rejection on 31 random bits.
+     */
+    private int nextInt(int bound) {
+        int bits;
+        int value;
+        do {
+            bits = (int) (nextLong() >>> 33);
+            value = bits % bound;
+        } while (bits - value + (bound - 1) < 0);
+        return value;
+    }
+
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.vortex.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class FrameTimelineTest {
+
+    @Test
+    public void slowFramesAreBlamedOnPendingMarks() {
+        FrameTimeline timeline = new FrameTimeline(16_667);
+        timeline.setLevel(2);
+        timeline.mark(FrameTimeline.MARK_GRID);
+        timeline.mark(FrameTimeline.MARK_TARGET);
+        timeline.onFrame(40_000);
+        // Marks are consumed by the frame after them.
+        timeline.onFrame(30_000);
+        timeline.mark(FrameTimeline.MARK_MISS);
+        timeline.onFrame(8_000);
+
+        assertEquals(3, timeline.frames());
+        assertEquals(2, timeline.slowFrames());
+        assertEquals(1, timeline.slowFramesAfter(FrameTimeline.MARK_GRID));
+        assertEquals(1, timeline.slowFramesAfter(FrameTimeline.MARK_TARGET));
+        assertEquals(0, timeline.slowFramesAfter(FrameTimeline.MARK_MISS));
+        assertEquals(1, timeline.unmarkedSlowFrames());
+    }
+
+    @Test
+    public void framesAreKeptPerLevel() {
+        FrameTimeline timeline = new FrameTimeline(16_667);
+        timeline.setLevel(1);
+        for (int i = 0; i < 100; i++) timeline.onFrame(8_000);
+        timeline.setLevel(200);
+        timeline.onFrame(50_000);
+
+        assertEquals(100, timeline.level(1).count());
+        assertEquals(1, timeline.level(FrameTimeline.MAX_LEVEL).count());
+        assertNull(timeline.level(3));
+    }
+
+    @Test
+    public void encode_isCompact() {
+        FrameTimeline timeline = new FrameTimeline(16_667);
+        for (int level = 1; level <= 4; level++) {
+            timeline.setLevel(level);
+            for (int i = 0; i < 10_000; i++) timeline.onFrame(8_000 + (i % 50) * 200);
+            timeline.mark(FrameTimeline.MARK_GRID);
+            timeline.onFrame(60_000);
+        }
+        byte[] data = timeline.encode();
+        assertEquals(1, data[0]);
+        // 40,000 frames summarized in well under a kilobyte per level.
+        assertTrue(data.length < 4 * 1024);
+    }
+}
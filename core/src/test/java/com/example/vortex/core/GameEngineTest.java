@@ -0,0 +1,176 @@
+package com.example.vortex.core;
+
+import java.io.IOException;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Plays whole rounds headlessly with a hand-controlled clock.
+ */
+public class GameEngineTest {
+
+    private static final long MS = 1_000_000L;
+
+    private long now;
+    private int side;
+    private int hits;
+    private int misses;
+    private int roundEnds;
+    private int lastTarget;
+    private GameEngine engine;
+
+    @Before
+    public void setUp() {
+        now = 10_000 * MS;
+        engine = newEngine();
+    }
+
+    private GameEngine newEngine() {
+        hits = 0;
+        misses = 0;
+        roundEnds = 0;
+        return new GameEngine(() -> now, true, new GameEngine.Listener() {
+            @Override
+            public void onRoundStart(int level, int s) {
+                side = s;
+            }
+
+            @Override
+            public void onTarget(int cell) {
+                lastTarget = cell;
+            }
+
+            @Override
+            public void onHit(int cell) {
+                hits++;
+            }
+
+            @Override
+            public void onMiss(int cell) {
+                misses++;
+            }
+
+            @Override
+            public void onTick(long millisRemaining) {
+            }
+
+            @Override
+            public void onRoundEnd() {
+                roundEnds++;
+            }
+        });
+    }
+
+    @Test
+    public void rules_levelGridAndUnlocks() {
+        assertEquals(2, GameRules.gridSide(1));
+        assertEquals(5, GameRules.gridSide(4));
+        assertEquals(3, GameRules.unlockedAfter(2, 1));
+        assertEquals(4, GameRules.unlockedAfter(2, 4));
+        // Finishing the last level unlocks nothing new.
+        assertEquals(4, GameRules.unlockedAfter(4, 4));
+        assertFalse(GameRules.beatsLowest(10, 10));
+        assertTrue(GameRules.beatsLowest(11, 10));
+    }
+
+    @Test
+    public void hitsScoreAndMoveTheTarget() {
+        engine.startRound(3, 99L);
+        assertEquals(4, side);
+        assertEquals(lastTarget, engine.target());
+
+        int first = engine.target();
+        assertTrue(engine.tap(first, now));
+        assertNotEquals(first, engine.target());
+        assertFalse(engine.tap((engine.target() + 1) % 16, now));
+
+        assertEquals(1, engine.levelScore());
+        assertEquals(1, engine.misses());
+        assertEquals(1, hits);
+        assertEquals(1, misses);
+    }
+
+    @Test
+    public void reactionTimesRunFromTheTargetToTheTap() {
+        engine.startRound(2, 7L);
+        now += 350 * MS;
+        assertTrue(engine.tap(engine.target(), now));
+        // The tap counts from its own event time, not from when it is handled.
+        now += 200 * MS;
+        engine.tap((engine.target() + 1) % 9, now - 100 * MS);
+
+        ReactionStats reactions = engine.reactions();
+        assertEquals(2, reactions.size());
+        assertEquals(350_000, reactions.reactionMicrosAt(0));
+        assertEquals(100_000, reactions.reactionMicrosAt(1));
+        assertEquals(1, reactions.hits());
+        assertEquals(1, reactions.misses());
+
+        engine.startRound(2, 8L);
+        assertEquals(0, engine.reactions().size());
+    }
+
+    @Test
+    public void roundEndsOnceWhenTimeRunsOut() {
+        engine.startRound(1, 5L);
+        now += GameRules.ROUND_MILLIS * MS - MS;
+        assertTrue(engine.advance(now));
+        now += MS;
+        assertFalse(engine.advance(now));
+        assertFalse(engine.advance(now + MS));
+
+        assertEquals(1, roundEnds);
+        assertEquals(GameRules.ROUND_MILLIS, engine.roundMillis());
+        assertTrue(engine.isRoundOver());
+        assertFalse(engine.tap(engine.target(), now));
+        assertFalse(engine.recorder().isRecording());
+    }
+
+    @Test
+    public void replay_reproducesTheRecordedRound() throws IOException {
+        engine.startRound(4, 1234L);
+        for (int i = 0; i < 50; i++) {
+            now += 50 * MS;
+            int cell = (i % 3 == 0) ? (engine.target() + 1) % 25 : engine.target();
+            engine.tap(cell, now);
+            engine.advance(now);
+        }
+        now += GameRules.ROUND_MILLIS * MS;
+        engine.advance(now);
+        int recordedScore = engine.levelScore();
+        int recordedMisses = misses;
+
+        ReplayRecorder recorder = engine.recorder();
+        Replay replay = Replay.decode(recorder.toByteArray(), recorder.length());
+
+        GameEngine player = newEngine();
+        player.startReplay(replay);
+        assertTrue(player.isReplaying());
+        // Live taps are ignored during playback.
+        assertFalse(player.tap(player.target(), now));
+
+        // Play back at ten times real speed.
+        while (player.advance(now)) now += 10 * MS;
+        assertEquals(recordedScore, player.levelScore());
+        assertEquals(recordedMisses, misses);
+        assertEquals(1, roundEnds);
+    }
+
+    @Test
+    public void gridGeometry_hitTestsAndShrinksGutter() {
+        GridGeometry grid = new GridGeometry();
+        grid.update(4, 400, 8f);
+        assertEquals(100f, grid.pitch(), 0f);
+        assertEquals(84f, grid.cellSize(), 0f);
+        assertEquals(0, grid.cellAt(0, 0));
+        assertEquals(15, grid.cellAt(399, 399));
+        assertEquals(-1, grid.cellAt(400, 10));
+        assertEquals(150f, grid.centerX(5), 0f);
+
+        // On a dense grid the gutter is capped at an eighth of the pitch.
+        grid.update(64, 640, 8f);
+        assertEquals(7.5f, grid.cellSize(), 0f);
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.vortex.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class GridSweepTest {
+
+    @Test
+    public void walksTheSidesInOrder() {
+        GridSweep sweep = new GridSweep(new int[]{2, 8, 32}, 100);
+        assertEquals(-1, sweep.side());
+        assertEquals(2, sweep.next());
+        assertEquals(8, sweep.next());
+        assertEquals(32, sweep.next());
+        assertFalse(sweep.hasNext());
+        assertEquals(32, sweep.side());
+        assertEquals(10, sweep.tapIntervalMillis());
+    }
+
+    @Test
+    public void report_hasOneRowPerFinishedSize() {
+        GridSweep sweep = new GridSweep(new int[]{4, 16, 64}, 50);
+        sweep.next();
+        sweep.recordBuild(120_000);
+        for (int i = 0; i < 250; i++) sweep.recordTap(i % 5 != 0, 40_000);
+        for (int i = 0; i < 300; i++) sweep.frames().record(16_000);
+        sweep.finishSize(5000);
+        sweep.next();
+        sweep.recordTap(true, 2_000_000);
+        sweep.finishSize(5000);
+        // Started but never finished: not reported.
+        sweep.next();
+
+        assertEquals(50.0, sweep.tapThroughput(0), 0.001);
+        String report = sweep.formatReport();
+        String[] lines = report.split("\n");
+        assertEquals(4, lines.length);
+        assertTrue(lines[2].startsWith("4x4\t16\t120\t300\t"));
+        assertTrue(lines[2].endsWith("\t250\t200\t50.0\t40\t40"));
+        assertTrue(lines[3].startsWith("16x16\t256\t0\t0\t"));
+        assertTrue(lines[3].endsWith("\t1\t1\t0.2\t2000\t2000"));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void next_afterLastSize_throws() {
+        GridSweep sweep = new GridSweep(new int[]{2}, 10);
+        sweep.next();
+        sweep.next();
+    }
+}
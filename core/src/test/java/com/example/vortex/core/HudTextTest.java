@@ -0,0 +1,54 @@
+package com.example.vortex.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class HudTextTest {
+
+    @Test
+    public void setInt_writesAfterPrefix() {
+        HudText text = new HudText("PTS: ");
+        assertTrue(text.setInt(0));
+        assertEquals("PTS: 0", text.toString());
+        assertTrue(text.setInt(1234));
+        assertEquals("PTS: 1234", text.toString());
+        assertTrue(text.setInt(-7));
+        assertEquals("PTS: -7", text.toString());
+        assertTrue(text.setInt(Long.MIN_VALUE));
+        assertEquals("PTS: " + Long.MIN_VALUE, text.toString());
+    }
+
+    @Test
+    public void setTenths_writesOneDecimal() {
+        HudText text = new HudText("T: ");
+        text.setTenths(50);
+        assertEquals("T: 5.0", text.toString());
+        text.setTenths(49);
+        assertEquals("T: 4.9", text.toString());
+        text.setTenths(3);
+        assertEquals("T: 0.3", text.toString());
+        text.setTenths(0);
+        assertEquals("T: 0.0", text.toString());
+    }
+
+    @Test
+    public void unchangedValue_reportsNoChange() {
+        HudText text = new HudText("T: ");
+        assertTrue(text.setTenths(49));
+        assertFalse(text.setTenths(49));
+        // Same number in a different format is a change.
+        assertTrue(text.setInt(49));
+        assertFalse(text.setInt(49));
+    }
+
+    @Test
+    public void buffer_isReused() {
+        HudText text = new HudText("LVL: ");
+        char[] buffer = text.buffer();
+        text.setInt(1);
+        text.setInt(42);
+        assertSame(buffer, text.buffer());
+        assertEquals(7, text.length());
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.vortex.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void buckets_areContiguousAndOrdered() {
+        long previousUpper = -1;
+        for (int b = 0; b < LatencyHistogram.BUCKET_COUNT; b++) {
+            long upper = LatencyHistogram.upperBoundOf(b);
+            assertTrue(upper > previousUpper);
+            assertEquals(b, LatencyHistogram.bucketOf(previousUpper + 1));
+            assertEquals(b, LatencyHistogram.bucketOf(upper));
+            previousUpper = upper;
+        }
+    }
+
+    @Test
+    public void percentiles_stayWithinBucketError() {
+        LatencyHistogram h = new LatencyHistogram();
+        for (int i = 1; i <= 10_000; i++) h.record(i);
+
+        assertEquals(10_000, h.count());
+        assertEquals(10_000, h.max());
+        assertEquals(1, h.min());
+        assertEquals(5_000, h.mean());
+        assertEquals(5_000, h.percentile(50), 5_000 * 0.07);
+        assertEquals(9_500, h.percentile(95), 9_500 * 0.07);
+        assertEquals(9_900, h.percentile(99), 9_900 * 0.07);
+        assertEquals(10_000, h.percentile(100));
+    }
+
+    @Test
+    public void hugeValues_clampToLastBucketButKeepMax() {
+        LatencyHistogram h = new LatencyHistogram();
+        h.record(Long.MAX_VALUE / 2);
+        assertEquals(LatencyHistogram.BUCKET_COUNT - 1, LatencyHistogram.bucketOf(Long.MAX_VALUE / 2));
+        assertEquals(Long.MAX_VALUE / 2, h.max());
+    }
+
+    @Test
+    public void add_mergesCounts() {
+        LatencyHistogram a = new LatencyHistogram();
+        LatencyHistogram b = new LatencyHistogram();
+        a.record(10);
+        b.record(20);
+        b.record(30);
+        a.add(b);
+        assertEquals(3, a.count());
+        assertEquals(10, a.min());
+        assertEquals(30, a.max());
+
+        a.reset();
+        assertEquals(0, a.count());
+        assertEquals(0, a.percentile(50));
+    }
+}
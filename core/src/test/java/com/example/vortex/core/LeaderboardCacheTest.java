@@ -0,0 +1,90 @@
+package com.example.vortex.core;
+
+import java.util.Arrays;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class LeaderboardCacheTest {
+
+    private final long[] ids = new long[LeaderboardCache.CAPACITY];
+    private final String[] names = new String[LeaderboardCache.CAPACITY];
+    private final int[] scores = new int[LeaderboardCache.CAPACITY];
+    private final int[] levels = new int[LeaderboardCache.CAPACITY];
+
+    @Test
+    public void qualifies_whileBoardHasRoom() {
+        LeaderboardCache cache = new LeaderboardCache();
+        for (int i = 0; i < LeaderboardCache.CAPACITY - 1; i++) cache.offer(i, "p", 100, 2);
+        assertTrue(cache.qualifies(0, 2));
+        // Other levels are independent.
+        assertTrue(cache.qualifies(0, 3));
+    }
+
+    @Test
+    public void qualifies_fullBoardRequiresBeatingTheLowest() {
+        LeaderboardCache cache = new LeaderboardCache();
+        for (int i = 0; i < LeaderboardCache.CAPACITY; i++) cache.offer(i, "p", 10 + i, 1);
+
+        assertFalse(cache.qualifies(9, 1));
+        // Ties with the 25th entry do not qualify, matching DBHelper.isTop25.
+        assertFalse(cache.qualifies(10, 1));
+        assertTrue(cache.qualifies(11, 1));
+    }
+
+    @Test
+    public void offer_displacesWeakestEntry() {
+        LeaderboardCache cache = new LeaderboardCache();
+        for (int i = 0; i < LeaderboardCache.CAPACITY; i++) cache.offer(i, "p" + i, i, 1);
+        cache.offer(100, "best", 1000, 1);
+
+        int n = cache.snapshot(1, ids, names, scores, levels);
+        assertEquals(LeaderboardCache.CAPACITY, n);
+        assertEquals("best", names[0]);
+        assertEquals(1000, scores[0]);
+        // Score 0 fell off; the lowest remaining is 1.
+        assertEquals(1, scores[n - 1]);
+    }
+
+    @Test
+    public void snapshot_sortsDescendingWithOlderEntriesFirstOnTies() {
+        LeaderboardCache cache = new LeaderboardCache();
+        cache.offer(1, "a", 5, 1);
+        cache.offer(2, "b", 9, 2);
+        cache.offer(3, "c", 5, 3);
+        cache.offer(4, "d", 7, 1);
+
+        int n = cache.snapshot(LeaderboardCache.GLOBAL, ids, names, scores, levels);
+        assertEquals(4, n);
+        assertArrayEquals(new long[]{2, 4, 1, 3}, Arrays.copyOf(ids, n));
+        assertArrayEquals(new int[]{2, 1, 1, 3}, Arrays.copyOf(levels, n));
+
+        n = cache.snapshot(1, ids, names, scores, levels);
+        assertEquals(2, n);
+        assertEquals("d", names[0]);
+        assertEquals("a", names[1]);
+    }
+
+    @Test
+    public void load_fillsOnlyTheNamedBoard() {
+        LeaderboardCache cache = new LeaderboardCache();
+        cache.load(LeaderboardCache.GLOBAL, 1, "a", 5, 2);
+        assertEquals(1, cache.size(LeaderboardCache.GLOBAL));
+        assertEquals(0, cache.size(2));
+    }
+
+    @Test
+    public void clear_emptiesEveryBoard() {
+        LeaderboardCache cache = new LeaderboardCache();
+        cache.offer(1, "a", 5, 2);
+        cache.clear();
+        assertEquals(0, cache.size(LeaderboardCache.GLOBAL));
+        assertEquals(0, cache.size(2));
+        assertTrue(cache.qualifies(0, 2));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unknownLevel_isRejected() {
+        new LeaderboardCache().qualifies(1, 9);
+    }
+}
@@ -0,0 +1,233 @@
+package com.example.vortex.core;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class LeaderboardSyncTest {
+
+    private FakeServer server;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new FakeServer();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop();
+    }
+
+    @Test
+    public void upload_sendsEveryRowInBatches() throws IOException {
+        MemoryStore store = new MemoryStore();
+        for (int i = 1; i <= 250; i++) store.add("p" + i, i, 1);
+
+        LeaderboardSync.Result result = new LeaderboardSync(server.client("a"), store).runOnce();
+
+        assertEquals(250, result.uploaded);
+        assertEquals(250, server.rows.size());
+        assertEquals(3, server.uploads);
+        assertEquals(250, store.uploadWatermark());
+        // Own rows come back from the server but are not applied again.
+        assertEquals(0, result.pulled);
+        assertEquals(250, store.rows.size());
+    }
+
+    @Test
+    public void secondSync_sendsOnlyTheDelta() throws IOException {
+        MemoryStore store = new MemoryStore();
+        for (int i = 1; i <= 200; i++) store.add("player" + i, i * 7, 2);
+        SyncClient client = server.client("a");
+        LeaderboardSync sync = new LeaderboardSync(client, store);
+        LeaderboardSync.Result first = sync.runOnce();
+
+        store.add("late", 5, 2);
+        LeaderboardSync.Result second = sync.runOnce();
+
+        assertEquals(1, second.uploaded);
+        assertEquals(201, server.rows.size());
+        assertTrue(second.bytesSent * 5 < first.bytesSent);
+
+        LeaderboardSync.Result idle = sync.runOnce();
+        assertEquals(0, idle.uploaded);
+        assertEquals(0, idle.bytesSent);
+    }
+
+    @Test
+    public void pull_appliesOtherDevicesIncrementally() throws IOException {
+        MemoryStore a = new MemoryStore();
+        MemoryStore b = new MemoryStore();
+        a.add("alice", 10, 1);
+        a.add("ann", 12, 3);
+        new LeaderboardSync(server.client("a"), a).runOnce();
+
+        LeaderboardSync syncB = new LeaderboardSync(server.client("b"), b);
+        b.add("bob", 20, 1);
+        LeaderboardSync.Result first = syncB.runOnce();
+        assertEquals(1, first.uploaded);
+        assertEquals(2, first.pulled);
+        assertEquals(3, b.rows.size());
+        assertEquals(3, b.pullWatermark());
+
+        for (int i = 0; i < 450; i++) a.add("a" + i, i, 2);
+        new LeaderboardSync(server.client("a"), a).runOnce();
+
+        LeaderboardSync.Result second = syncB.runOnce();
+        assertEquals(450, second.pulled);
+        assertEquals(453, b.rows.size());
+        assertEquals(0, syncB.runOnce().pulled);
+    }
+
+    @Test
+    public void failedPass_keepsWatermarksAndRetries() throws IOException {
+        MemoryStore store = new MemoryStore();
+        store.add("p", 1, 1);
+        server.failures = 2;
+        LeaderboardSync sync = new LeaderboardSync(server.client("a"), store);
+        Backoff backoff = new Backoff(100, 1000, 1L);
+
+        int attempts = 0;
+        LeaderboardSync.Result result = null;
+        while (result == null) {
+            attempts++;
+            try {
+                result = sync.runOnce();
+                backoff.reset();
+            } catch (IOException e) {
+                assertEquals("HTTP 503", e.getMessage());
+                assertEquals(0, store.uploadWatermark());
+                backoff.nextDelayMillis();
+            }
+        }
+        assertEquals(3, attempts);
+        assertEquals(1, result.uploaded);
+        assertEquals(0, backoff.failures());
+    }
+
+    @Test
+    public void backoff_growsWithinCap() {
+        Backoff backoff = new Backoff(100, 1000, 42L);
+        for (int i = 0; i < 40; i++) {
+            long delay = backoff.nextDelayMillis();
+            assertTrue(delay >= 0);
+            assertTrue(delay <= Math.min(1000, 100L << Math.min(i, 20)));
+        }
+        assertEquals(40, backoff.failures());
+    }
+
+    private static final class MemoryStore implements LeaderboardSync.Store {
+        final List<SyncRecord> rows = new ArrayList<>();
+        private final List<SyncRecord> local = new ArrayList<>();
+        private long uploaded = 0;
+        private long pulled = 0;
+
+        void add(String name, int score, int level) {
+            SyncRecord row = new SyncRecord(local.size() + 1, name, score, level);
+            local.add(row);
+            rows.add(row);
+        }
+
+        @Override
+        public List<SyncRecord> pendingUploads(long afterId, int limit) {
+            List<SyncRecord> out = new ArrayList<>();
+            for (SyncRecord row : local) {
+                if (row.id > afterId && out.size() < limit) out.add(row);
+            }
+            return out;
+        }
+
+        @Override
+        public long uploadWatermark() {
+            return uploaded;
+        }
+
+        @Override
+        public void markUploaded(long upToId) {
+            uploaded = upToId;
+        }
+
+        @Override
+        public long pullWatermark() {
+            return pulled;
+        }
+
+        @Override
+        public void applyRemote(List<SyncRecord> remote, long newWatermark) {
+            rows.addAll(remote);
+            pulled = newWatermark;
+        }
+    }
+
+    /**
+     * In-process stand-in for the leaderboard server.
+     */
+    private static final class FakeServer {
+        final List<SyncRecord> rows = new ArrayList<>();
+        final List<String> owners = new ArrayList<>();
+        int uploads = 0;
+        volatile int failures = 0;
+        private final HttpServer http;
+
+        FakeServer() throws IOException {
+            http = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+            http.createContext("/scores", this::handle);
+            http.start();
+        }
+
+        SyncClient client(String clientId) {
+            return new SyncClient("http://127.0.0.1:" + http.getAddress().getPort(), clientId);
+        }
+
+        void stop() {
+            http.stop(0);
+        }
+
+        private synchronized void handle(HttpExchange exchange) throws IOException {
+            if (failures > 0) {
+                failures--;
+                exchange.sendResponseHeaders(503, -1);
+                exchange.close();
+                return;
+            }
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            if ("POST".equals(exchange.getRequestMethod())) {
+                SyncCodec.Upload upload = SyncCodec.readUpload(exchange.getRequestBody());
+                long last = 0;
+                for (SyncRecord row : upload.rows) {
+                    rows.add(new SyncRecord(rows.size() + 1, row.name, row.score, row.level));
+                    owners.add(upload.clientId);
+                    last = row.id;
+                }
+                uploads++;
+                SyncCodec.writeAck(body, last);
+            } else {
+                long since = 0;
+                int limit = 0;
+                for (String pair : exchange.getRequestURI().getQuery().split("&")) {
+                    String[] kv = pair.split("=");
+                    if (kv[0].equals("since")) since = Long.parseLong(kv[1]);
+                    if (kv[0].equals("limit")) limit = Integer.parseInt(kv[1]);
+                }
+                int from = (int) since;
+                int to = Math.min(rows.size(), from + limit);
+                SyncCodec.writePage(body, new SyncCodec.Page(to,
+                        rows.subList(from, to), owners.subList(from, to)));
+            }
+            exchange.sendResponseHeaders(200, body.size());
+            try (OutputStream out = exchange.getResponseBody()) {
+                body.writeTo(out);
+            }
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.vortex.core;
+
+import java.io.IOException;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ReactionStatsTest {
+
+    @Test
+    public void meanAndVarianceCoverHitsOnly() {
+        ReactionStats stats = new ReactionStats();
+        stats.record(300_000, true);
+        stats.record(500_000, true);
+        stats.record(2_000_000, false);
+        stats.record(400_000, true);
+
+        assertEquals(3, stats.hits());
+        assertEquals(1, stats.misses());
+        assertEquals(400_000, stats.mean(), 1e-6);
+        assertEquals(1e10, stats.variance(), 1e-3);
+        assertEquals(100_000, stats.stdDev(), 1e-6);
+        // The sketch answers with a bucket bound, within a few percent.
+        assertEquals(400_000, stats.percentile(50), 400_000 * 0.07);
+    }
+
+    @Test
+    public void ring_keepsTheLatestTapsOldestFirst() {
+        ReactionStats stats = new ReactionStats(4);
+        for (int i = 1; i <= 6; i++) stats.record(i * 1000L, i % 2 == 0);
+
+        assertEquals(4, stats.size());
+        assertEquals(3000, stats.reactionMicrosAt(0));
+        assertFalse(stats.hitAt(0));
+        assertEquals(6000, stats.reactionMicrosAt(3));
+        assertTrue(stats.hitAt(3));
+        // Statistics still cover every tap, not only the ones in the ring.
+        assertEquals(3, stats.hits());
+        assertEquals(3, stats.misses());
+    }
+
+    @Test
+    public void negativeReaction_countsAsZero() {
+        ReactionStats stats = new ReactionStats();
+        stats.record(-50, true);
+        assertEquals(0, stats.reactionMicrosAt(0));
+        assertEquals(0, stats.mean(), 0);
+    }
+
+    @Test
+    public void encode_roundTripsTheSummary() throws IOException {
+        ReactionStats stats = new ReactionStats();
+        for (int i = 0; i < 100; i++) stats.record(200_000 + i * 4_000, true);
+        stats.record(50_000, false);
+
+        byte[] data = stats.encode();
+        assertEquals(29, data.length);
+        ReactionStats.Summary summary = ReactionStats.decode(data);
+        assertEquals(100, summary.hits);
+        assertEquals(1, summary.misses);
+        assertEquals(Math.round(stats.mean()), summary.meanMicros);
+        assertEquals(Math.round(stats.stdDev()), summary.stdDevMicros);
+        assertEquals(stats.percentile(50), summary.medianMicros);
+        assertEquals(stats.percentile(90), summary.p90Micros);
+        assertEquals(200_000, summary.bestMicros);
+
+        stats.reset();
+        assertEquals(0, ReactionStats.decode(stats.encode()).hits);
+    }
+
+    @Test(expected = IOException.class)
+    public void decode_rejectsOtherVersions() throws IOException {
+        byte[] data = new ReactionStats().encode();
+        data[0] = 9;
+        ReactionStats.decode(data);
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.vortex.core;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ReplayTest {
+
+    @Test
+    public void recordAndDecode_roundTrips() throws IOException {
+        ReplayRecorder recorder = new ReplayRecorder();
+        recorder.begin(-5L, 3, 4, true);
+        recorder.recordTap(120_000, 5);
+        recorder.recordTap(480_500, 0);
+        recorder.recordTap(480_500, 15);
+        recorder.end(5_000_000);
+
+        Replay replay = Replay.decode(recorder.toByteArray(), recorder.length());
+        assertEquals(-5L, replay.seed);
+        assertEquals(3, replay.level);
+        assertEquals(4, replay.side);
+        assertTrue(replay.noRepeat);
+        assertEquals(3, replay.tapCount);
+        assertEquals(120_000, replay.tapMicros[0]);
+        assertEquals(480_500, replay.tapMicros[2]);
+        assertEquals(15, replay.tapCells[2]);
+        assertEquals(5_000_000, replay.durationMicros);
+    }
+
+    @Test
+    public void decode_rejectsForeignOrTruncatedData() {
+        ReplayRecorder recorder = new ReplayRecorder();
+        recorder.begin(1L, 1, 2, false);
+        recorder.recordTap(1000, 1);
+        recorder.end(2000);
+        byte[] data = recorder.toByteArray();
+
+        try {
+            Replay.decode(data, data.length - 1);
+            fail("Truncated replay decoded");
+        } catch (IOException expected) {
+        }
+        data[0] = 0;
+        try {
+            Replay.decode(data, data.length);
+            fail("Bad magic decoded");
+        } catch (IOException expected) {
+        }
+    }
+
+    @Test
+    public void playAll_reproducesTheRecordedHits() throws IOException {
+        long seed = 0x1234_5678_9ABCL;
+        int side = 5;
+
+        // Record a round where every other tap hits the target.
+        TargetSequence live = new TargetSequence(true);
+        live.reset(seed);
+        ReplayRecorder recorder = new ReplayRecorder();
+        recorder.begin(seed, 4, side, true);
+        int target = live.next(side * side);
+        int hits = 0;
+        for (int i = 0; i < 200; i++) {
+            int cell = (i % 2 == 0) ? target : (target + 1) % (side * side);
+            recorder.recordTap(i * 25_000L, cell);
+            if (cell == target) {
+                hits++;
+                target = live.next(side * side);
+            }
+        }
+        recorder.end(5_000_000);
+
+        Replay replay = Replay.decode(recorder.toByteArray(), recorder.length());
+        TargetSequence replayed = new TargetSequence(replay.noRepeat);
+        replayed.reset(replay.seed);
+        final int[] state = {replayed.next(side * side), 0};
+        final ArrayList<Boolean> ended = new ArrayList<>();
+        ReplayPlayer.playAll(replay, new ReplayPlayer.Listener() {
+            @Override
+            public void onReplayTap(int cell) {
+                if (cell == state[0]) {
+                    state[1]++;
+                    state[0] = replayed.next(side * side);
+                }
+            }
+
+            @Override
+            public void onReplayEnd() {
+                ended.add(true);
+            }
+        });
+        assertEquals(hits, state[1]);
+        assertEquals(1, ended.size());
+    }
+
+    @Test
+    public void player_deliversTapsAsTimePasses() throws IOException {
+        ReplayRecorder recorder = new ReplayRecorder();
+        recorder.begin(9L, 1, 2, false);
+        recorder.recordTap(100, 0);
+        recorder.recordTap(300, 1);
+        recorder.end(500);
+        ReplayPlayer player = new ReplayPlayer(Replay.decode(recorder.toByteArray(), recorder.length()));
+
+        final int[] taps = {0, 0};
+        ReplayPlayer.Listener listener = new ReplayPlayer.Listener() {
+            @Override
+            public void onReplayTap(int cell) {
+                taps[0]++;
+            }
+
+            @Override
+            public void onReplayEnd() {
+                taps[1]++;
+            }
+        };
+        player.advance(99, listener);
+        assertEquals(0, taps[0]);
+        player.advance(300, listener);
+        assertEquals(2, taps[0]);
+        assertFalse(player.isFinished());
+        player.advance(500, listener);
+        player.advance(600, listener);
+        assertTrue(player.isFinished());
+        assertEquals(1, taps[1]);
+    }
+}
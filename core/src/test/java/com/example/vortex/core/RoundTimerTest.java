@@ -0,0 +1,111 @@
+package com.example.vortex.core;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Drives {@link RoundTimer} with a hand-controlled clock, so no Android
+ * framework or real time is needed.
+ */
+public class RoundTimerTest {
+
+    private static final long MS = 1_000_000L;
+
+    private long now;
+    private long lastTick;
+    private int ticks;
+    private int finishes;
+    private RoundTimer timer;
+
+    @Before
+    public void setUp() {
+        now = 1_000 * MS;
+        lastTick = -1;
+        ticks = 0;
+        finishes = 0;
+        timer = new RoundTimer(5000, 100, () -> now, new RoundTimer.Listener() {
+            @Override
+            public void onTick(long millisRemaining) {
+                lastTick = millisRemaining;
+                ticks++;
+            }
+
+            @Override
+            public void onFinish() {
+                finishes++;
+            }
+        });
+    }
+
+    @Test
+    public void start_reportsFullDurationImmediately() {
+        timer.start();
+        assertEquals(1, ticks);
+        assertEquals(5000, lastTick);
+        assertTrue(timer.isRunning());
+    }
+
+    @Test
+    public void advance_ticksOncePerStep() {
+        timer.start();
+        // Several frames inside the same 100ms step only tick once.
+        timer.advance(now + 16 * MS);
+        timer.advance(now + 33 * MS);
+        timer.advance(now + 99 * MS);
+        assertEquals(1, ticks);
+
+        timer.advance(now + 100 * MS);
+        assertEquals(2, ticks);
+        assertEquals(4900, lastTick);
+    }
+
+    @Test
+    public void advance_skippedStepsReportLatestOnly() {
+        timer.start();
+        // A long stall crosses several steps but produces a single tick.
+        timer.advance(now + 1_234 * MS);
+        assertEquals(2, ticks);
+        assertEquals(3800, lastTick);
+    }
+
+    @Test
+    public void advance_finishesOnFirstFrameAtDeadline() {
+        timer.start();
+        timer.advance(now + 4_999 * MS);
+        assertEquals(0, finishes);
+
+        timer.advance(now + 5_000 * MS);
+        assertEquals(1, finishes);
+        assertFalse(timer.isRunning());
+
+        // Further frames are ignored once the round is over.
+        timer.advance(now + 6_000 * MS);
+        assertEquals(1, finishes);
+    }
+
+    @Test
+    public void advance_frameBeforeStartCountsAsZero() {
+        timer.start();
+        timer.advance(now - 8 * MS);
+        assertEquals(1, ticks);
+        assertEquals(5000, lastTick);
+    }
+
+    @Test
+    public void cancel_suppressesFinish() {
+        timer.start();
+        timer.cancel();
+        timer.advance(now + 10_000 * MS);
+        assertEquals(0, finishes);
+        assertEquals(0, timer.millisRemaining());
+    }
+
+    @Test
+    public void millisRemaining_readsInjectedClock() {
+        timer.start();
+        now += 1_500 * MS;
+        assertEquals(3500, timer.millisRemaining());
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.vortex.core;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ScoreArchiveTest {
+
+    // Several times the codec buffer in either format. Throughput is measured
+    // in the jmh source set (ArchiveBenchmark).
+    private static final int ROWS = 20_000;
+
+    private File file;
+
+    @After
+    public void tearDown() {
+        if (file != null) file.delete();
+    }
+
+    private interface Open<T> {
+        T open(FileChannel channel) throws IOException;
+    }
+
+    @Test
+    public void binary_roundTripsEveryField() throws IOException {
+        roundTripsEveryField(ScoreArchive::newWriter, ScoreArchive::newReader);
+    }
+
+    @Test
+    public void csv_roundTripsEveryField() throws IOException {
+        roundTripsEveryField(ScoreCsv::newWriter, ScoreCsv::newReader);
+    }
+
+    private void roundTripsEveryField(Open<ScoreArchive.Sink> writer, Open<ScoreArchive.Source> reader)
+            throws IOException {
+        file = File.createTempFile("archive", ".tmp");
+        try (ScoreArchive.Sink sink = writer.open(write(file))) {
+            sink.writeScore("Guest", 42, 3, 0);
+            sink.writeScore("\"Zo\u00eb\", the 2nd\nline", 7, 1, 123_456_789_012L);
+            sink.writeRound(1_700_000_000_000L, 4, 30, 31, 2, 5003);
+            sink.writeRound(1_699_999_000_000L, 1, 0, 0, 0, 5000);
+            sink.finish();
+        }
+
+        ScoreArchive.Row row = new ScoreArchive.Row();
+        try (ScoreArchive.Source source = reader.open(read(file))) {
+            assertTrue(source.next(row));
+            assertEquals(ScoreArchive.Row.SCORE, row.kind);
+            assertEquals("Guest", row.name);
+            assertEquals(42, row.score);
+            assertEquals(3, row.level);
+            assertEquals(0, row.remoteSeq);
+
+            assertTrue(source.next(row));
+            assertEquals("\"Zo\u00eb\", the 2nd\nline", row.name);
+            assertEquals(123_456_789_012L, row.remoteSeq);
+
+            assertTrue(source.next(row));
+            assertEquals(ScoreArchive.Row.ROUND, row.kind);
+            assertEquals(1_700_000_000_000L, row.playedAtMillis);
+            assertEquals(4, row.level);
+            assertEquals(30, row.score);
+            assertEquals(31, row.hits);
+            assertEquals(2, row.misses);
+            assertEquals(5003, row.durationMillis);
+
+            // Start times are deltas, and may go backwards.
+            assertTrue(source.next(row));
+            assertEquals(1_699_999_000_000L, row.playedAtMillis);
+
+            assertFalse(source.next(row));
+            assertFalse(source.next(row));
+        }
+    }
+
+    @Test
+    public void binary_rejectsDamagedFile() throws IOException {
+        file = File.createTempFile("archive", ".tmp");
+        writeRows(ScoreArchive::newWriter, 10_000);
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(raf.length() / 2);
+            int b = raf.read();
+            raf.seek(raf.length() / 2);
+            raf.write(b ^ 0x01);
+        }
+        assertThrows(IOException.class, () -> readAll(ScoreArchive::newReader));
+    }
+
+    @Test
+    public void binary_rejectsTruncatedFile() throws IOException {
+        file = File.createTempFile("archive", ".tmp");
+        writeRows(ScoreArchive::newWriter, 10_000);
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(raf.length() - 3);
+        }
+        assertThrows(IOException.class, () -> readAll(ScoreArchive::newReader));
+    }
+
+    @Test
+    public void manyRows_roundTripAcrossBufferRefills() throws IOException {
+        file = File.createTempFile("archive", ".tmp");
+        writeRows(ScoreArchive::newWriter, ROWS);
+        assertEquals(2L * ROWS, readAll(ScoreArchive::newReader));
+        writeRows(ScoreCsv::newWriter, ROWS);
+        assertEquals(2L * ROWS, readAll(ScoreCsv::newReader));
+    }
+
+    private void writeRows(Open<ScoreArchive.Sink> writer, int count) throws IOException {
+        try (ScoreArchive.Sink sink = writer.open(write(file))) {
+            long playedAt = 1_700_000_000_000L;
+            for (int i = 0; i < count; i++) {
+                sink.writeScore(i % 3 == 0 ? "Guest" : "Player " + (i % 1000), i % 97, 1 + i % 4, i % 2 == 0 ? 0 : i);
+                playedAt += 5_000 + i % 700;
+                sink.writeRound(playedAt, 1 + i % 4, i % 97, i % 97 + i % 3, i % 3, 5_000 + i % 40);
+            }
+            sink.finish();
+            assertEquals(count, sink.scoreCount());
+            assertEquals(count, sink.roundCount());
+        }
+    }
+
+    private long readAll(Open<ScoreArchive.Source> reader) throws IOException {
+        long rows = 0;
+        long checksum = 0;
+        ScoreArchive.Row row = new ScoreArchive.Row();
+        try (ScoreArchive.Source source = reader.open(read(file))) {
+            while (source.next(row)) {
+                rows++;
+                checksum += row.score;
+            }
+        }
+        assertTrue(checksum > 0);
+        return rows;
+    }
+
+    private static FileChannel write(File file) throws IOException {
+        return FileChannel.open(file.toPath(), StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    private static FileChannel read(File file) throws IOException {
+        return FileChannel.open(file.toPath(), StandardOpenOption.READ);
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.vortex.core;
+
+import java.io.IOException;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ScoreDistributionTest {
+
+    @Test
+    public void summarizesRecordedScores() {
+        ScoreDistribution d = new ScoreDistribution();
+        for (int score = 1; score <= 10; score++) d.record(score);
+
+        assertEquals(10, d.count());
+        assertEquals(10, d.best());
+        assertEquals(5.5, d.mean(), 1e-9);
+        assertEquals(5, d.percentile(50));
+        assertEquals(9, d.percentile(90));
+        assertEquals(1, d.percentile(0));
+    }
+
+    @Test
+    public void percentBelow_countsStrictlyLowerRounds() {
+        ScoreDistribution d = new ScoreDistribution();
+        assertEquals(-1, d.percentBelow(3), 0);
+        d.record(2);
+        d.record(4);
+        d.record(4);
+        d.record(8);
+
+        assertEquals(0, d.percentBelow(2), 1e-9);
+        assertEquals(25, d.percentBelow(4), 1e-9);
+        assertEquals(75, d.percentBelow(5), 1e-9);
+        assertEquals(100, d.percentBelow(50_000), 1e-9);
+    }
+
+    @Test
+    public void highScoresKeepTheirBest() {
+        ScoreDistribution d = new ScoreDistribution();
+        d.record(3);
+        d.record(5000);
+
+        assertEquals(5000, d.best());
+        assertEquals(5000, d.percentile(100));
+        assertEquals(50, d.percentBelow(4000), 1e-9);
+    }
+
+    @Test
+    public void encode_roundTrips() throws IOException {
+        ScoreDistribution d = new ScoreDistribution();
+        for (int i = 0; i < 10_000; i++) d.record(i % 37);
+        d.record(2000);
+
+        byte[] data = d.encode();
+        // Only the 38 used counters are written.
+        assertTrue(data.length < 400);
+
+        ScoreDistribution copy = ScoreDistribution.decode(data);
+        assertEquals(d.count(), copy.count());
+        assertEquals(d.best(), copy.best());
+        assertEquals(d.mean(), copy.mean(), 1e-9);
+        assertEquals(d.percentile(90), copy.percentile(90));
+        assertEquals(d.percentBelow(20), copy.percentBelow(20), 1e-9);
+    }
+
+    @Test(expected = IOException.class)
+    public void decode_rejectsOtherVersions() throws IOException {
+        ScoreDistribution.decode(new byte[]{9, 0, 0});
+    }
+}
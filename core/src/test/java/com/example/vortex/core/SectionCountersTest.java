@@ -0,0 +1,42 @@
+package com.example.vortex.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class SectionCountersTest {
+
+    @Test
+    public void tracksCallsTotalAndMax() {
+        SectionCounters counters = new SectionCounters("db", "grid");
+        counters.record(0, 2_000);
+        counters.record(0, 6_000);
+        counters.record(0, 4_000);
+
+        assertEquals(3, counters.calls(0));
+        assertEquals(12_000, counters.totalNanos(0));
+        assertEquals(6_000, counters.maxNanos(0));
+        assertEquals(0, counters.calls(1));
+        // Sections never called are left out.
+        assertEquals("section\tcalls\ttotal\tmean\tmax\ndb\t3\t12\t4\t6\n", counters.formatReport());
+    }
+
+    @Test
+    public void concurrentRecordingLosesNothing() throws InterruptedException {
+        SectionCounters counters = new SectionCounters("s");
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            final int id = t;
+            threads[t] = new Thread(() -> {
+                for (int i = 1; i <= 10_000; i++) counters.record(0, id * 100_000L + i);
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) thread.join();
+
+        assertEquals(40_000, counters.calls(0));
+        assertEquals(310_000, counters.maxNanos(0));
+        counters.reset();
+        assertEquals(0, counters.calls(0));
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.vortex.core;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class StagedInitializerTest {
+
+    private final List<String> order = Collections.synchronizedList(new ArrayList<>());
+
+    private Runnable log(String name) {
+        return () -> order.add(name);
+    }
+
+    @Test
+    public void runsStagesAfterTheirDependencies() throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(3);
+        StagedInitializer init = new StagedInitializer(RoundTimer.SYSTEM_CLOCK)
+                .add("prefs", log("prefs"))
+                .add("db", log("db"))
+                .add("audio", log("audio"))
+                .add("sync", log("sync"), "db")
+                .add("feedback", log("feedback"), "audio", "prefs");
+        init.start(pool);
+        assertTrue(init.await(5000));
+        pool.shutdown();
+
+        assertEquals(5, order.size());
+        assertTrue(order.indexOf("db") < order.indexOf("sync"));
+        assertTrue(order.indexOf("audio") < order.indexOf("feedback"));
+        assertTrue(order.indexOf("prefs") < order.indexOf("feedback"));
+        assertTrue(init.isDone());
+        assertTrue(init.endMicros("feedback") >= init.endMicros("audio"));
+        assertEquals(-1, init.endMicros("missing"));
+    }
+
+    @Test
+    public void failedStageStillReleasesDependents() throws InterruptedException {
+        StagedInitializer init = new StagedInitializer(RoundTimer.SYSTEM_CLOCK)
+                .add("broken", () -> {
+                    throw new IllegalStateException("boom");
+                })
+                .add("after", log("after"), "broken");
+        // Runs every stage inline, on this thread.
+        init.start(Runnable::run);
+
+        assertTrue(init.isDone());
+        assertEquals(1, order.size());
+        assertTrue(init.formatReport().contains("failed: java.lang.IllegalStateException: boom"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsUnknownDependency() {
+        new StagedInitializer(RoundTimer.SYSTEM_CLOCK).add("sync", log("sync"), "db");
+    }
+}
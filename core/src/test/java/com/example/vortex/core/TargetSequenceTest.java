@@ -0,0 +1,49 @@
+package com.example.vortex.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TargetSequenceTest {
+
+    @Test
+    public void sameSeed_sameTargets() {
+        TargetSequence a = new TargetSequence(true);
+        TargetSequence b = new TargetSequence(true);
+        a.reset(42L);
+        b.reset(42L);
+        for (int i = 0; i < 1000; i++) assertEquals(a.next(16), b.next(16));
+
+        // Resetting restarts the sequence.
+        a.reset(42L);
+        b.reset(42L);
+        assertEquals(a.next(9), b.next(9));
+    }
+
+    @Test
+    public void next_staysInRangeAndCoversEveryCell() {
+        TargetSequence seq = new TargetSequence(false);
+        seq.reset(7L);
+        boolean[] seen = new boolean[25];
+        for (int i = 0; i < 10_000; i++) {
+            int cell = seq.next(25);
+            assertTrue(cell >= 0 && cell < 25);
+            seen[cell] = true;
+        }
+        for (boolean s : seen) assertTrue(s);
+    }
+
+    @Test
+    public void noRepeat_neverPicksTheSameCellTwice() {
+        TargetSequence seq = new TargetSequence(true);
+        seq.reset(123L);
+        int last = seq.next(4);
+        for (int i = 0; i < 10_000; i++) {
+            int cell = seq.next(4);
+            assertNotEquals(last, cell);
+            last = cell;
+        }
+        // A single cell grid has no other choice.
+        assertEquals(0, seq.next(1));
+    }
+}